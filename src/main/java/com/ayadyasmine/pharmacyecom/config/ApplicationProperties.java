@@ -13,12 +13,36 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
 
+    private final CatalogQueryCache catalogQueryCache = new CatalogQueryCache();
+
+    private final StockReservation stockReservation = new StockReservation();
+
+    private final IdempotencyKey idempotencyKey = new IdempotencyKey();
+
+    private final CheckoutQueue checkoutQueue = new CheckoutQueue();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
         return liquibase;
     }
 
+    public CatalogQueryCache getCatalogQueryCache() {
+        return catalogQueryCache;
+    }
+
+    public StockReservation getStockReservation() {
+        return stockReservation;
+    }
+
+    public IdempotencyKey getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public CheckoutQueue getCheckoutQueue() {
+        return checkoutQueue;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -33,5 +57,117 @@ public class ApplicationProperties {
             this.asyncStart = asyncStart;
         }
     }
+
+    public static class CatalogQueryCache {
+
+        private boolean enabled = true;
+
+        private int timeToLiveSeconds = 300;
+
+        private int maxEntriesPerNode = 10000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getTimeToLiveSeconds() {
+            return timeToLiveSeconds;
+        }
+
+        public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+            this.timeToLiveSeconds = timeToLiveSeconds;
+        }
+
+        public int getMaxEntriesPerNode() {
+            return maxEntriesPerNode;
+        }
+
+        public void setMaxEntriesPerNode(int maxEntriesPerNode) {
+            this.maxEntriesPerNode = maxEntriesPerNode;
+        }
+    }
+
+    public static class StockReservation {
+
+        private int holdTimeToLiveSeconds = 900;
+
+        public int getHoldTimeToLiveSeconds() {
+            return holdTimeToLiveSeconds;
+        }
+
+        public void setHoldTimeToLiveSeconds(int holdTimeToLiveSeconds) {
+            this.holdTimeToLiveSeconds = holdTimeToLiveSeconds;
+        }
+    }
+
+    public static class IdempotencyKey {
+
+        private int timeToLiveSeconds = 86_400;
+
+        public int getTimeToLiveSeconds() {
+            return timeToLiveSeconds;
+        }
+
+        public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+            this.timeToLiveSeconds = timeToLiveSeconds;
+        }
+    }
+
+    public static class CheckoutQueue {
+
+        private boolean enabled = false;
+
+        private int shards = 4;
+
+        private int capacity = 1_000;
+
+        private int maxBatchSize = 50;
+
+        private int timeoutSeconds = 10;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getShards() {
+            return shards;
+        }
+
+        public void setShards(int shards) {
+            this.shards = shards;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public int getTimeoutSeconds() {
+            return timeoutSeconds;
+        }
+
+        public void setTimeoutSeconds(int timeoutSeconds) {
+            this.timeoutSeconds = timeoutSeconds;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
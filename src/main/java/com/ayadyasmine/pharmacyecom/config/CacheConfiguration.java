@@ -1,5 +1,7 @@
 package com.ayadyasmine.pharmacyecom.config;
 
+import com.ayadyasmine.pharmacyecom.repository.HotVariantStockMapStore;
+import com.ayadyasmine.pharmacyecom.service.ProductQueryCache;
 import com.hazelcast.config.*;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
@@ -47,7 +49,11 @@ public class CacheConfiguration {
     }
 
     @Bean
-    public HazelcastInstance hazelcastInstance(JHipsterProperties jHipsterProperties) {
+    public HazelcastInstance hazelcastInstance(
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        HotVariantStockMapStore hotVariantStockMapStore
+    ) {
         LOG.debug("Configuring Hazelcast");
         HazelcastInstance hazelCastInstance = Hazelcast.getHazelcastInstanceByName("pharmacyEcom");
         if (hazelCastInstance != null) {
@@ -70,6 +76,8 @@ public class CacheConfiguration {
         config.setManagementCenterConfig(new ManagementCenterConfig());
         config.addMapConfig(initializeDefaultMapConfig(jHipsterProperties));
         config.addMapConfig(initializeDomainMapConfig(jHipsterProperties));
+        config.addMapConfig(initializeHotVariantStockMapConfig(jHipsterProperties, hotVariantStockMapStore));
+        config.addMapConfig(initializeProductQueryResultsMapConfig(applicationProperties.getCatalogQueryCache()));
         return Hazelcast.newHazelcastInstance(config);
     }
 
@@ -109,6 +117,36 @@ public class CacheConfiguration {
         return mapConfig;
     }
 
+    /**
+     * The hot variant stock counters never expire nor get evicted, and have a backup. They are loaded from the database
+     * when the cluster starts, and never written back, as the checkouts update the rows themselves.
+     */
+    private MapConfig initializeHotVariantStockMapConfig(JHipsterProperties jHipsterProperties, HotVariantStockMapStore mapStore) {
+        MapConfig mapConfig = new MapConfig(HotVariantStockMapStore.MAP_NAME);
+        mapConfig.setBackupCount(Math.max(1, jHipsterProperties.getCache().getHazelcast().getBackupCount()));
+        mapConfig.setTimeToLiveSeconds(0);
+        mapConfig.getEvictionConfig().setEvictionPolicy(EvictionPolicy.NONE);
+        mapConfig
+            .getMapStoreConfig()
+            .setEnabled(true)
+            .setImplementation(mapStore)
+            .setInitialLoadMode(MapStoreConfig.InitialLoadMode.EAGER);
+        return mapConfig;
+    }
+
+    /**
+     * The catalog query results are keyed by free-form criteria: the map is bounded per node, the least recently used
+     * results being evicted first.
+     */
+    private MapConfig initializeProductQueryResultsMapConfig(ApplicationProperties.CatalogQueryCache properties) {
+        MapConfig mapConfig = new MapConfig(ProductQueryCache.MAP_NAME);
+        mapConfig.setTimeToLiveSeconds(properties.getTimeToLiveSeconds());
+        mapConfig.getEvictionConfig().setEvictionPolicy(EvictionPolicy.LRU);
+        mapConfig.getEvictionConfig().setMaxSizePolicy(MaxSizePolicy.PER_NODE);
+        mapConfig.getEvictionConfig().setSize(properties.getMaxEntriesPerNode());
+        return mapConfig;
+    }
+
     @Autowired(required = false)
     public void setGitProperties(GitProperties gitProperties) {
         this.gitProperties = gitProperties;
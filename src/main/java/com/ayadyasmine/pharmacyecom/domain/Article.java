@@ -6,6 +6,8 @@ import java.io.Serializable;
 import java.time.Instant;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 /**
  * A Article.
@@ -13,6 +15,7 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
 @Entity
 @Table(name = "article")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Article implements Serializable {
 
@@ -29,6 +32,7 @@ public class Article implements Serializable {
     private String title;
 
     @NotNull
+    @NaturalId(mutable = true)
     @Column(name = "slug", nullable = false, unique = true)
     private String slug;
 
@@ -5,6 +5,8 @@ import jakarta.validation.constraints.*;
 import java.io.Serializable;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 /**
  * A Brand.
@@ -12,6 +14,7 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
 @Entity
 @Table(name = "brand")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Brand implements Serializable {
 
@@ -28,6 +31,7 @@ public class Brand implements Serializable {
     private String name;
 
     @NotNull
+    @NaturalId(mutable = true)
     @Column(name = "slug", nullable = false, unique = true)
     private String slug;
 
@@ -4,8 +4,12 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 /**
  * A Category.
@@ -13,6 +17,7 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
 @Entity
 @Table(name = "category")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Category implements Serializable {
 
@@ -29,6 +34,7 @@ public class Category implements Serializable {
     private String name;
 
     @NotNull
+    @NaturalId(mutable = true)
     @Column(name = "slug", nullable = false, unique = true)
     private String slug;
 
@@ -42,6 +48,14 @@ public class Category implements Serializable {
     @JsonIgnoreProperties(value = { "parent" }, allowSetters = true)
     private Category parent;
 
+    /**
+     * The closure rows of which this category is the descendant, i.e. its ancestors and itself.
+     * Read-only: the rows are written by {@code CategoryService}.
+     */
+    @OneToMany(fetch = FetchType.LAZY, mappedBy = "descendant")
+    @JsonIgnoreProperties(value = { "descendant" }, allowSetters = true)
+    private Set<CategoryClosure> ancestorLinks = new HashSet<>();
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -122,6 +136,10 @@ public class Category implements Serializable {
         return this;
     }
 
+    public Set<CategoryClosure> getAncestorLinks() {
+        return this.ancestorLinks;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -0,0 +1,81 @@
+package com.ayadyasmine.pharmacyecom.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+
+/**
+ * A row of the closure table of the {@link Category} hierarchy: one row per (ancestor, descendant) pair,
+ * including each category with itself at depth 0.
+ * <p>
+ * Rows are maintained by {@code CategoryService} when a category is created, moved or deleted.
+ */
+@Entity
+@Table(name = "category_closure")
+@IdClass(CategoryClosureId.class)
+public class CategoryClosure implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "ancestor_id")
+    private Long ancestorId;
+
+    @Id
+    @Column(name = "descendant_id")
+    private Long descendantId;
+
+    @Column(name = "depth", nullable = false)
+    private Integer depth;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "descendant_id", insertable = false, updatable = false)
+    private Category descendant;
+
+    public Long getAncestorId() {
+        return this.ancestorId;
+    }
+
+    public Long getDescendantId() {
+        return this.descendantId;
+    }
+
+    public Integer getDepth() {
+        return this.depth;
+    }
+
+    public Category getDescendant() {
+        return this.descendant;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CategoryClosure)) {
+            return false;
+        }
+        CategoryClosure other = (CategoryClosure) o;
+        return (
+            ancestorId != null &&
+            ancestorId.equals(other.ancestorId) &&
+            descendantId != null &&
+            descendantId.equals(other.descendantId)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CategoryClosure{" +
+            "ancestorId=" + getAncestorId() +
+            ", descendantId=" + getDescendantId() +
+            ", depth=" + getDepth() +
+            "}";
+    }
+}
@@ -0,0 +1,81 @@
+package com.ayadyasmine.pharmacyecom.domain;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of Algerian dinars held as a number of centimes (DZD minor units).
+ * <p>
+ * Used by the pricing and checkout arithmetic instead of chains of {@link BigDecimal}. Rounding is
+ * {@link RoundingMode#HALF_UP} on the centime, like the {@code numeric(21,2)} columns the amounts are stored in.
+ */
+public record Money(long minorUnits) implements Comparable<Money>, Serializable {
+    public static final Money ZERO = new Money(0);
+
+    private static final int SCALE = 2;
+
+    private static final long MINOR_PER_MAJOR = 100;
+
+    public static Money ofMinor(long minorUnits) {
+        return new Money(minorUnits);
+    }
+
+    public static Money ofMajor(long majorUnits) {
+        return new Money(Math.multiplyExact(majorUnits, MINOR_PER_MAJOR));
+    }
+
+    public static Money of(BigDecimal amount) {
+        return new Money(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money times(int quantity) {
+        return new Money(Math.multiplyExact(minorUnits, quantity));
+    }
+
+    /**
+     * Get the given percentage of this amount, rounded half-up to the centime.
+     */
+    public Money percent(int percent) {
+        long scaled = Math.multiplyExact(minorUnits, percent);
+        long quotient = scaled / 100;
+        long remainder = Math.abs(scaled % 100);
+        if (remainder >= 50) {
+            quotient += Long.signum(scaled);
+        }
+        return new Money(quotient);
+    }
+
+    /**
+     * Get this amount once the given discount percentage has been taken off.
+     */
+    public Money minusPercent(int percent) {
+        return percent == 0 ? this : minus(percent(percent));
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return minorUnits > other.minorUnits;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
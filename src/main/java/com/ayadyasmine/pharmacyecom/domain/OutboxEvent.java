@@ -0,0 +1,176 @@
+package com.ayadyasmine.pharmacyecom.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A side effect of a business change, written in the same transaction and handled after it commits.
+ * <p>
+ * An event is due once {@code nextAttemptAt} has passed; it is deleted when handled, and keeps a null
+ * {@code nextAttemptAt} once it has exhausted its retries.
+ */
+@Entity
+@Table(name = "outbox_event")
+public class OutboxEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    @Column(name = "aggregate_id")
+    private Long aggregateId;
+
+    @Column(name = "payload", length = 4000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEventType() {
+        return this.eventType;
+    }
+
+    public OutboxEvent eventType(String eventType) {
+        this.setEventType(eventType);
+        return this;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public Long getAggregateId() {
+        return this.aggregateId;
+    }
+
+    public OutboxEvent aggregateId(Long aggregateId) {
+        this.setAggregateId(aggregateId);
+        return this;
+    }
+
+    public void setAggregateId(Long aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public String getPayload() {
+        return this.payload;
+    }
+
+    public OutboxEvent payload(String payload) {
+        this.setPayload(payload);
+        return this;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public Instant getCreatedAt() {
+        return this.createdAt;
+    }
+
+    public OutboxEvent createdAt(Instant createdAt) {
+        this.setCreatedAt(createdAt);
+        return this;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Integer getAttempts() {
+        return this.attempts;
+    }
+
+    public OutboxEvent attempts(Integer attempts) {
+        this.setAttempts(attempts);
+        return this;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getNextAttemptAt() {
+        return this.nextAttemptAt;
+    }
+
+    public OutboxEvent nextAttemptAt(Instant nextAttemptAt) {
+        this.setNextAttemptAt(nextAttemptAt);
+        return this;
+    }
+
+    public void setNextAttemptAt(Instant nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return this.lastError;
+    }
+
+    public OutboxEvent lastError(String lastError) {
+        this.setLastError(lastError);
+        return this;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OutboxEvent)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((OutboxEvent) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "OutboxEvent{" +
+            "id=" + getId() +
+            ", eventType='" + getEventType() + "'" +
+            ", aggregateId=" + getAggregateId() +
+            ", payload='" + getPayload() + "'" +
+            ", createdAt='" + getCreatedAt() + "'" +
+            ", attempts=" + getAttempts() +
+            ", nextAttemptAt='" + getNextAttemptAt() + "'" +
+            ", lastError='" + getLastError() + "'" +
+            "}";
+    }
+}
@@ -10,6 +10,8 @@ import java.util.HashSet;
 import java.util.Set;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 /**
  * A Product.
@@ -17,6 +19,7 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
 @Entity
 @Table(name = "product")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Product implements Serializable {
 
@@ -33,18 +36,22 @@ public class Product implements Serializable {
     private String name;
 
     @NotNull
+    @NaturalId(mutable = true)
     @Column(name = "slug", nullable = false, unique = true)
     private String slug;
 
     @Lob
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "description")
     private String description;
 
     @Lob
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "composition")
     private String composition;
 
     @Lob
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "usage_advice")
     private String usageAdvice;
 
@@ -57,6 +64,9 @@ public class Product implements Serializable {
     @Column(name = "old_price", precision = 21, scale = 2)
     private BigDecimal oldPrice;
 
+    @Column(name = "effective_price", precision = 21, scale = 2)
+    private BigDecimal effectivePrice;
+
     @NotNull
     @Min(value = 0)
     @Column(name = "stock", nullable = false)
@@ -203,6 +213,19 @@ public class Product implements Serializable {
         this.oldPrice = oldPrice;
     }
 
+    public BigDecimal getEffectivePrice() {
+        return this.effectivePrice;
+    }
+
+    public Product effectivePrice(BigDecimal effectivePrice) {
+        this.setEffectivePrice(effectivePrice);
+        return this;
+    }
+
+    public void setEffectivePrice(BigDecimal effectivePrice) {
+        this.effectivePrice = effectivePrice;
+    }
+
     public Integer getStock() {
         return this.stock;
     }
@@ -395,6 +418,7 @@ public class Product implements Serializable {
             ", usageAdvice='" + getUsageAdvice() + "'" +
             ", price=" + getPrice() +
             ", oldPrice=" + getOldPrice() +
+            ", effectivePrice=" + getEffectivePrice() +
             ", stock=" + getStock() +
             ", sku='" + getSku() + "'" +
             ", active='" + getActive() + "'" +
@@ -7,13 +7,18 @@ import java.io.Serializable;
 import java.math.BigDecimal;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 /**
  * A ProductVariant.
+ * <p>
+ * Updates only write the changed columns, so that editing a variant does not overwrite the stock taken by the
+ * checkouts committed in the meantime.
  */
 @Entity
 @Table(name = "product_variant")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class ProductVariant implements Serializable {
 
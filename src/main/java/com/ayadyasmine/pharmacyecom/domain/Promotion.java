@@ -45,6 +45,10 @@ public class Promotion implements Serializable {
     @Column(name = "active")
     private Boolean active;
 
+    @NotNull
+    @Column(name = "live", nullable = false)
+    private Boolean live = false;
+
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "rel_promotion__products",
@@ -135,6 +139,19 @@ public class Promotion implements Serializable {
         this.active = active;
     }
 
+    public Boolean getLive() {
+        return this.live;
+    }
+
+    public Promotion live(Boolean live) {
+        this.setLive(live);
+        return this;
+    }
+
+    public void setLive(Boolean live) {
+        this.live = live;
+    }
+
     public Set<Product> getProducts() {
         return this.products;
     }
@@ -187,6 +204,7 @@ public class Promotion implements Serializable {
             ", startDate='" + getStartDate() + "'" +
             ", endDate='" + getEndDate() + "'" +
             ", active='" + getActive() + "'" +
+            ", live='" + getLive() + "'" +
             "}";
     }
 }
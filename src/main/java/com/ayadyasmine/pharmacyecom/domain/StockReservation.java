@@ -0,0 +1,124 @@
+package com.ayadyasmine.pharmacyecom.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A quantity of a {@link ProductVariant} held for a {@link Cart} until it expires or the cart is checked out.
+ * <p>
+ * There is at most one hold per cart and variant, extended each time the variant is added to the cart again.
+ */
+@Entity
+@Table(name = "stock_reservation")
+public class StockReservation implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "cart_id", nullable = false)
+    private Long cartId;
+
+    @Column(name = "variant_id", nullable = false)
+    private Long variantId;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getCartId() {
+        return this.cartId;
+    }
+
+    public StockReservation cartId(Long cartId) {
+        this.setCartId(cartId);
+        return this;
+    }
+
+    public void setCartId(Long cartId) {
+        this.cartId = cartId;
+    }
+
+    public Long getVariantId() {
+        return this.variantId;
+    }
+
+    public StockReservation variantId(Long variantId) {
+        this.setVariantId(variantId);
+        return this;
+    }
+
+    public void setVariantId(Long variantId) {
+        this.variantId = variantId;
+    }
+
+    public Integer getQuantity() {
+        return this.quantity;
+    }
+
+    public StockReservation quantity(Integer quantity) {
+        this.setQuantity(quantity);
+        return this;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public Instant getExpiresAt() {
+        return this.expiresAt;
+    }
+
+    public StockReservation expiresAt(Instant expiresAt) {
+        this.setExpiresAt(expiresAt);
+        return this;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StockReservation)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((StockReservation) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "StockReservation{" +
+            "id=" + getId() +
+            ", cartId=" + getCartId() +
+            ", variantId=" + getVariantId() +
+            ", quantity=" + getQuantity() +
+            ", expiresAt='" + getExpiresAt() + "'" +
+            "}";
+    }
+}
@@ -10,5 +10,24 @@ public enum OrderStatus {
     SHIPPED,
     DELIVERED,
     CANCELLED,
-    RETURNED,
+    RETURNED;
+
+    /**
+     * Whether an order may move from this status to another one. An order is paid online before it ships, or on
+     * delivery once shipped; it can be cancelled until it ships, and returned once shipped. Cancelled and returned
+     * orders are final.
+     *
+     * @param target the status to move to.
+     * @return {@code true} if the transition is allowed; a status never transitions to itself.
+     */
+    public boolean canTransitionTo(OrderStatus target) {
+        return switch (this) {
+            case PENDING -> target == CONFIRMED || target == PAID || target == CANCELLED;
+            case CONFIRMED -> target == PAID || target == SHIPPED || target == CANCELLED;
+            case PAID -> target == SHIPPED || target == CANCELLED;
+            case SHIPPED -> target == DELIVERED || target == RETURNED;
+            case DELIVERED -> target == RETURNED;
+            case CANCELLED, RETURNED -> false;
+        };
+    }
 }
@@ -44,4 +44,23 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
     // Récupérer tous les articles d'un panier spécifique
     List<CartItem> findByCart(Cart cart);
+
+    /**
+     * Get the items of a cart with their variant and product, in a single query, for the checkout.
+     */
+    @Query(
+        "select cartItem from CartItem cartItem join fetch cartItem.variant variant left join fetch cartItem.product " +
+        "where cartItem.cart.id = :cartId order by variant.id, cartItem.id"
+    )
+    List<CartItem> findByCartIdForCheckout(@Param("cartId") Long cartId);
+
+    /**
+     * Get the variant ids in the active cart of a customer, smallest first.
+     */
+    @Query(
+        "select distinct cartItem.variant.id from CartItem cartItem " +
+        "where cartItem.cart.customer.user.login = :login and cartItem.cart.active = true " +
+        "order by cartItem.variant.id"
+    )
+    List<Long> findVariantIdsOfActiveCart(@Param("login") String login);
 }
@@ -0,0 +1,48 @@
+package com.ayadyasmine.pharmacyecom.repository;
+
+import com.ayadyasmine.pharmacyecom.domain.CategoryClosure;
+import com.ayadyasmine.pharmacyecom.domain.CategoryClosureId;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the closure table of the Category hierarchy.
+ */
+@Repository
+public interface CategoryClosureRepository extends JpaRepository<CategoryClosure, CategoryClosureId> {
+    boolean existsByAncestorIdAndDescendantId(Long ancestorId, Long descendantId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into category_closure (ancestor_id, descendant_id, depth) values (:id, :id, 0)", nativeQuery = true)
+    void insertSelf(@Param("id") Long id);
+
+    /**
+     * Link every category of the subtree rooted at {@code id} to {@code parentId} and all its ancestors.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(
+        value = "insert into category_closure (ancestor_id, descendant_id, depth) " +
+        "select above.ancestor_id, below.descendant_id, above.depth + below.depth + 1 " +
+        "from category_closure above, category_closure below " +
+        "where above.descendant_id = :parentId and below.ancestor_id = :id",
+        nativeQuery = true
+    )
+    void attachSubtree(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    /**
+     * Unlink the subtree rooted at {@code id} from the ancestors of {@code id}, keeping the links inside the subtree.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(
+        value = "delete from category_closure " +
+        "where descendant_id in (select descendant_id from category_closure where ancestor_id = :id) " +
+        "and ancestor_id not in (select descendant_id from category_closure where ancestor_id = :id)",
+        nativeQuery = true
+    )
+    void detachSubtree(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from CategoryClosure closure where closure.ancestorId = :id or closure.descendantId = :id")
+    void deleteByCategoryId(@Param("id") Long id);
+}
@@ -37,4 +37,16 @@ public interface CategoryRepository extends JpaRepository<Category, Long>, JpaSp
 
     @Query("select category from Category category left join fetch category.parent where category.id =:id")
     Optional<Category> findOneWithToOneRelationships(@Param("id") Long id);
+
+    @Query("select category.parent.id from Category category where category.id = :id")
+    Optional<Long> findParentIdById(@Param("id") Long id);
+
+    /**
+     * Get the rows of {@code [id, name, slug, active, parentId]} of all the categories, ordered by name.
+     */
+    @Query(
+        "select category.id, category.name, category.slug, category.active, parent.id " +
+        "from Category category left join category.parent parent order by category.name, category.id"
+    )
+    List<Object[]> findAllTreeRows();
 }
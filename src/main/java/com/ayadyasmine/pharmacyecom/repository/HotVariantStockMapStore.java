@@ -0,0 +1,71 @@
+package com.ayadyasmine.pharmacyecom.repository;
+
+import com.hazelcast.map.MapLoader;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Loader of the Hazelcast map of the hot variant stock counters, from {@code product_variant.stock}.
+ * <p>
+ * The counters are never written back: the checkouts take the stock from the rows in their own transactions, so that
+ * the rows hold every committed checkout whatever happens to the members. On startup, the counters of the variants
+ * listed in {@code hot_stock_variant} are loaded from the database; no other key is ever loaded, so that looking up a
+ * variant that is not hot does not query the database.
+ * <p>
+ * The loader runs on Hazelcast threads and is created with the Hazelcast instance, before the JPA layer, so it uses
+ * JDBC with its own transactions over the data source.
+ */
+@Repository
+public class HotVariantStockMapStore implements MapLoader<Long, Integer> {
+
+    public static final String MAP_NAME = "hot-variant-stock";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public HotVariantStockMapStore(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Override
+    public Integer load(Long variantId) {
+        return null;
+    }
+
+    @Override
+    public Map<Long, Integer> loadAll(Collection<Long> variantIds) {
+        Map<Long, Integer> stocks = new HashMap<>();
+        if (variantIds.isEmpty()) {
+            return stocks;
+        }
+        transactionTemplate.executeWithoutResult(status ->
+            namedParameterJdbcTemplate.query(
+                "select variant.id, variant.stock from product_variant variant " +
+                "join hot_stock_variant hot on hot.variant_id = variant.id where variant.id in (:ids)",
+                new MapSqlParameterSource("ids", variantIds),
+                row -> {
+                    stocks.put(row.getLong(1), row.getInt(2));
+                }
+            )
+        );
+        return stocks;
+    }
+
+    @Override
+    public Iterable<Long> loadAllKeys() {
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForList("select variant_id from hot_stock_variant", Long.class));
+    }
+}
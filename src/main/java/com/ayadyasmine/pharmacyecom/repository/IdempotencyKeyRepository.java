@@ -0,0 +1,94 @@
+package com.ayadyasmine.pharmacyecom.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository of the {@code idempotency_key} table, the Idempotency-Key headers of the checkouts with the order each one
+ * created. The table is not mapped, as its rows are claimed with an upsert that has no JPA equivalent.
+ */
+@Repository
+public class IdempotencyKeyRepository {
+
+    private static final String CLAIM =
+        "insert into idempotency_key (login, idempotency_key, order_id, expires_at) values (:login, :key, null, :expiresAt) " +
+        "on conflict (login, idempotency_key) " +
+        "do update set order_id = null, expires_at = excluded.expires_at where idempotency_key.expires_at <= :now";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Claim a key, unless it is already held by an attempt that has not expired.
+     * <p>
+     * While another transaction holds the key uncommitted, the statement waits for it to commit or roll back, so
+     * concurrent duplicates are serialized on the key.
+     *
+     * @return {@code true} if the key was claimed by the current transaction.
+     */
+    public boolean claim(String login, String key, Instant now, Instant expiresAt) {
+        return (
+            entityManager
+                .createNativeQuery(CLAIM)
+                .setParameter("login", login)
+                .setParameter("key", key)
+                .setParameter("expiresAt", expiresAt)
+                .setParameter("now", now)
+                .executeUpdate() ==
+            1
+        );
+    }
+
+    /**
+     * Get the id of the order created with a key.
+     */
+    public Optional<Long> findOrderId(String login, String key) {
+        List<?> ids = entityManager
+            .createNativeQuery("select order_id from idempotency_key where login = :login and idempotency_key = :key")
+            .setParameter("login", login)
+            .setParameter("key", key)
+            .getResultList();
+        return ids.stream().filter(id -> id != null).findFirst().map(id -> ((Number) id).longValue());
+    }
+
+    /**
+     * Record the order created with a key claimed by the current transaction.
+     */
+    public void saveOrderId(String login, String key, Long orderId) {
+        // the order has to be inserted before it is referenced
+        entityManager.flush();
+        entityManager
+            .createNativeQuery("update idempotency_key set order_id = :orderId where login = :login and idempotency_key = :key")
+            .setParameter("orderId", orderId)
+            .setParameter("login", login)
+            .setParameter("key", key)
+            .executeUpdate();
+    }
+
+    /**
+     * Delete a key claimed by the current transaction, which ends without an order.
+     */
+    public void delete(String login, String key) {
+        entityManager
+            .createNativeQuery("delete from idempotency_key where login = :login and idempotency_key = :key")
+            .setParameter("login", login)
+            .setParameter("key", key)
+            .executeUpdate();
+    }
+
+    /**
+     * Delete the expired keys.
+     *
+     * @return the number of keys deleted.
+     */
+    public int deleteExpired(Instant now) {
+        return entityManager
+            .createNativeQuery("delete from idempotency_key where expires_at <= :now")
+            .setParameter("now", now)
+            .executeUpdate();
+    }
+}
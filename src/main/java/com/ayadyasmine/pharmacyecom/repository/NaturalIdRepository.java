@@ -0,0 +1,31 @@
+package com.ayadyasmine.pharmacyecom.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.Optional;
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Lookup of entities by their {@link org.hibernate.annotations.NaturalId}.
+ * <p>
+ * Unlike a query on the natural id column, the lookup resolves the id through the natural-id cache region, then the
+ * entity through the second-level cache, so a cached entity is found without a database round trip.
+ */
+@Repository
+public class NaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Find an entity by its single-attribute natural id.
+     *
+     * @param entityClass the entity type, which must map exactly one natural id attribute.
+     * @param naturalId the value of the natural id.
+     * @return the entity, if any.
+     */
+    public <T> Optional<T> findBySimpleNaturalId(Class<T> entityClass, Object naturalId) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(entityClass).loadOptional(naturalId);
+    }
+}
@@ -1,6 +1,7 @@
 package com.ayadyasmine.pharmacyecom.repository;
 
 import com.ayadyasmine.pharmacyecom.domain.OrderItem;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
@@ -37,4 +38,10 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     @Query("select orderItem from OrderItem orderItem left join fetch orderItem.product where orderItem.id =:id")
     Optional<OrderItem> findOneWithToOneRelationships(@Param("id") Long id);
+
+    @Query(
+        "select orderItem from OrderItem orderItem left join fetch orderItem.product left join fetch orderItem.variant " +
+        "where orderItem.order.id in :orderIds order by orderItem.id"
+    )
+    List<OrderItem> findAllWithToOneRelationshipsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
 }
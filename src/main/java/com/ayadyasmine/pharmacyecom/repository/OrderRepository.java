@@ -2,6 +2,7 @@ package com.ayadyasmine.pharmacyecom.repository;
 
 import com.ayadyasmine.pharmacyecom.domain.Order;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -10,6 +11,15 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
+public interface OrderRepository extends OrderRepositoryWithStatus, JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
     List<Order> findByCustomerUserLoginOrderByOrderDateDesc(String login);
+
+    /**
+     * Get an order with its customer, its lines with their products and variants, and its status history, in a single
+     * query. Both collections are sets, so joining them together only repeats rows, which are deduplicated.
+     */
+    @EntityGraph(
+        attributePaths = { "customer", "customer.user", "items", "items.product", "items.variant", "statusHistories" }
+    )
+    Optional<Order> findOneWithDetailsById(Long id);
 }
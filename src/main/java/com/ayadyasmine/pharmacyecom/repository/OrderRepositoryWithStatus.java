@@ -0,0 +1,27 @@
+package com.ayadyasmine.pharmacyecom.repository;
+
+import com.ayadyasmine.pharmacyecom.domain.enumeration.OrderStatus;
+import java.util.Collection;
+import java.util.Map;
+
+public interface OrderRepositoryWithStatus {
+    /**
+     * Lock orders with {@code SELECT ... FOR UPDATE}, in ascending id order, and read their status.
+     *
+     * @param ids the ids of the orders.
+     * @return the status of each existing order, by id.
+     */
+    Map<Long, OrderStatus> lockStatus(Collection<Long> ids);
+
+    /**
+     * Move orders to a status in a single update, setting the tracking number of the ones that have one. The cached
+     * orders and status histories are evicted once the transaction commits, but managed instances of the orders are
+     * not refreshed.
+     *
+     * @param ids the ids of the orders.
+     * @param status the new status.
+     * @param trackingNumbers the new tracking number per order id; orders without one keep theirs.
+     * @return the number of updated orders.
+     */
+    int updateStatus(Collection<Long> ids, OrderStatus status, Map<Long, String> trackingNumbers);
+}
@@ -0,0 +1,103 @@
+package com.ayadyasmine.pharmacyecom.repository;
+
+import com.ayadyasmine.pharmacyecom.domain.Order;
+import com.ayadyasmine.pharmacyecom.domain.enumeration.OrderStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Status of orders, moved for many orders at once by the warehouse.
+ * <p>
+ * The tracking numbers are passed as arrays along with the ids, so that the statement is the same whatever the number
+ * of orders, and a single round trip updates them all.
+ */
+public class OrderRepositoryWithStatusImpl implements OrderRepositoryWithStatus {
+
+    private static final String STATUS_HISTORIES_ROLE = Order.class.getName() + ".statusHistories";
+
+    private static final String LOCK_STATUS = "select id, status from jhi_order where id in (:ids) order by id for update";
+
+    private static final String UPDATE_STATUS =
+        "update jhi_order set status = ?, tracking_number = coalesce(tracking.number, jhi_order.tracking_number) " +
+        "from unnest(?, ?) as tracking(order_id, number) " +
+        "where jhi_order.id = tracking.order_id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Map<Long, OrderStatus> lockStatus(Collection<Long> ids) {
+        List<?> rows = entityManager.createNativeQuery(LOCK_STATUS).setParameter("ids", ids).getResultList();
+        Map<Long, OrderStatus> status = new HashMap<>();
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            status.put(((Number) columns[0]).longValue(), OrderStatus.valueOf((String) columns[1]));
+        }
+        return status;
+    }
+
+    @Override
+    public int updateStatus(Collection<Long> ids, OrderStatus status, Map<Long, String> trackingNumbers) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        entityManager.flush();
+        Long[] orderIds = ids.toArray(Long[]::new);
+        String[] numbers = new String[orderIds.length];
+        for (int i = 0; i < orderIds.length; i++) {
+            numbers[i] = trackingNumbers.get(orderIds[i]);
+        }
+        int updateCount = entityManager
+            .unwrap(Session.class)
+            .doReturningWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(UPDATE_STATUS)) {
+                    statement.setString(1, status.name());
+                    statement.setArray(2, connection.createArrayOf("bigint", orderIds));
+                    statement.setArray(3, connection.createArrayOf("varchar", numbers));
+                    return statement.executeUpdate();
+                }
+            });
+
+        evictAfterCommit(orderIds);
+        return updateCount;
+    }
+
+    /**
+     * The statement bypasses Hibernate, which would otherwise serve the previous status from the second-level cache,
+     * and the history row written with the new status is not added to the cached collections.
+     * The entries are evicted once the transaction commits, as a transaction reading them in the meantime would cache
+     * the previous status again.
+     */
+    private void evictAfterCommit(Long[] orderIds) {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        evict(cache, orderIds);
+                    }
+                }
+            );
+        } else {
+            evict(cache, orderIds);
+        }
+    }
+
+    private static void evict(Cache cache, Long[] orderIds) {
+        for (Long id : orderIds) {
+            cache.evictEntityData(Order.class, id);
+            cache.evictCollectionData(STATUS_HISTORIES_ROLE, id);
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.ayadyasmine.pharmacyecom.repository;
 
 import com.ayadyasmine.pharmacyecom.domain.OrderStatusHistory;
+import com.ayadyasmine.pharmacyecom.domain.enumeration.OrderStatus;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +13,18 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface OrderStatusHistoryRepository extends JpaRepository<OrderStatusHistory, Long> {}
+public interface OrderStatusHistoryRepository extends JpaRepository<OrderStatusHistory, Long> {
+    boolean existsByOrderIdAndStatus(Long orderId, OrderStatus status);
+
+    /**
+     * Get the time of the latest status change of orders.
+     *
+     * @param orderIds the ids of the orders.
+     * @return an {@code (orderId, changedAt)} row per order with a status history.
+     */
+    @Query(
+        "select history.order.id, max(history.changedAt) from OrderStatusHistory history " +
+        "where history.order.id in :orderIds group by history.order.id"
+    )
+    List<Object[]> findLatestChangeRowsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,26 @@
+package com.ayadyasmine.pharmacyecom.repository;
+
+import com.ayadyasmine.pharmacyecom.domain.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the OutboxEvent entity.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    /**
+     * Find the next due events, locked with {@code FOR UPDATE SKIP LOCKED} so that concurrent dispatchers each get
+     * a distinct batch instead of waiting for each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select event from OutboxEvent event where event.nextAttemptAt <= :now order by event.nextAttemptAt, event.id")
+    List<OutboxEvent> findDueForUpdate(@Param("now") Instant now, Pageable pageable);
+}
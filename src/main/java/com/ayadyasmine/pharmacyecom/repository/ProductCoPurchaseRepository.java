@@ -0,0 +1,147 @@
+package com.ayadyasmine.pharmacyecom.repository;
+
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.cursors.LongIntCursor;
+import com.carrotsearch.hppc.cursors.LongObjectCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository of the frequently-bought-together tables: {@code product_co_purchase}, the number of orders containing
+ * each pair of products, stored in both directions, and {@code product_related}, the top related products of each
+ * product derived from it. Neither table is mapped, as they are only written in bulk and read by id.
+ */
+@Repository
+public class ProductCoPurchaseRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String UPSERT_COUNT =
+        "insert into product_co_purchase (product_id, related_product_id, order_count) values (?, ?, ?) " +
+        "on conflict (product_id, related_product_id) " +
+        "do update set order_count = product_co_purchase.order_count + excluded.order_count";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Lock a job until the end of the transaction, so that a single node runs the job at a time.
+     *
+     * @param name the name of the job.
+     */
+    public void lockJob(String name) {
+        entityManager
+            .createNativeQuery("select name from job_lock where name = :name for update")
+            .setParameter("name", name)
+            .getSingleResult();
+    }
+
+    /**
+     * Get the ids of the next orders whose co-purchases are not counted yet, in id order.
+     * <p>
+     * The pending orders are flagged rather than found past the last id counted: the ids are drawn from pooled
+     * sequence blocks, so an order can commit after an order with a greater id.
+     */
+    public List<Long> findUncountedOrderIds(int limit) {
+        List<?> ids = entityManager
+            .createNativeQuery("select id from jhi_order where co_purchase_counted = false order by id limit :limit")
+            .setParameter("limit", limit)
+            .getResultList();
+        return ids.stream().map(id -> ((Number) id).longValue()).toList();
+    }
+
+    public void markOrdersCounted(Collection<Long> orderIds) {
+        entityManager
+            .createNativeQuery("update jhi_order set co_purchase_counted = true where id in (:orderIds)")
+            .setParameter("orderIds", orderIds)
+            .executeUpdate();
+    }
+
+    /**
+     * Stream the products of some orders, as rows of {@code [orderId, productId]} grouped by order.
+     */
+    public Stream<Object[]> streamOrderProductRows(Collection<Long> orderIds) {
+        return entityManager
+            .createQuery(
+                "select item.order.id, item.product.id from OrderItem item " +
+                "where item.order.id in :orderIds and item.product is not null " +
+                "order by item.order.id",
+                Object[].class
+            )
+            .setParameter("orderIds", orderIds)
+            .getResultStream();
+    }
+
+    /**
+     * Add co-purchase counts to the stored ones, in JDBC batches.
+     *
+     * @param counts the number of orders per product, then per related product.
+     */
+    public void addCounts(LongObjectHashMap<LongIntHashMap> counts) {
+        entityManager
+            .unwrap(Session.class)
+            .doWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(UPSERT_COUNT)) {
+                    int pending = 0;
+                    for (LongObjectCursor<LongIntHashMap> row : counts) {
+                        for (LongIntCursor cell : row.value) {
+                            statement.setLong(1, row.key);
+                            statement.setLong(2, cell.key);
+                            statement.setInt(3, cell.value);
+                            statement.addBatch();
+                            if (++pending == BATCH_SIZE) {
+                                statement.executeBatch();
+                                pending = 0;
+                            }
+                        }
+                    }
+                    if (pending > 0) {
+                        statement.executeBatch();
+                    }
+                }
+            });
+    }
+
+    /**
+     * Recompute the top related products of the given products from their co-purchase counts.
+     *
+     * @param productIds the ids of the products.
+     * @param size the number of related products to keep per product.
+     */
+    public void refreshRelated(Collection<Long> productIds, int size) {
+        entityManager
+            .createNativeQuery("delete from product_related where product_id in (:productIds)")
+            .setParameter("productIds", productIds)
+            .executeUpdate();
+        entityManager
+            .createNativeQuery(
+                "insert into product_related (product_id, rank, related_product_id, order_count) " +
+                "select product_id, rank, related_product_id, order_count from (" +
+                "select product_id, related_product_id, order_count, " +
+                "row_number() over (partition by product_id order by order_count desc, related_product_id) as rank " +
+                "from product_co_purchase where product_id in (:productIds)) ranked " +
+                "where rank <= :size"
+            )
+            .setParameter("productIds", productIds)
+            .setParameter("size", size)
+            .executeUpdate();
+    }
+
+    /**
+     * Get the ids of the top related products of a product, most bought together first.
+     */
+    public List<Long> findRelatedProductIds(Long productId) {
+        List<?> ids = entityManager
+            .createNativeQuery("select related_product_id from product_related where product_id = :productId order by rank")
+            .setParameter("productId", productId)
+            .getResultList();
+        return ids.stream().map(id -> ((Number) id).longValue()).toList();
+    }
+}
@@ -1,8 +1,12 @@
 package com.ayadyasmine.pharmacyecom.repository;
 
 import com.ayadyasmine.pharmacyecom.domain.Product;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
@@ -13,7 +17,25 @@ import org.springframework.stereotype.Repository;
  * Spring Data JPA repository for the Product entity.
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository
+    extends
+        ProductRepositoryWithFacets,
+        ProductRepositoryWithSummaries,
+        JpaRepository<Product, Long>,
+        JpaSpecificationExecutor<Product> {
+    /**
+     * The text contents of a product, which are lazy attributes of {@link Product}.
+     */
+    interface ProductContent {
+        Long getId();
+
+        String getDescription();
+
+        String getComposition();
+
+        String getUsageAdvice();
+    }
+
     default Optional<Product> findOneWithEagerRelationships(Long id) {
         return this.findOneWithToOneRelationships(id);
     }
@@ -37,4 +59,61 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
 
     @Query("select product from Product product left join fetch product.category left join fetch product.brand where product.id =:id")
     Optional<Product> findOneWithToOneRelationships(@Param("id") Long id);
+
+    @Query(
+        "select product.id, product.name, product.slug, product.sku, product.active, brand.name " +
+        "from Product product left join product.brand brand"
+    )
+    List<Object[]> findAllSuggestionRows();
+
+    @Query(
+        "select product.id, product.name, product.slug, product.sku, product.active, brand.name " +
+        "from Product product left join product.brand brand where product.id = :id"
+    )
+    List<Object[]> findSuggestionRowsById(@Param("id") Long id);
+
+    String SEARCH_QUERY = "(websearch_to_tsquery('french', :q) || websearch_to_tsquery('simple', :q))";
+
+    /**
+     * Full-text search over the {@code search_vector} column, ranked by relevance.
+     * The pageable must not be sorted, the order being the rank.
+     */
+    @Query(
+        value = "select p.* from product p where p.search_vector @@ " + SEARCH_QUERY +
+        " order by ts_rank(p.search_vector, " + SEARCH_QUERY + ") desc, p.id",
+        countQuery = "select count(*) from product p where p.search_vector @@ " + SEARCH_QUERY,
+        nativeQuery = true
+    )
+    Page<Product> search(@Param("q") String query, Pageable pageable);
+
+    String EFFECTIVE_PRICE =
+        "product.price - round(product.price * coalesce((select max(promotion.discountPercent) from Promotion promotion " +
+        "join promotion.products promoted where promoted = product and promotion.live = true), 0) / 100, 2)";
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product product set product.effectivePrice = " + EFFECTIVE_PRICE + " where product.id in :productIds")
+    int updateEffectivePrice(@Param("productIds") Collection<Long> productIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product product set product.effectivePrice = " + EFFECTIVE_PRICE)
+    int updateAllEffectivePrices();
+
+    @Query(
+        "select product.id as id, product.description as description, product.composition as composition, " +
+        "product.usageAdvice as usageAdvice from Product product where product.id in :ids"
+    )
+    List<ProductContent> findContents(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Read the text contents of several products in one query, rather than one lazy load per product.
+     *
+     * @param ids the ids of the products.
+     * @return the text contents, by product id.
+     */
+    default Map<Long, ProductContent> findContentsById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return findContents(ids).stream().collect(Collectors.toMap(ProductContent::getId, Function.identity()));
+    }
 }
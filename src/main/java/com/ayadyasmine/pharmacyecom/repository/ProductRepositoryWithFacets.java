@@ -0,0 +1,17 @@
+package com.ayadyasmine.pharmacyecom.repository;
+
+import com.ayadyasmine.pharmacyecom.domain.Product;
+import java.math.BigDecimal;
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface ProductRepositoryWithFacets {
+    /**
+     * Count the products matching a specification, grouped by category and brand, in a single query.
+     *
+     * @param specification the filters to apply.
+     * @param priceBucketBounds the ascending upper bounds of the price buckets, the last bucket being unbounded.
+     * @return rows of {@code [categoryId, brandId, count, inStockCount, bucket0Count, ..., bucketNCount]}.
+     */
+    List<Object[]> countFacets(Specification<Product> specification, List<BigDecimal> priceBucketBounds);
+}
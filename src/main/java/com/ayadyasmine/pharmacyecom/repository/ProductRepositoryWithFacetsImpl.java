@@ -0,0 +1,81 @@
+package com.ayadyasmine.pharmacyecom.repository;
+
+import com.ayadyasmine.pharmacyecom.domain.Brand_;
+import com.ayadyasmine.pharmacyecom.domain.Category_;
+import com.ayadyasmine.pharmacyecom.domain.Product;
+import com.ayadyasmine.pharmacyecom.domain.Product_;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Facet counts computed with conditional aggregation, so that stock and price buckets need no extra GROUP BY column.
+ * <p>
+ * The counts are of distinct products: a criteria on a to-many relationship, such as promotions, joins a row per
+ * related entity. Each product has a single category and brand, so the counts of the groups add up.
+ */
+public class ProductRepositoryWithFacetsImpl implements ProductRepositoryWithFacets {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Object[]> countFacets(Specification<Product> specification, List<BigDecimal> priceBucketBounds) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Product> root = query.from(Product.class);
+
+        Expression<Long> categoryId = root.join(Product_.category, JoinType.LEFT).get(Category_.id);
+        Expression<Long> brandId = root.join(Product_.brand, JoinType.LEFT).get(Brand_.id);
+        Expression<BigDecimal> price = cb.coalesce(root.get(Product_.effectivePrice), root.get(Product_.price));
+
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(categoryId);
+        selections.add(brandId);
+        Expression<Long> id = root.get(Product_.id);
+        selections.add(cb.countDistinct(root));
+        selections.add(countWhere(cb, id, cb.gt(root.get(Product_.stock), 0)));
+        BigDecimal lowerBound = null;
+        for (BigDecimal upperBound : priceBucketBounds) {
+            selections.add(countWhere(cb, id, inBucket(cb, price, lowerBound, upperBound)));
+            lowerBound = upperBound;
+        }
+        selections.add(countWhere(cb, id, inBucket(cb, price, lowerBound, null)));
+        query.multiselect(selections);
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.groupBy(categoryId, brandId);
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    /**
+     * {@code count(distinct case when predicate then id end)}: the products matching a predicate, each once.
+     */
+    private static Expression<Long> countWhere(CriteriaBuilder cb, Expression<Long> id, Predicate predicate) {
+        return cb.countDistinct(cb.<Long>selectCase().when(predicate, id).otherwise(cb.nullLiteral(Long.class)));
+    }
+
+    private static Predicate inBucket(CriteriaBuilder cb, Expression<BigDecimal> price, BigDecimal lowerBound, BigDecimal upperBound) {
+        List<Predicate> bounds = new ArrayList<>();
+        if (lowerBound != null) {
+            bounds.add(cb.greaterThanOrEqualTo(price, lowerBound));
+        }
+        if (upperBound != null) {
+            bounds.add(cb.lessThan(price, upperBound));
+        }
+        return cb.and(bounds.toArray(new Predicate[0]));
+    }
+}
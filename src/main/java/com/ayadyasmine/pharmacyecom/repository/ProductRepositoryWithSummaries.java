@@ -0,0 +1,31 @@
+package com.ayadyasmine.pharmacyecom.repository;
+
+import com.ayadyasmine.pharmacyecom.domain.Product;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface ProductRepositoryWithSummaries {
+    String SUMMARY_ID = "id";
+    String SUMMARY_NAME = "name";
+    String SUMMARY_SLUG = "slug";
+    String SUMMARY_PRICE = "price";
+    String SUMMARY_OLD_PRICE = "oldPrice";
+    String SUMMARY_EFFECTIVE_PRICE = "effectivePrice";
+    String SUMMARY_STOCK = "stock";
+    String SUMMARY_ACTIVE = "active";
+    String SUMMARY_CATEGORY_ID = "categoryId";
+    String SUMMARY_CATEGORY_NAME = "categoryName";
+    String SUMMARY_BRAND_ID = "brandId";
+    String SUMMARY_BRAND_NAME = "brandName";
+
+    /**
+     * Find a page of products matching a specification, selecting only the columns of a listing grid.
+     *
+     * @param specification the filters to apply.
+     * @param pageable the pagination information.
+     * @return the rows, whose elements are aliased by the {@code SUMMARY_*} constants.
+     */
+    Page<Tuple> findSummaryRows(Specification<Product> specification, Pageable pageable);
+}
@@ -0,0 +1,88 @@
+package com.ayadyasmine.pharmacyecom.repository;
+
+import com.ayadyasmine.pharmacyecom.domain.Brand;
+import com.ayadyasmine.pharmacyecom.domain.Brand_;
+import com.ayadyasmine.pharmacyecom.domain.Category;
+import com.ayadyasmine.pharmacyecom.domain.Category_;
+import com.ayadyasmine.pharmacyecom.domain.Product;
+import com.ayadyasmine.pharmacyecom.domain.Product_;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+/**
+ * Listing rows selected column by column, so that neither the text contents nor the promotions of a product are read.
+ * Each column is aliased, so that the rows are read by name rather than by position.
+ */
+public class ProductRepositoryWithSummariesImpl implements ProductRepositoryWithSummaries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Tuple> findSummaryRows(Specification<Product> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> root = query.from(Product.class);
+        Join<Product, Category> category = root.join(Product_.category, JoinType.LEFT);
+        Join<Product, Brand> brand = root.join(Product_.brand, JoinType.LEFT);
+        query.multiselect(
+            root.get(Product_.id).alias(SUMMARY_ID),
+            root.get(Product_.name).alias(SUMMARY_NAME),
+            root.get(Product_.slug).alias(SUMMARY_SLUG),
+            root.get(Product_.price).alias(SUMMARY_PRICE),
+            root.get(Product_.oldPrice).alias(SUMMARY_OLD_PRICE),
+            root.get(Product_.effectivePrice).alias(SUMMARY_EFFECTIVE_PRICE),
+            root.get(Product_.stock).alias(SUMMARY_STOCK),
+            root.get(Product_.active).alias(SUMMARY_ACTIVE),
+            category.get(Category_.id).alias(SUMMARY_CATEGORY_ID),
+            category.get(Category_.name).alias(SUMMARY_CATEGORY_NAME),
+            brand.get(Brand_.id).alias(SUMMARY_BRAND_ID),
+            brand.get(Brand_.name).alias(SUMMARY_BRAND_NAME)
+        );
+        applySpecification(specification, root, query, cb);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> count(specification));
+    }
+
+    private long count(Specification<Product> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        applySpecification(specification, root, query, cb);
+        query.select(query.isDistinct() ? cb.countDistinct(root) : cb.count(root));
+        // the specification may ask for distinct rows, which is already carried by countDistinct
+        query.distinct(false);
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static void applySpecification(
+        Specification<Product> specification,
+        Root<Product> root,
+        CriteriaQuery<?> query,
+        CriteriaBuilder cb
+    ) {
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.ayadyasmine.pharmacyecom.repository;
 
 import com.ayadyasmine.pharmacyecom.domain.ProductVariant;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
@@ -13,7 +14,7 @@ import org.springframework.stereotype.Repository;
  * Spring Data JPA repository for the ProductVariant entity.
  */
 @Repository
-public interface ProductVariantRepository extends JpaRepository<ProductVariant, Long> {
+public interface ProductVariantRepository extends ProductVariantRepositoryWithStock, JpaRepository<ProductVariant, Long> {
     default Optional<ProductVariant> findOneWithEagerRelationships(Long id) {
         return this.findOneWithToOneRelationships(id);
     }
@@ -37,4 +38,18 @@ public interface ProductVariantRepository extends JpaRepository<ProductVariant,
 
     @Query("select productVariant from ProductVariant productVariant left join fetch productVariant.product where productVariant.id =:id")
     Optional<ProductVariant> findOneWithToOneRelationships(@Param("id") Long id);
+
+    @Query("select productVariant.stock from ProductVariant productVariant where productVariant.id = :id")
+    Optional<Integer> findStockById(@Param("id") Long id);
+
+    @Modifying
+    @Query(
+        value = "insert into hot_stock_variant (variant_id, enabled_at) values (:id, :enabledAt) on conflict do nothing",
+        nativeQuery = true
+    )
+    int insertHotStock(@Param("id") Long id, @Param("enabledAt") Instant enabledAt);
+
+    @Modifying
+    @Query(value = "delete from hot_stock_variant where variant_id = :id", nativeQuery = true)
+    int deleteHotStock(@Param("id") Long id);
 }
@@ -0,0 +1,44 @@
+package com.ayadyasmine.pharmacyecom.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+public interface ProductVariantRepositoryWithStock {
+    /**
+     * Lock the variants of the items of a cart with {@code SELECT ... FOR UPDATE}, in ascending id order, so that
+     * concurrent checkouts sharing variants wait for each other instead of deadlocking. Hot variants are not locked.
+     *
+     * @param cartId the id of the cart.
+     * @return the ids of the locked variants, in ascending order.
+     */
+    List<Long> lockByCartId(Long cartId);
+
+    /**
+     * Lock variants with {@code SELECT ... FOR UPDATE}, in ascending id order, and read their stock.
+     *
+     * @param ids the ids of the variants.
+     * @return the stock of each existing variant that is not hot, by id.
+     */
+    Map<Long, Integer> lockStock(Collection<Long> ids);
+
+    /**
+     * Take quantities off the stock of variants, each only if enough stock is left, in a single JDBC batch of
+     * conditional updates. The updates run in ascending id order, so that concurrent batches lock the rows in the
+     * same order and cannot deadlock. Managed instances of the variants are not refreshed.
+     *
+     * @param quantities the quantity to take per variant id.
+     * @return the ids of the variants whose stock was insufficient or that are hot, whose stock is left unchanged.
+     */
+    List<Long> decrementStock(SortedMap<Long, Integer> quantities);
+
+    /**
+     * Take quantities off the stock of hot variants, like {@link #decrementStock} but for the variants listed in
+     * {@code hot_stock_variant}, whose counters in memory only screen the checkouts.
+     *
+     * @param quantities the quantity to take per variant id.
+     * @return the ids of the variants whose stock was insufficient, whose stock is left unchanged.
+     */
+    List<Long> decrementHotStock(SortedMap<Long, Integer> quantities);
+}
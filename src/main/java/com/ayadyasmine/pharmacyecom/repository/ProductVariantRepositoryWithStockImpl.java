@@ -0,0 +1,126 @@
+package com.ayadyasmine.pharmacyecom.repository;
+
+import com.ayadyasmine.pharmacyecom.domain.ProductVariant;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import org.hibernate.Session;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Stock of the variants. The rows of the hot variants, see {@link HotVariantStockMapStore}, are neither locked nor
+ * updated with the regular ones, but on their own, last in the checkout transaction.
+ * <p>
+ * Stock updates written as {@code stock = stock - q where stock >= q}, so that the check and the decrement are a single
+ * atomic statement: concurrent checkouts of the last units cannot both succeed, whether or not the rows were locked
+ * beforehand.
+ */
+public class ProductVariantRepositoryWithStockImpl implements ProductVariantRepositoryWithStock {
+
+    private static final String DECREMENT_STOCK =
+        "update product_variant set stock = stock - ? " +
+        "where id = ? and stock >= ? and id not in (select hot.variant_id from hot_stock_variant hot)";
+
+    private static final String DECREMENT_HOT_STOCK = "update product_variant set stock = stock - ? where id = ? and stock >= ?";
+
+    // the sort runs below the row locking, so the rows are locked in id order; the cart items are read, not locked
+    private static final String LOCK_BY_CART_ID =
+        "select variant.id from product_variant variant " +
+        "where variant.id in (select item.variant_id from cart_item item where item.cart_id = :cartId) " +
+        "and variant.id not in (select hot.variant_id from hot_stock_variant hot) " +
+        "order by variant.id for update";
+
+    private static final String LOCK_STOCK =
+        "select id, stock from product_variant " +
+        "where id in (:ids) and id not in (select hot.variant_id from hot_stock_variant hot) " +
+        "order by id for update";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> lockByCartId(Long cartId) {
+        List<?> ids = entityManager.createNativeQuery(LOCK_BY_CART_ID).setParameter("cartId", cartId).getResultList();
+        return ids.stream().map(id -> ((Number) id).longValue()).toList();
+    }
+
+    @Override
+    public Map<Long, Integer> lockStock(Collection<Long> ids) {
+        List<?> rows = entityManager.createNativeQuery(LOCK_STOCK).setParameter("ids", ids).getResultList();
+        Map<Long, Integer> stock = new HashMap<>();
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            stock.put(((Number) columns[0]).longValue(), ((Number) columns[1]).intValue());
+        }
+        return stock;
+    }
+
+    @Override
+    public List<Long> decrementStock(SortedMap<Long, Integer> quantities) {
+        return decrement(DECREMENT_STOCK, quantities);
+    }
+
+    @Override
+    public List<Long> decrementHotStock(SortedMap<Long, Integer> quantities) {
+        return decrement(DECREMENT_HOT_STOCK, quantities);
+    }
+
+    private List<Long> decrement(String sql, SortedMap<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return List.of();
+        }
+        entityManager.flush();
+        List<Long> ids = new ArrayList<>(quantities.keySet());
+        int[] updateCounts = entityManager
+            .unwrap(Session.class)
+            .doReturningWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+                        statement.setInt(1, line.getValue());
+                        statement.setLong(2, line.getKey());
+                        statement.setInt(3, line.getValue());
+                        statement.addBatch();
+                    }
+                    return statement.executeBatch();
+                }
+            });
+
+        List<Long> insufficient = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (updateCounts[i] == 0) {
+                insufficient.add(ids.get(i));
+            }
+        }
+        evictAfterCommit(ids);
+        return insufficient;
+    }
+
+    /**
+     * The statements bypass Hibernate, which would otherwise serve the previous stock from the second-level cache.
+     * The entries are evicted once the transaction commits, as a transaction reading them in the meantime would cache
+     * the previous stock again.
+     */
+    private void evictAfterCommit(List<Long> ids) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        ids.forEach(id -> cache.evict(ProductVariant.class, id));
+                    }
+                }
+            );
+        } else {
+            ids.forEach(id -> cache.evict(ProductVariant.class, id));
+        }
+    }
+}
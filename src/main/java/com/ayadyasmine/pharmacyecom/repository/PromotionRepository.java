@@ -2,6 +2,7 @@ package com.ayadyasmine.pharmacyecom.repository;
 
 import com.ayadyasmine.pharmacyecom.domain.Promotion;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
@@ -30,10 +31,50 @@ public interface PromotionRepository extends PromotionRepositoryWithBagRelations
         return this.fetchBagRelationships(this.findAll(pageable));
     }
 
-    @Query("SELECT p FROM Promotion p JOIN p.products prod " +
-           "WHERE prod.id = :productId " +
+    @Query("SELECT DISTINCT p FROM Promotion p LEFT JOIN FETCH p.products WHERE p.live = true")
+    List<Promotion> findLivePromotionsWithProducts();
+
+    @Query("SELECT prod.id FROM Promotion p JOIN p.products prod WHERE p.id = :promotionId")
+    List<Long> findProductIdsByPromotionId(@Param("promotionId") Long promotionId);
+
+    @Query("SELECT DISTINCT prod.id FROM Promotion p JOIN p.products prod WHERE p.id IN :promotionIds")
+    List<Long> findProductIdsByPromotionIdIn(@Param("promotionIds") Collection<Long> promotionIds);
+
+    @Query("SELECT p.id FROM Promotion p " +
+           "WHERE p.live = false " +
            "AND p.active = true " +
            "AND p.startDate <= :now " +
            "AND p.endDate >= :now")
-    List<Promotion> findActivePromotionsForProduct(@Param("productId") Long productId, @Param("now") Instant now);
+    List<Long> findIdsOfStartedPromotions(@Param("now") Instant now);
+
+    @Query("SELECT p.id FROM Promotion p " +
+           "WHERE p.live = true " +
+           "AND (p.active IS NULL OR p.active = false " +
+           "OR p.startDate IS NULL OR p.startDate > :now " +
+           "OR p.endDate IS NULL OR p.endDate < :now)")
+    List<Long> findIdsOfEndedPromotions(@Param("now") Instant now);
+
+    /**
+     * Flip the given promotions to live, unless a concurrent write made them not live in between.
+     */
+    @Modifying
+    @Query("UPDATE Promotion p SET p.live = true " +
+           "WHERE p.id IN :ids " +
+           "AND p.live = false " +
+           "AND p.active = true " +
+           "AND p.startDate <= :now " +
+           "AND p.endDate >= :now")
+    int markStartedPromotionsLive(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    /**
+     * Flip the given promotions to not live, unless a concurrent write made them live in between.
+     */
+    @Modifying
+    @Query("UPDATE Promotion p SET p.live = false " +
+           "WHERE p.id IN :ids " +
+           "AND p.live = true " +
+           "AND (p.active IS NULL OR p.active = false " +
+           "OR p.startDate IS NULL OR p.startDate > :now " +
+           "OR p.endDate IS NULL OR p.endDate < :now)")
+    int markEndedPromotionsNotLive(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
 }
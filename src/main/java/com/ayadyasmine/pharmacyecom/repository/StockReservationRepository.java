@@ -0,0 +1,47 @@
+package com.ayadyasmine.pharmacyecom.repository;
+
+import com.ayadyasmine.pharmacyecom.domain.StockReservation;
+import jakarta.persistence.LockModeType;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the StockReservation entity.
+ */
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+    /**
+     * Find the hold of a cart on a variant, locked so that the reaper skips it while it is extended.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<StockReservation> findByCartIdAndVariantId(Long cartId, Long variantId);
+
+    /**
+     * Find the holds of a cart, locked so that the reaper skips them while they are converted.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<StockReservation> findByCartId(Long cartId);
+
+    /**
+     * Get the quantity held on a variant, expired holds not yet released included.
+     */
+    @Query("select coalesce(sum(reservation.quantity), 0) from StockReservation reservation where reservation.variantId = :variantId")
+    long sumQuantityByVariantId(@Param("variantId") Long variantId);
+
+    /**
+     * Delete a batch of expired holds, skipping the rows locked by a concurrent checkout or reaper.
+     *
+     * @return rows of {@code [variantId, quantity]} of the deleted holds.
+     */
+    @Query(
+        value = "delete from stock_reservation where id in (" +
+        "select id from stock_reservation where expires_at <= :now order by id limit :limit for update skip locked) " +
+        "returning variant_id, quantity",
+        nativeQuery = true
+    )
+    List<Object[]> deleteExpired(@Param("now") Instant now, @Param("limit") int limit);
+}
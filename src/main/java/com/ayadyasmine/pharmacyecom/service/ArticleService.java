@@ -2,6 +2,7 @@ package com.ayadyasmine.pharmacyecom.service;
 
 import com.ayadyasmine.pharmacyecom.domain.Article;
 import com.ayadyasmine.pharmacyecom.repository.ArticleRepository;
+import com.ayadyasmine.pharmacyecom.repository.NaturalIdRepository;
 import com.ayadyasmine.pharmacyecom.service.dto.ArticleDTO;
 import com.ayadyasmine.pharmacyecom.service.mapper.ArticleMapper;
 import java.util.Optional;
@@ -25,9 +26,12 @@ public class ArticleService {
 
     private final ArticleMapper articleMapper;
 
-    public ArticleService(ArticleRepository articleRepository, ArticleMapper articleMapper) {
+    private final NaturalIdRepository naturalIdRepository;
+
+    public ArticleService(ArticleRepository articleRepository, ArticleMapper articleMapper, NaturalIdRepository naturalIdRepository) {
         this.articleRepository = articleRepository;
         this.articleMapper = articleMapper;
+        this.naturalIdRepository = naturalIdRepository;
     }
 
     /**
@@ -100,6 +104,18 @@ public class ArticleService {
         return articleRepository.findById(id).map(articleMapper::toDto);
     }
 
+    /**
+     * Get one article by slug, resolved through the natural-id cache.
+     *
+     * @param slug the slug of the entity.
+     * @return the entity.
+     */
+    @Transactional(readOnly = true)
+    public Optional<ArticleDTO> findOneBySlug(String slug) {
+        LOG.debug("Request to get Article by slug : {}", slug);
+        return naturalIdRepository.findBySimpleNaturalId(Article.class, slug).map(articleMapper::toDto);
+    }
+
     /**
      * Delete the article by id.
      *
@@ -2,6 +2,7 @@ package com.ayadyasmine.pharmacyecom.service;
 
 import com.ayadyasmine.pharmacyecom.domain.Brand;
 import com.ayadyasmine.pharmacyecom.repository.BrandRepository;
+import com.ayadyasmine.pharmacyecom.repository.NaturalIdRepository;
 import com.ayadyasmine.pharmacyecom.service.dto.BrandDTO;
 import com.ayadyasmine.pharmacyecom.service.mapper.BrandMapper;
 import java.util.Optional;
@@ -23,9 +24,20 @@ public class BrandService {
 
     private final BrandMapper brandMapper;
 
-    public BrandService(BrandRepository brandRepository, BrandMapper brandMapper) {
+    private final NaturalIdRepository naturalIdRepository;
+
+    private final CatalogVersion catalogVersion;
+
+    public BrandService(
+        BrandRepository brandRepository,
+        BrandMapper brandMapper,
+        NaturalIdRepository naturalIdRepository,
+        CatalogVersion catalogVersion
+    ) {
         this.brandRepository = brandRepository;
         this.brandMapper = brandMapper;
+        this.naturalIdRepository = naturalIdRepository;
+        this.catalogVersion = catalogVersion;
     }
 
     /**
@@ -38,6 +50,7 @@ public class BrandService {
         LOG.debug("Request to save Brand : {}", brandDTO);
         Brand brand = brandMapper.toEntity(brandDTO);
         brand = brandRepository.save(brand);
+        catalogVersion.bump();
         return brandMapper.toDto(brand);
     }
 
@@ -51,6 +64,7 @@ public class BrandService {
         LOG.debug("Request to update Brand : {}", brandDTO);
         Brand brand = brandMapper.toEntity(brandDTO);
         brand = brandRepository.save(brand);
+        catalogVersion.bump();
         return brandMapper.toDto(brand);
     }
 
@@ -71,7 +85,10 @@ public class BrandService {
                 return existingBrand;
             })
             .map(brandRepository::save)
-            .map(brandMapper::toDto);
+            .map(brand -> {
+                catalogVersion.bump();
+                return brandMapper.toDto(brand);
+            });
     }
 
     /**
@@ -86,6 +103,18 @@ public class BrandService {
         return brandRepository.findById(id).map(brandMapper::toDto);
     }
 
+    /**
+     * Get one brand by slug, resolved through the natural-id cache.
+     *
+     * @param slug the slug of the entity.
+     * @return the entity.
+     */
+    @Transactional(readOnly = true)
+    public Optional<BrandDTO> findOneBySlug(String slug) {
+        LOG.debug("Request to get Brand by slug : {}", slug);
+        return naturalIdRepository.findBySimpleNaturalId(Brand.class, slug).map(brandMapper::toDto);
+    }
+
     /**
      * Delete the brand by id.
      *
@@ -94,5 +123,6 @@ public class BrandService {
     public void delete(Long id) {
         LOG.debug("Request to delete Brand : {}", id);
         brandRepository.deleteById(id);
+        catalogVersion.bump();
     }
 }
@@ -28,42 +28,55 @@ public class CartItemService {
 
     private final CartItemMapper cartItemMapper;
 
-    public CartItemService(CartItemRepository cartItemRepository, CartItemMapper cartItemMapper) {
+    private final StockReservationService stockReservationService;
+
+    public CartItemService(
+        CartItemRepository cartItemRepository,
+        CartItemMapper cartItemMapper,
+        StockReservationService stockReservationService
+    ) {
         this.cartItemRepository = cartItemRepository;
         this.cartItemMapper = cartItemMapper;
+        this.stockReservationService = stockReservationService;
     }
 
     /**
-     * Save a cartItem.
+     * Save a cartItem, holding the stock of its quantity.
      *
      * @param cartItemDTO the entity to save.
      * @return the persisted entity.
+     * @throws InsufficientStockException if the quantity is above the quantity available to sell.
      */
     public CartItemDTO save(CartItemDTO cartItemDTO) {
         LOG.debug("Request to save CartItem : {}", cartItemDTO);
         CartItem cartItem = cartItemMapper.toEntity(cartItemDTO);
         cartItem = cartItemRepository.save(cartItem);
+        changeHold(null, cartItem);
         return cartItemMapper.toDto(cartItem);
     }
 
     /**
-     * Update a cartItem.
+     * Update a cartItem, holding or releasing the stock of the quantity change.
      *
      * @param cartItemDTO the entity to save.
      * @return the persisted entity.
+     * @throws InsufficientStockException if the quantity is raised above the quantity available to sell.
      */
     public CartItemDTO update(CartItemDTO cartItemDTO) {
         LOG.debug("Request to update CartItem : {}", cartItemDTO);
+        Hold previous = cartItemRepository.findById(cartItemDTO.getId()).map(Hold::of).orElse(null);
         CartItem cartItem = cartItemMapper.toEntity(cartItemDTO);
         cartItem = cartItemRepository.save(cartItem);
+        changeHold(previous, cartItem);
         return cartItemMapper.toDto(cartItem);
     }
 
     /**
-     * Partially update a cartItem.
+     * Partially update a cartItem, holding or releasing the stock of the quantity change.
      *
      * @param cartItemDTO the entity to update partially.
      * @return the persisted entity.
+     * @throws InsufficientStockException if the quantity is raised above the quantity available to sell.
      */
     public Optional<CartItemDTO> partialUpdate(CartItemDTO cartItemDTO) {
         LOG.debug("Request to partially update CartItem : {}", cartItemDTO);
@@ -71,11 +84,12 @@ public class CartItemService {
         return cartItemRepository
             .findById(cartItemDTO.getId())
             .map(existingCartItem -> {
+                Hold previous = Hold.of(existingCartItem);
                 cartItemMapper.partialUpdate(existingCartItem, cartItemDTO);
-
-                return existingCartItem;
+                CartItem cartItem = cartItemRepository.save(existingCartItem);
+                changeHold(previous, cartItem);
+                return cartItem;
             })
-            .map(cartItemRepository::save)
             .map(cartItemMapper::toDto);
     }
 
@@ -118,6 +132,51 @@ public class CartItemService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete CartItem : {}", id);
+        cartItemRepository
+            .findById(id)
+            .map(Hold::of)
+            .ifPresent(hold -> stockReservationService.release(hold.cartId(), hold.variantId(), hold.quantity()));
         cartItemRepository.deleteById(id);
     }
+
+    /**
+     * Move the hold of a cart item from its previous cart, variant and quantity to the current ones: only the difference
+     * is held or released when the item stays on the same cart and variant.
+     */
+    private void changeHold(Hold previous, CartItem cartItem) {
+        Hold current = Hold.of(cartItem);
+        if (previous != null && current != null && previous.sameLine(current)) {
+            if (current.quantity() > previous.quantity()) {
+                stockReservationService.reserve(current.cartId(), cartItem.getVariant(), current.quantity() - previous.quantity());
+            } else {
+                stockReservationService.release(current.cartId(), current.variantId(), previous.quantity() - current.quantity());
+            }
+            return;
+        }
+        if (previous != null) {
+            stockReservationService.release(previous.cartId(), previous.variantId(), previous.quantity());
+        }
+        if (current != null && current.quantity() > 0) {
+            stockReservationService.reserve(current.cartId(), cartItem.getVariant(), current.quantity());
+        }
+    }
+
+    /**
+     * The quantity of a variant held by a cart item, read before the item is changed.
+     */
+    private record Hold(Long cartId, Long variantId, int quantity) {
+        /**
+         * @return the hold of the item, or {@code null} if it is not on a cart or has no variant.
+         */
+        static Hold of(CartItem cartItem) {
+            if (cartItem.getCart() == null || cartItem.getVariant() == null || cartItem.getQuantity() == null) {
+                return null;
+            }
+            return new Hold(cartItem.getCart().getId(), cartItem.getVariant().getId(), cartItem.getQuantity());
+        }
+
+        boolean sameLine(Hold other) {
+            return cartId.equals(other.cartId) && variantId.equals(other.variantId);
+        }
+    }
 }
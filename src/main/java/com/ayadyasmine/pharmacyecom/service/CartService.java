@@ -35,14 +35,17 @@ public class CartService {
     private final ProductVariantRepository productVariantRepository;
     private final CustomerRepository customerRepository;
     private final CartMapper cartMapper;
+    private final StockReservationService stockReservationService;
 
     public CartService(CartRepository cartRepository, CartItemRepository cartItemRepository,
-                       ProductVariantRepository productVariantRepository, CustomerRepository customerRepository, CartMapper cartMapper) {
+                       ProductVariantRepository productVariantRepository, CustomerRepository customerRepository, CartMapper cartMapper,
+                       StockReservationService stockReservationService) {
         this.cartRepository = cartRepository;
         this.cartItemRepository = cartItemRepository;
         this.productVariantRepository = productVariantRepository;
         this.customerRepository = customerRepository;
         this.cartMapper = cartMapper;
+        this.stockReservationService = stockReservationService;
     }
 
     /**
@@ -128,24 +131,29 @@ public class CartService {
     }
 
     /**
-     * Delete the cart by id.
+     * Delete the cart by id, releasing the stock it holds.
      *
      * @param id the id of the entity.
      */
     public void delete(Long id) {
         LOG.debug("Request to delete Cart : {}", id);
+        stockReservationService.releaseAll(id);
         cartRepository.deleteById(id);
     }
 
+    /**
+     * Add a quantity of a variant to the active cart of a customer, holding it until checkout.
+     *
+     * @param variantId the id of the variant.
+     * @param quantity the quantity to add.
+     * @param login the login of the customer.
+     * @throws InsufficientStockException if less than {@code quantity} is available to sell.
+     */
     public void addVariantToCart(Long variantId, Integer quantity, String login) {
-        // 1. Vérifier la variante et le stock
+        // 1. Vérifier la variante
         ProductVariant variant = productVariantRepository.findById(variantId)
             .orElseThrow(() -> new RuntimeException("Variante non trouvée"));
 
-        if (variant.getStock() < quantity) {
-            throw new RuntimeException("Stock insuffisant !");
-        }
-
         // 2. LOGIQUE INTELLIGENTE : Récupérer le panier actif OU en créer un nouveau
         Cart cart = cartRepository.findByCustomerUserLoginAndActiveTrue(login)
             .orElseGet(() -> {
@@ -161,7 +169,10 @@ public class CartService {
                 return cartRepository.save(newCart);
             });
 
-        // 3. Vérifier si l'article est déjà dans le panier
+        // 3. Réserver le stock pour ce panier (le disponible est lu en mémoire)
+        stockReservationService.reserve(cart.getId(), variant, quantity);
+
+        // 4. Vérifier si l'article est déjà dans le panier
         Optional<CartItem> existingItem = cartItemRepository.findByCartAndVariantId(cart, variantId);
 
         if (existingItem.isPresent()) {
@@ -0,0 +1,53 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.cp.IAtomicLong;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cluster-wide version of the catalog, bumped on every Product, Category, Brand and Promotion write.
+ * <p>
+ * Cached catalog query results are keyed by the version they were computed at, so a bump makes all of them
+ * unreachable at once instead of evicting them one by one; they then expire with their time to live.
+ * <p>
+ * The version is an {@link IAtomicLong} of the CP subsystem: every member reads it from the same place, so no member
+ * serves results cached before a bump once the bump is done. Without CP members configured, the subsystem runs in
+ * its unsafe mode, where the counter is a partition with backups; a version lost with a crashed member only leaves
+ * results cached at that version reachable again, until their time to live.
+ */
+@Component
+public class CatalogVersion {
+
+    private static final String COUNTER_NAME = "catalog-version";
+
+    private final IAtomicLong counter;
+
+    public CatalogVersion(HazelcastInstance hazelcastInstance) {
+        this.counter = hazelcastInstance.getCPSubsystem().getAtomicLong(COUNTER_NAME);
+    }
+
+    public long current() {
+        return counter.get();
+    }
+
+    /**
+     * Move the catalog to a new version.
+     * When called inside a transaction, the version is bumped after commit, so that no query can cache the old data under the new version.
+     */
+    public void bump() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        counter.incrementAndGet();
+                    }
+                }
+            );
+        } else {
+            counter.incrementAndGet();
+        }
+    }
+}
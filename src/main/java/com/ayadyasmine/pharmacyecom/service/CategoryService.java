@@ -1,19 +1,35 @@
 package com.ayadyasmine.pharmacyecom.service;
 
 import com.ayadyasmine.pharmacyecom.domain.Category;
+import com.ayadyasmine.pharmacyecom.repository.CategoryClosureRepository;
 import com.ayadyasmine.pharmacyecom.repository.CategoryRepository;
+import com.ayadyasmine.pharmacyecom.repository.NaturalIdRepository;
 import com.ayadyasmine.pharmacyecom.service.dto.CategoryDTO;
+import com.ayadyasmine.pharmacyecom.service.dto.CategoryTreeDTO;
 import com.ayadyasmine.pharmacyecom.service.mapper.CategoryMapper;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Service Implementation for managing {@link com.ayadyasmine.pharmacyecom.domain.Category}.
+ * <p>
+ * Keeps the {@link com.ayadyasmine.pharmacyecom.domain.CategoryClosure} table in step with the {@code parent} links
+ * when a category is created, moved or deleted.
  */
 @Service
 @Transactional
@@ -21,13 +37,34 @@ public class CategoryService {
 
     private static final Logger LOG = LoggerFactory.getLogger(CategoryService.class);
 
+    public static final String CATEGORY_TREE_CACHE = "categoryTree";
+
     private final CategoryRepository categoryRepository;
 
+    private final CategoryClosureRepository categoryClosureRepository;
+
     private final CategoryMapper categoryMapper;
 
-    public CategoryService(CategoryRepository categoryRepository, CategoryMapper categoryMapper) {
+    private final NaturalIdRepository naturalIdRepository;
+
+    private final CacheManager cacheManager;
+
+    private final CatalogVersion catalogVersion;
+
+    public CategoryService(
+        CategoryRepository categoryRepository,
+        CategoryClosureRepository categoryClosureRepository,
+        CategoryMapper categoryMapper,
+        NaturalIdRepository naturalIdRepository,
+        CacheManager cacheManager,
+        CatalogVersion catalogVersion
+    ) {
         this.categoryRepository = categoryRepository;
+        this.categoryClosureRepository = categoryClosureRepository;
         this.categoryMapper = categoryMapper;
+        this.naturalIdRepository = naturalIdRepository;
+        this.cacheManager = cacheManager;
+        this.catalogVersion = catalogVersion;
     }
 
     /**
@@ -40,6 +77,9 @@ public class CategoryService {
         LOG.debug("Request to save Category : {}", categoryDTO);
         Category category = categoryMapper.toEntity(categoryDTO);
         category = categoryRepository.save(category);
+        categoryClosureRepository.insertSelf(category.getId());
+        moveSubtree(category.getId(), null, parentId(category));
+        clearTreeCache();
         return categoryMapper.toDto(category);
     }
 
@@ -51,8 +91,11 @@ public class CategoryService {
      */
     public CategoryDTO update(CategoryDTO categoryDTO) {
         LOG.debug("Request to update Category : {}", categoryDTO);
+        Long previousParentId = categoryRepository.findParentIdById(categoryDTO.getId()).orElse(null);
         Category category = categoryMapper.toEntity(categoryDTO);
         category = categoryRepository.save(category);
+        moveSubtree(category.getId(), previousParentId, parentId(category));
+        clearTreeCache();
         return categoryMapper.toDto(category);
     }
 
@@ -68,12 +111,17 @@ public class CategoryService {
         return categoryRepository
             .findById(categoryDTO.getId())
             .map(existingCategory -> {
+                Long previousParentId = parentId(existingCategory);
                 categoryMapper.partialUpdate(existingCategory, categoryDTO);
+                moveSubtree(existingCategory.getId(), previousParentId, parentId(existingCategory));
 
                 return existingCategory;
             })
             .map(categoryRepository::save)
-            .map(categoryMapper::toDto);
+            .map(category -> {
+                clearTreeCache();
+                return categoryMapper.toDto(category);
+            });
     }
 
     /**
@@ -97,6 +145,18 @@ public class CategoryService {
         return categoryRepository.findOneWithEagerRelationships(id).map(categoryMapper::toDto);
     }
 
+    /**
+     * Get one category by slug, resolved through the natural-id cache.
+     *
+     * @param slug the slug of the entity.
+     * @return the entity.
+     */
+    @Transactional(readOnly = true)
+    public Optional<CategoryDTO> findOneBySlug(String slug) {
+        LOG.debug("Request to get Category by slug : {}", slug);
+        return naturalIdRepository.findBySimpleNaturalId(Category.class, slug).map(categoryMapper::toDto);
+    }
+
     /**
      * Delete the category by id.
      *
@@ -104,6 +164,85 @@ public class CategoryService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete Category : {}", id);
+        categoryClosureRepository.deleteByCategoryId(id);
         categoryRepository.deleteById(id);
+        clearTreeCache();
+    }
+
+    /**
+     * Check whether a category is in the subtree of another one, itself included.
+     *
+     * @param categoryId the id of the category to look for.
+     * @param rootId the id of the root of the subtree.
+     * @return {@code true} if {@code categoryId} is {@code rootId} or one of its descendants.
+     */
+    @Transactional(readOnly = true)
+    public boolean isInSubtree(Long categoryId, Long rootId) {
+        return categoryClosureRepository.existsByAncestorIdAndDescendantId(rootId, categoryId);
+    }
+
+    /**
+     * Get the whole category tree, read in a single query and cached until the next category write.
+     *
+     * @return the root categories, with their subcategories, ordered by name.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CATEGORY_TREE_CACHE)
+    public List<CategoryTreeDTO> findTree() {
+        LOG.debug("Request to get the Category tree");
+        List<Object[]> rows = categoryRepository.findAllTreeRows();
+        Map<Long, CategoryTreeDTO> nodes = new HashMap<>();
+        for (Object[] row : rows) {
+            nodes.put((Long) row[0], new CategoryTreeDTO((Long) row[0], (String) row[1], (String) row[2], (Boolean) row[3]));
+        }
+        List<CategoryTreeDTO> roots = new ArrayList<>();
+        for (Object[] row : rows) {
+            CategoryTreeDTO parent = row[4] == null ? null : nodes.get((Long) row[4]);
+            if (parent == null) {
+                roots.add(nodes.get((Long) row[0]));
+            } else {
+                parent.getChildren().add(nodes.get((Long) row[0]));
+            }
+        }
+        return roots;
+    }
+
+    private void moveSubtree(Long id, Long previousParentId, Long parentId) {
+        if (Objects.equals(previousParentId, parentId)) {
+            return;
+        }
+        LOG.debug("Moving Category {} from parent {} to parent {}", id, previousParentId, parentId);
+        categoryClosureRepository.detachSubtree(id);
+        if (parentId != null) {
+            categoryClosureRepository.attachSubtree(id, parentId);
+        }
+    }
+
+    private static Long parentId(Category category) {
+        return category.getParent() == null ? null : category.getParent().getId();
+    }
+
+    /**
+     * Clear the cached tree once the transaction commits, so that no concurrent reader caches the tree as it was before.
+     * The catalog version is bumped along, as cached product queries may filter on the categories.
+     */
+    private void clearTreeCache() {
+        catalogVersion.bump();
+        Cache cache = cacheManager.getCache(CATEGORY_TREE_CACHE);
+        if (cache == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        cache.clear();
+                    }
+                }
+            );
+        } else {
+            cache.clear();
+        }
     }
 }
@@ -0,0 +1,10 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+public class CheckoutQueueFullException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CheckoutQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,245 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import com.ayadyasmine.pharmacyecom.config.ApplicationProperties;
+import com.ayadyasmine.pharmacyecom.domain.enumeration.PaymentMethod;
+import com.ayadyasmine.pharmacyecom.repository.CartItemRepository;
+import com.ayadyasmine.pharmacyecom.service.OrderService.CheckoutOutcome;
+import com.ayadyasmine.pharmacyecom.service.OrderService.CheckoutRequest;
+import com.ayadyasmine.pharmacyecom.service.dto.OrderDTO;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Entry point of the checkout, which either runs each checkout in its own transaction, or, when
+ * {@code application.checkout-queue.enabled} is set, groups the checkouts in micro-batches for flash sales.
+ * <p>
+ * In queued mode, a checkout is routed to one of a fixed number of shards, each with a bounded queue and a single writer
+ * thread, by the hot variant of its cart, see {@link HotStockService}, so that all the checkouts of a hot variant go
+ * through the same writer. A cart with several hot variants is routed by the smallest of their ids, and a cart without
+ * any by its smallest variant id. The writer drains its queue into batches checked out in one
+ * transaction by {@link OrderService#checkoutBatch}, so that concurrent checkouts of the same hot variants no longer
+ * contend on their rows, and completes each caller with its own outcome. A full queue is rejected right away rather
+ * than piling up requests, and a batch that fails as a whole is retried one checkout at a time.
+ * <p>
+ * The {@code checkout.requests} timer, tagged by mode, and the {@code checkout.batch.size} summary allow comparing the
+ * throughput of both modes.
+ */
+@Service
+public class CheckoutQueueService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CheckoutQueueService.class);
+
+    private final OrderService orderService;
+
+    private final CartItemRepository cartItemRepository;
+
+    private final HotStockService hotStockService;
+
+    private final ApplicationProperties.CheckoutQueue properties;
+
+    private final Timer directTimer;
+
+    private final Timer queuedTimer;
+
+    private final DistributionSummary batchSize;
+
+    private final List<Shard> shards = new ArrayList<>();
+
+    private volatile boolean running;
+
+    public CheckoutQueueService(
+        OrderService orderService,
+        CartItemRepository cartItemRepository,
+        HotStockService hotStockService,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.orderService = orderService;
+        this.cartItemRepository = cartItemRepository;
+        this.hotStockService = hotStockService;
+        this.properties = applicationProperties.getCheckoutQueue();
+        this.directTimer = Timer.builder("checkout.requests").tag("mode", "direct").register(registry);
+        this.queuedTimer = Timer.builder("checkout.requests").tag("mode", "queued").register(registry);
+        this.batchSize = DistributionSummary.builder("checkout.batch.size").register(registry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < properties.getShards(); i++) {
+            Shard shard = new Shard(new ArrayBlockingQueue<>(properties.getCapacity()));
+            Thread writer = new Thread(() -> write(shard), "checkout-writer-" + i);
+            writer.setDaemon(true);
+            shard.writer = writer;
+            shards.add(shard);
+            writer.start();
+        }
+        LOG.info("Checkout queue started with {} shards", shards.size());
+    }
+
+    /**
+     * Stop the writers, then fail the checkouts still queued, so that no caller waits for a writer that is gone.
+     * A failed caller retries with the same idempotency key.
+     */
+    @PreDestroy
+    void stop() {
+        running = false;
+        shards.forEach(shard -> shard.writer.interrupt());
+        for (Shard shard : shards) {
+            try {
+                shard.writer.join(TimeUnit.SECONDS.toMillis(properties.getTimeoutSeconds()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<PendingCheckout> pending = new ArrayList<>();
+            shard.queue.drainTo(pending);
+            pending.forEach(CheckoutQueueService::reject);
+        }
+    }
+
+    /**
+     * Turn the active cart of a customer into an order, see {@link OrderService#checkout}.
+     *
+     * @throws InsufficientStockException if a variant of the cart has not enough stock left.
+     * @throws CheckoutQueueFullException if the checkout was not placed because the queue is full or too slow.
+     */
+    public OrderDTO checkout(String login, String idempotencyKey, String deliveryAddress, PaymentMethod paymentMethod) {
+        if (!running) {
+            return directTimer.record(() -> orderService.checkout(login, idempotencyKey, deliveryAddress, paymentMethod));
+        }
+        return queuedTimer.record(() -> enqueue(new CheckoutRequest(login, idempotencyKey, deliveryAddress, paymentMethod)));
+    }
+
+    private OrderDTO enqueue(CheckoutRequest request) {
+        List<Long> variantIds = cartItemRepository.findVariantIdsOfActiveCart(request.login());
+        long shardKey = hotStockService.findFirstHot(variantIds).orElse(variantIds.isEmpty() ? 0L : variantIds.get(0));
+        Shard shard = shards.get((int) Math.floorMod(shardKey, (long) shards.size()));
+        PendingCheckout pending = new PendingCheckout(request, new CompletableFuture<>());
+        if (!shard.queue.offer(pending)) {
+            throw new CheckoutQueueFullException("Checkout queue is full");
+        }
+        // stopped while offering: the queue may no longer be drained
+        if (!running && shard.queue.remove(pending)) {
+            throw new CheckoutQueueFullException("Checkout queue is stopped");
+        }
+        try {
+            return pending.result.get(properties.getTimeoutSeconds(), TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // the checkout may still be placed: a retry with the same idempotency key gets its order
+            throw new CheckoutQueueFullException("Checkout queue did not answer in time");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CheckoutQueueFullException("Checkout interrupted");
+        }
+    }
+
+    private void write(Shard shard) {
+        List<PendingCheckout> carriedOver = new ArrayList<>();
+        List<PendingCheckout> drained = new ArrayList<>();
+        try {
+            while (running) {
+                try {
+                    drained = new ArrayList<>(carriedOver);
+                    carriedOver.clear();
+                    if (drained.isEmpty()) {
+                        PendingCheckout first = shard.queue.poll(1, TimeUnit.SECONDS);
+                        if (first == null) {
+                            continue;
+                        }
+                        drained.add(first);
+                    }
+                    shard.queue.drainTo(drained, properties.getMaxBatchSize() - drained.size());
+
+                    // a second checkout of the same customer goes to the next batch, once the first one has closed the cart
+                    List<PendingCheckout> batch = new ArrayList<>();
+                    Set<String> logins = new HashSet<>();
+                    for (PendingCheckout pending : drained) {
+                        (logins.add(pending.request.login()) ? batch : carriedOver).add(pending);
+                    }
+                    checkout(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    LOG.error("Checkout writer {} failed", Thread.currentThread().getName(), e);
+                }
+            }
+        } finally {
+            // the checkouts already answered are left as they are
+            drained.forEach(CheckoutQueueService::reject);
+            carriedOver.forEach(CheckoutQueueService::reject);
+        }
+    }
+
+    private void checkout(List<PendingCheckout> batch) {
+        batchSize.record(batch.size());
+        List<CheckoutOutcome> outcomes;
+        try {
+            outcomes = orderService.checkoutBatch(batch.stream().map(PendingCheckout::request).toList());
+        } catch (RuntimeException e) {
+            LOG.warn("Checkout batch of {} failed, checking out one at a time", batch.size(), e);
+            batch.forEach(this::checkoutAlone);
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            CheckoutOutcome outcome = outcomes.get(i);
+            if (outcome.error() != null) {
+                batch.get(i).result.completeExceptionally(outcome.error());
+            } else {
+                batch.get(i).result.complete(outcome.order());
+            }
+        }
+    }
+
+    private void checkoutAlone(PendingCheckout pending) {
+        CheckoutRequest request = pending.request;
+        try {
+            pending.result.complete(
+                orderService.checkout(request.login(), request.idempotencyKey(), request.deliveryAddress(), request.paymentMethod())
+            );
+        } catch (RuntimeException e) {
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    private static void reject(PendingCheckout pending) {
+        pending.result.completeExceptionally(new CheckoutQueueFullException("Checkout queue is stopped"));
+    }
+
+    private static final class Shard {
+
+        private final BlockingQueue<PendingCheckout> queue;
+
+        private Thread writer;
+
+        private Shard(BlockingQueue<PendingCheckout> queue) {
+            this.queue = queue;
+        }
+    }
+
+    private record PendingCheckout(CheckoutRequest request, CompletableFuture<OrderDTO> result) {}
+}
@@ -0,0 +1,84 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import com.ayadyasmine.pharmacyecom.repository.ProductRepository;
+import com.ayadyasmine.pharmacyecom.repository.PromotionRepository;
+import java.util.Collection;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service maintaining the materialized {@code product.effective_price} column, i.e. the price after the best active promotion.
+ * <p>
+ * Prices are recomputed in SQL from the live promotions, for the products touched by a Promotion write, and for the
+ * products whose promotions went live or ended in a sweep of {@link PromotionLifecycleService}.
+ */
+@Service
+@Transactional
+public class EffectivePriceService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EffectivePriceService.class);
+
+    private final ProductRepository productRepository;
+
+    private final PromotionRepository promotionRepository;
+
+    private final CatalogVersion catalogVersion;
+
+    public EffectivePriceService(
+        ProductRepository productRepository,
+        PromotionRepository promotionRepository,
+        CatalogVersion catalogVersion
+    ) {
+        this.productRepository = productRepository;
+        this.promotionRepository = promotionRepository;
+        this.catalogVersion = catalogVersion;
+    }
+
+    /**
+     * Recompute the effective price of the given products.
+     *
+     * @param productIds the ids of the products to recompute.
+     */
+    public void recompute(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        LOG.debug("Request to recompute effective price of Products : {}", productIds);
+        productRepository.updateEffectivePrice(productIds);
+        catalogVersion.bump();
+    }
+
+    /**
+     * Get the ids of the products currently attached to a promotion, to be recomputed once it has changed.
+     *
+     * @param promotionId the id of the promotion.
+     * @return the product ids.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findProductIdsOfPromotion(Long promotionId) {
+        return promotionRepository.findProductIdsByPromotionId(promotionId);
+    }
+
+    /**
+     * Get the ids of the products currently attached to some promotions.
+     *
+     * @param promotionIds the ids of the promotions.
+     * @return the product ids.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findProductIdsOfPromotions(Collection<Long> promotionIds) {
+        return promotionIds.isEmpty() ? List.of() : promotionRepository.findProductIdsByPromotionIdIn(promotionIds);
+    }
+
+    /**
+     * Recompute the effective price of the whole catalog, to reconcile the boundaries missed while no node was running.
+     */
+    public void recomputeAll() {
+        int updated = productRepository.updateAllEffectivePrices();
+        LOG.debug("Recomputed effective price of {} Products", updated);
+        catalogVersion.bump();
+    }
+}
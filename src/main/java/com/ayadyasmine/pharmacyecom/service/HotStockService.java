@@ -0,0 +1,356 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import com.ayadyasmine.pharmacyecom.repository.HotVariantStockMapStore;
+import com.ayadyasmine.pharmacyecom.repository.ProductVariantRepository;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.IMap;
+import com.hazelcast.replicatedmap.ReplicatedMap;
+import jakarta.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service for the stock of hot variants, whose counters are mirrored in a partitioned Hazelcast map.
+ * <p>
+ * For the few variants that most checkouts contend on, the counters reject the checkouts of a sold-out variant without
+ * any database round trip. The stock itself is still taken from {@code product_variant.stock} with a conditional
+ * update, inside the checkout transaction, so that a committed checkout is never lost with a Hazelcast member; the
+ * contention on the row is amortized by the checkout queue, which routes the checkouts of a hot variant to a single
+ * writer, see {@link CheckoutQueueService}.
+ * <p>
+ * A counter is decremented once the checkout commits, and is only a hint: when it disagrees with the row, because a
+ * member was lost before applying a commit or a stock change raced with the checkouts, the row decides and the counter
+ * is set back to its stock. The counters of the variants listed in {@code hot_stock_variant} are loaded from the
+ * database when the cluster starts, see {@link HotVariantStockMapStore}.
+ * <p>
+ * The ids of the hot variants are also kept in a replicated map, read locally on each node, so that the lookups of the
+ * many variants that are not hot make no remote call.
+ */
+@Service
+public class HotStockService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HotStockService.class);
+
+    private final HazelcastInstance hazelcastInstance;
+
+    private final ProductVariantRepository productVariantRepository;
+
+    private static final String HOT_IDS_NAME = "hot-variant-ids";
+
+    private volatile IMap<Long, Integer> counters;
+
+    private volatile ReplicatedMap<Long, Boolean> hotIds;
+
+    public HotStockService(HazelcastInstance hazelcastInstance, ProductVariantRepository productVariantRepository) {
+        this.hazelcastInstance = hazelcastInstance;
+        this.productVariantRepository = productVariantRepository;
+    }
+
+    /**
+     * Load the counters before the first checkout, rather than in its transaction.
+     */
+    @PostConstruct
+    void load() {
+        try {
+            hotIds();
+        } catch (RuntimeException e) {
+            LOG.warn("Could not load the hot variant stock counters, they will be loaded on first use", e);
+        }
+    }
+
+    /**
+     * Get the stock of the hot variants among some variants, from their counters.
+     *
+     * @param variantIds the ids of the variants.
+     * @return the stock of each hot variant, by id.
+     */
+    public Map<Long, Integer> getStock(Collection<Long> variantIds) {
+        ReplicatedMap<Long, Boolean> ids = hotIds();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        // one get per hot variant: unlike getAll, a get does not query the database for a missing counter
+        IMap<Long, Integer> map = counters();
+        Map<Long, Integer> stock = new LinkedHashMap<>();
+        for (Long variantId : variantIds) {
+            Integer counter = ids.containsKey(variantId) ? map.get(variantId) : null;
+            if (counter != null) {
+                stock.put(variantId, counter);
+            }
+        }
+        return stock;
+    }
+
+    /**
+     * Get the stock of a variant if it is hot.
+     *
+     * @param variantId the id of the variant.
+     * @return the stock of the variant, or empty if it is not hot.
+     */
+    public Optional<Integer> getStock(Long variantId) {
+        if (!hotIds().containsKey(variantId)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(counters().get(variantId));
+    }
+
+    /**
+     * Get the first hot variant among some variants, from the ids replicated on this node.
+     *
+     * @param variantIds the ids of the variants, in the order they are looked up.
+     * @return the id of the first hot variant, or empty if none is hot.
+     */
+    public Optional<Long> findFirstHot(Collection<Long> variantIds) {
+        ReplicatedMap<Long, Boolean> ids = hotIds();
+        if (ids.isEmpty()) {
+            return Optional.empty();
+        }
+        return variantIds.stream().filter(ids::containsKey).findFirst();
+    }
+
+    /**
+     * Take quantities off the stock of variants, each only if enough stock is left, see
+     * {@link ProductVariantRepository#decrementStock}: the counters of the hot variants are checked first, then the rows
+     * of the regular variants are updated, and the rows of the hot ones last, as they are the most contended.
+     *
+     * @param quantities the quantity to take per variant id.
+     * @return the ids of the variants whose stock was insufficient; nothing is taken off the hot variants when any line
+     * is short.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Long> decrementStock(SortedMap<Long, Integer> quantities) {
+        Map<Long, Integer> hotStock = getStock(quantities.keySet());
+        List<Long> insufficient = new ArrayList<>();
+        hotStock.forEach((variantId, counter) -> {
+            int quantity = quantities.get(variantId);
+            // a short counter is checked against the row, read without waiting for the locks of the running checkouts
+            if (counter < quantity && resetCounter(variantId) < quantity) {
+                insufficient.add(variantId);
+            }
+        });
+        if (!insufficient.isEmpty()) {
+            return insufficient;
+        }
+
+        Set<Long> hot = new LinkedHashSet<>(hotStock.keySet());
+        SortedMap<Long, Integer> regular = new TreeMap<>(quantities);
+        regular.keySet().removeAll(hot);
+        insufficient.addAll(productVariantRepository.decrementStock(regular));
+        IMap<Long, Integer> map = counters();
+        // a variant made hot on another node may not be listed on this one yet: its row was left alone, take it as hot
+        for (Iterator<Long> iterator = insufficient.iterator(); iterator.hasNext();) {
+            Long variantId = iterator.next();
+            if (map.containsKey(variantId)) {
+                hot.add(variantId);
+                iterator.remove();
+            }
+        }
+        if (!insufficient.isEmpty() || hot.isEmpty()) {
+            return insufficient;
+        }
+
+        SortedMap<Long, Integer> hotQuantities = new TreeMap<>(quantities);
+        hotQuantities.keySet().retainAll(hot);
+        insufficient.addAll(productVariantRepository.decrementHotStock(hotQuantities));
+        if (!insufficient.isEmpty()) {
+            // the counters were ahead of the rows
+            insufficient.forEach(this::resetCounter);
+            return insufficient;
+        }
+        afterCompletion(committed -> {
+            if (committed) {
+                hotQuantities.forEach((variantId, quantity) -> map.executeOnKey(variantId, new AddStock(-quantity)));
+            }
+        });
+        return insufficient;
+    }
+
+    /**
+     * Set the counter of a hot variant to the stock written to its row, once the transaction commits.
+     *
+     * @param variantId the id of the variant.
+     * @param stock the new stock.
+     */
+    public void stockChanged(Long variantId, Integer stock) {
+        if (stock == null) {
+            return;
+        }
+        afterCompletion(committed -> {
+            if (committed) {
+                counters().executeOnKey(variantId, new SetStock(stock));
+            }
+        });
+    }
+
+    /**
+     * Drop the counter of a deleted variant, once the transaction commits.
+     *
+     * @param variantId the id of the variant.
+     */
+    public void variantDeleted(Long variantId) {
+        afterCompletion(committed -> {
+            if (committed) {
+                counters().evict(variantId);
+                hotIds().remove(variantId);
+            }
+        });
+    }
+
+    /**
+     * Make a variant hot: its stock is mirrored in a counter, which screens the checkouts from now on.
+     * <p>
+     * The row of the variant stays locked until the transaction commits, so that the counter starts from the stock left
+     * by the checkouts that already locked it.
+     *
+     * @param variantId the id of the variant.
+     * @return the stock of the hot variant, or empty if the variant does not exist.
+     */
+    @Transactional
+    public Optional<Integer> enable(Long variantId) {
+        LOG.debug("Request to make ProductVariant hot : {}", variantId);
+        Integer stock = productVariantRepository.lockStock(Set.of(variantId)).get(variantId);
+        if (stock == null) {
+            // either the variant does not exist or it is already hot
+            return Optional.ofNullable(counters().get(variantId));
+        }
+        productVariantRepository.insertHotStock(variantId, Instant.now());
+        IMap<Long, Integer> map = counters();
+        map.set(variantId, stock);
+        ReplicatedMap<Long, Boolean> ids = hotIds();
+        ids.put(variantId, Boolean.TRUE);
+        afterCompletion(committed -> {
+            if (!committed) {
+                map.evict(variantId);
+                ids.remove(variantId);
+            }
+        });
+        return Optional.of(stock);
+    }
+
+    /**
+     * Make a hot variant regular again: it is no longer listed as hot, and its counter is dropped.
+     *
+     * @param variantId the id of the variant.
+     * @return the stock of the variant, or empty if the variant was not hot.
+     */
+    @Transactional
+    public Optional<Integer> disable(Long variantId) {
+        LOG.debug("Request to make ProductVariant regular : {}", variantId);
+        if (productVariantRepository.deleteHotStock(variantId) == 0) {
+            return Optional.empty();
+        }
+        afterCompletion(committed -> {
+            if (committed) {
+                counters().evict(variantId);
+                hotIds().remove(variantId);
+            }
+        });
+        return productVariantRepository.findStockById(variantId);
+    }
+
+    /**
+     * Set the counter of a hot variant back to the stock of its row.
+     *
+     * @return the stock of the row, or {@code 0} if the variant no longer exists.
+     */
+    private int resetCounter(Long variantId) {
+        int stock = productVariantRepository.findStockById(variantId).orElse(0);
+        counters().executeOnKey(variantId, new SetStock(stock));
+        return stock;
+    }
+
+    /**
+     * The map is looked up on first use: loading the counters reads tables created by Liquibase, which may still be
+     * running when the beans are created.
+     */
+    private IMap<Long, Integer> counters() {
+        IMap<Long, Integer> map = counters;
+        if (map == null) {
+            map = hazelcastInstance.getMap(HotVariantStockMapStore.MAP_NAME);
+            counters = map;
+        }
+        return map;
+    }
+
+    /**
+     * The replicated map lives as long as the cluster: when the whole cluster restarts, it is filled again from the
+     * counters, loaded from {@code hot_stock_variant}.
+     */
+    private ReplicatedMap<Long, Boolean> hotIds() {
+        ReplicatedMap<Long, Boolean> ids = hotIds;
+        if (ids == null) {
+            ids = hazelcastInstance.getReplicatedMap(HOT_IDS_NAME);
+            if (ids.isEmpty()) {
+                for (Long variantId : counters().keySet()) {
+                    ids.put(variantId, Boolean.TRUE);
+                }
+            }
+            hotIds = ids;
+        }
+        return ids;
+    }
+
+    private static void afterCompletion(CompletionCallback callback) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        callback.completed(status == STATUS_COMMITTED);
+                    }
+                }
+            );
+        } else {
+            callback.completed(true);
+        }
+    }
+
+    @FunctionalInterface
+    private interface CompletionCallback {
+        void completed(boolean committed);
+    }
+
+    /**
+     * Add a quantity to a counter, or take it off when negative, if the variant is still hot.
+     */
+    record AddStock(int quantity) implements EntryProcessor<Long, Integer, Void> {
+        @Override
+        public Void process(Map.Entry<Long, Integer> entry) {
+            if (entry.getValue() != null) {
+                entry.setValue(entry.getValue() + quantity);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Overwrite a counter, if the variant is still hot.
+     */
+    record SetStock(int stock) implements EntryProcessor<Long, Integer, Void> {
+        @Override
+        public Void process(Map.Entry<Long, Integer> entry) {
+            if (entry.getValue() != null) {
+                entry.setValue(stock);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import com.ayadyasmine.pharmacyecom.config.ApplicationProperties;
+import com.ayadyasmine.pharmacyecom.repository.IdempotencyKeyRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for the Idempotency-Key header of the checkout, so that a retried checkout returns the order of the first
+ * attempt instead of placing it twice.
+ * <p>
+ * A key is claimed, inside the checkout transaction, by inserting its row: a duplicate sent while the first attempt is
+ * running waits on that row, then finds the order of the first attempt once it commits, or claims the key itself if
+ * it rolled back. Keys are scoped by login and kept until they expire.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class IdempotencyKeyService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IdempotencyKeyService.class);
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private final Duration timeToLive;
+
+    public IdempotencyKeyService(IdempotencyKeyRepository idempotencyKeyRepository, ApplicationProperties applicationProperties) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.timeToLive = Duration.ofSeconds(applicationProperties.getIdempotencyKey().getTimeToLiveSeconds());
+    }
+
+    /**
+     * Claim a key for the current transaction.
+     *
+     * @param login the login of the customer.
+     * @param key the value of the Idempotency-Key header.
+     * @return the id of the order created by a previous attempt with the key, or empty if the key is now claimed by
+     * the current transaction, which must then {@link #complete} it.
+     */
+    public Optional<Long> claim(String login, String key) {
+        Instant now = Instant.now();
+        if (idempotencyKeyRepository.claim(login, key, now, now.plus(timeToLive))) {
+            return Optional.empty();
+        }
+        LOG.debug("Replaying the checkout of Idempotency-Key {} for {}", key, login);
+        return Optional.of(
+            idempotencyKeyRepository
+                .findOrderId(login, key)
+                .orElseThrow(() -> new IllegalStateException("Idempotency-Key " + key + " has no order"))
+        );
+    }
+
+    /**
+     * Record the order created with a key claimed by the current transaction.
+     */
+    public void complete(String login, String key, Long orderId) {
+        idempotencyKeyRepository.saveOrderId(login, key, orderId);
+    }
+
+    /**
+     * Release a key claimed by the current transaction, when it commits without creating an order.
+     */
+    public void release(String login, String key) {
+        idempotencyKeyRepository.delete(login, key);
+    }
+
+    /**
+     * Delete the expired keys.
+     */
+    @Scheduled(fixedDelay = 3_600_000, initialDelay = 600_000)
+    @Transactional
+    public void purgeExpired() {
+        int deleted = idempotencyKeyRepository.deleteExpired(Instant.now());
+        LOG.debug("Deleted {} expired Idempotency-Keys", deleted);
+    }
+}
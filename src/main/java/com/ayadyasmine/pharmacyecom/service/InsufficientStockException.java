@@ -0,0 +1,10 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+public class InsufficientStockException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InsufficientStockException(String variantLabels) {
+        super("Stock épuisé pour : " + variantLabels);
+    }
+}
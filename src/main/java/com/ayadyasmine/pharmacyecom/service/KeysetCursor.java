@@ -0,0 +1,128 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import com.ayadyasmine.pharmacyecom.service.dto.CursorPage;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.metamodel.SingularAttribute;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Position in a keyset (seek) pagination: the sort property and direction, and the sort key and id of the last row returned.
+ * <p>
+ * Instead of skipping {@code page * size} rows, the next page is read with {@code (sortKey, id) > (lastKey, lastId)}, so any
+ * page costs the same as the first one and no count query is needed. The cursor travels to the client as an opaque
+ * URL-safe token.
+ */
+public record KeysetCursor(String property, Sort.Direction direction, String lastKey, Long lastId) {
+    private static final String ID = "id";
+
+    /**
+     * A property that can be used as the sort key of a keyset pagination. It must not be nullable.
+     */
+    public record Key<T, K extends Comparable<? super K>>(
+        SingularAttribute<? super T, K> attribute,
+        Function<String, K> parser,
+        Function<T, K> getter
+    ) {}
+
+    /**
+     * Start a pagination, sorted by the first order of the requested sort, or by id when unsorted.
+     *
+     * @throws IllegalArgumentException if the sort property is not one of the given keys.
+     */
+    public static KeysetCursor first(Sort sort, Map<String, ? extends Key<?, ?>> keys) {
+        Sort.Order order = sort.stream().findFirst().orElse(Sort.Order.asc(ID));
+        return new KeysetCursor(order.getProperty(), order.getDirection(), null, null).validate(keys);
+    }
+
+    /**
+     * Decode a token returned by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the token is malformed or its sort property is not one of the given keys.
+     */
+    public static KeysetCursor decode(String token, Map<String, ? extends Key<?, ?>> keys) {
+        String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(",", 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        KeysetCursor cursor = new KeysetCursor(parts[0], Sort.Direction.fromString(parts[1]), parts[3], Long.valueOf(parts[2]));
+        cursor.validate(keys);
+        try {
+            keys.get(cursor.property()).parser().apply(cursor.lastKey());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+        return cursor;
+    }
+
+    public String encode() {
+        String raw = property + "," + direction.name() + "," + lastId + "," + lastKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The sort of the pagination, with the id as tie-breaker in the same direction so a single {@code (key, id)} index serves it.
+     */
+    public Sort sort() {
+        Sort sort = Sort.by(direction, property);
+        return ID.equals(property) ? sort : sort.and(Sort.by(direction, ID));
+    }
+
+    /**
+     * Get the specification restricting the rows to those after this cursor, or {@code null} on the first page.
+     */
+    public <T> Specification<T> seek(Key<T, ?> key, SingularAttribute<? super T, Long> idAttribute) {
+        if (lastId == null) {
+            return null;
+        }
+        return seekAfter(key, idAttribute);
+    }
+
+    /**
+     * Get the page made of the first {@code size} rows, which must have been fetched with a limit of {@code size + 1}
+     * so that the extra row tells whether there is a next page.
+     */
+    public <T, D> CursorPage<D> page(List<T> rows, int size, Key<T, ?> key, Function<T, Long> id, Function<T, D> mapper) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows.stream().map(mapper).toList(), null);
+        }
+        List<T> content = rows.subList(0, size);
+        T last = content.get(size - 1);
+        KeysetCursor next = new KeysetCursor(property, direction, String.valueOf(key.getter().apply(last)), id.apply(last));
+        return new CursorPage<>(content.stream().map(mapper).toList(), next.encode());
+    }
+
+    private KeysetCursor validate(Map<String, ? extends Key<?, ?>> keys) {
+        if (!keys.containsKey(property)) {
+            throw new IllegalArgumentException("Unsupported cursor sort property: " + property);
+        }
+        return this;
+    }
+
+    private <T, K extends Comparable<? super K>> Specification<T> seekAfter(
+        Key<T, K> key,
+        SingularAttribute<? super T, Long> idAttribute
+    ) {
+        K last = key.parser().apply(lastKey);
+        boolean ascending = direction.isAscending();
+        return (root, query, cb) -> {
+            Path<Long> id = root.get(idAttribute);
+            Predicate idAfter = ascending ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId);
+            if (ID.equals(property)) {
+                return idAfter;
+            }
+            // (key, id) > (last, lastId), written as key >= last AND (key > last OR id > lastId):
+            // the criteria API has no row value comparison, and the first term bounds the index range scan
+            Path<K> path = root.get(key.attribute());
+            return ascending
+                ? cb.and(cb.greaterThanOrEqualTo(path, last), cb.or(cb.greaterThan(path, last), idAfter))
+                : cb.and(cb.lessThanOrEqualTo(path, last), cb.or(cb.lessThan(path, last), idAfter));
+        };
+    }
+}
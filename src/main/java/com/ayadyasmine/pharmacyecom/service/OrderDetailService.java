@@ -0,0 +1,127 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import com.ayadyasmine.pharmacyecom.domain.Customer;
+import com.ayadyasmine.pharmacyecom.domain.Order;
+import com.ayadyasmine.pharmacyecom.domain.OrderItem;
+import com.ayadyasmine.pharmacyecom.domain.OrderStatusHistory;
+import com.ayadyasmine.pharmacyecom.domain.User;
+import com.ayadyasmine.pharmacyecom.repository.OrderRepository;
+import com.ayadyasmine.pharmacyecom.service.dto.OrderDetailDTO;
+import com.ayadyasmine.pharmacyecom.service.dto.OrderStatusHistoryDTO;
+import java.util.Comparator;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service for the detail of an {@link Order} shown by the order screens of the back office.
+ * <p>
+ * The order, its customer, its lines with their products and variants, and its status history are read in a single
+ * query, and the result is cached in Hazelcast until the order, one of its lines or its status history is written.
+ */
+@Service
+@Transactional(readOnly = true)
+public class OrderDetailService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrderDetailService.class);
+
+    public static final String ORDER_DETAILS_CACHE = "orderDetails";
+
+    private final OrderRepository orderRepository;
+
+    private final CacheManager cacheManager;
+
+    public OrderDetailService(OrderRepository orderRepository, CacheManager cacheManager) {
+        this.orderRepository = orderRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Get the detail of an order.
+     *
+     * @param id the id of the order.
+     * @return the detail, or empty if the order does not exist.
+     */
+    @Cacheable(cacheNames = ORDER_DETAILS_CACHE, unless = "#result == null")
+    public Optional<OrderDetailDTO> findOne(Long id) {
+        LOG.debug("Request to get the detail of Order : {}", id);
+        return orderRepository.findOneWithDetailsById(id).map(OrderDetailService::toDto);
+    }
+
+    /**
+     * Drop the cached detail of an order once the transaction commits, so that no concurrent reader caches the detail
+     * as it was before.
+     *
+     * @param orderId the id of the order, or {@code null}.
+     */
+    public void evict(Long orderId) {
+        Cache cache = cacheManager.getCache(ORDER_DETAILS_CACHE);
+        if (orderId == null || cache == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        cache.evictIfPresent(orderId);
+                    }
+                }
+            );
+        } else {
+            cache.evictIfPresent(orderId);
+        }
+    }
+
+    private static OrderDetailDTO toDto(Order order) {
+        OrderDetailDTO dto = new OrderDetailDTO();
+        dto.setId(order.getId());
+        dto.setOrderDate(order.getOrderDate());
+        dto.setTotalPrice(order.getTotalPrice());
+        dto.setShippingFee(order.getShippingFee());
+        dto.setPaymentMethod(order.getPaymentMethod());
+        dto.setStatus(order.getStatus());
+        dto.setDeliveryAddress(order.getDeliveryAddress());
+        dto.setTrackingNumber(order.getTrackingNumber());
+        Customer customer = order.getCustomer();
+        if (customer != null) {
+            dto.setCustomerId(customer.getId());
+            dto.setCustomerPhone(customer.getPhone());
+            User user = customer.getUser();
+            if (user != null) {
+                dto.setCustomerLogin(user.getLogin());
+                dto.setCustomerFirstName(user.getFirstName());
+                dto.setCustomerLastName(user.getLastName());
+                dto.setCustomerEmail(user.getEmail());
+            }
+        }
+        dto.setItems(
+            order.getItems().stream().sorted(Comparator.comparing(OrderItem::getId)).map(OrderQueryService::toCustomerOrderItemDto).toList()
+        );
+        dto.setStatusHistories(
+            order
+                .getStatusHistories()
+                .stream()
+                .sorted(Comparator.comparing(OrderStatusHistory::getChangedAt).thenComparing(OrderStatusHistory::getId))
+                .map(OrderDetailService::toDto)
+                .toList()
+        );
+        return dto;
+    }
+
+    private static OrderStatusHistoryDTO toDto(OrderStatusHistory history) {
+        OrderStatusHistoryDTO dto = new OrderStatusHistoryDTO();
+        dto.setId(history.getId());
+        dto.setStatus(history.getStatus());
+        dto.setChangedAt(history.getChangedAt());
+        dto.setNotes(history.getNotes());
+        return dto;
+    }
+}
@@ -28,9 +28,16 @@ public class OrderItemService {
 
     private final OrderItemMapper orderItemMapper;
 
-    public OrderItemService(OrderItemRepository orderItemRepository, OrderItemMapper orderItemMapper) {
+    private final OrderDetailService orderDetailService;
+
+    public OrderItemService(
+        OrderItemRepository orderItemRepository,
+        OrderItemMapper orderItemMapper,
+        OrderDetailService orderDetailService
+    ) {
         this.orderItemRepository = orderItemRepository;
         this.orderItemMapper = orderItemMapper;
+        this.orderDetailService = orderDetailService;
     }
 
     /**
@@ -43,6 +50,7 @@ public class OrderItemService {
         LOG.debug("Request to save OrderItem : {}", orderItemDTO);
         OrderItem orderItem = orderItemMapper.toEntity(orderItemDTO);
         orderItem = orderItemRepository.save(orderItem);
+        evictOrderOf(orderItem);
         return orderItemMapper.toDto(orderItem);
     }
 
@@ -54,8 +62,11 @@ public class OrderItemService {
      */
     public OrderItemDTO update(OrderItemDTO orderItemDTO) {
         LOG.debug("Request to update OrderItem : {}", orderItemDTO);
+        // the item may be moved to another order: the previous one is evicted too
+        orderItemRepository.findById(orderItemDTO.getId()).ifPresent(this::evictOrderOf);
         OrderItem orderItem = orderItemMapper.toEntity(orderItemDTO);
         orderItem = orderItemRepository.save(orderItem);
+        evictOrderOf(orderItem);
         return orderItemMapper.toDto(orderItem);
     }
 
@@ -71,12 +82,16 @@ public class OrderItemService {
         return orderItemRepository
             .findById(orderItemDTO.getId())
             .map(existingOrderItem -> {
+                evictOrderOf(existingOrderItem);
                 orderItemMapper.partialUpdate(existingOrderItem, orderItemDTO);
 
                 return existingOrderItem;
             })
             .map(orderItemRepository::save)
-            .map(orderItemMapper::toDto);
+            .map(orderItem -> {
+                evictOrderOf(orderItem);
+                return orderItemMapper.toDto(orderItem);
+            });
     }
 
     /**
@@ -118,6 +133,13 @@ public class OrderItemService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete OrderItem : {}", id);
+        orderItemRepository.findById(id).ifPresent(this::evictOrderOf);
         orderItemRepository.deleteById(id);
     }
+
+    private void evictOrderOf(OrderItem orderItem) {
+        if (orderItem.getOrder() != null) {
+            orderDetailService.evict(orderItem.getOrder().getId());
+        }
+    }
 }
@@ -0,0 +1,69 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import com.ayadyasmine.pharmacyecom.domain.Order;
+import com.ayadyasmine.pharmacyecom.domain.OrderStatusHistory;
+import com.ayadyasmine.pharmacyecom.domain.OutboxEvent;
+import com.ayadyasmine.pharmacyecom.domain.enumeration.OrderStatus;
+import com.ayadyasmine.pharmacyecom.repository.OrderRepository;
+import com.ayadyasmine.pharmacyecom.repository.OrderStatusHistoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Handler of the event published by the checkout of an {@link Order}: records the creation of the order in its status
+ * history.
+ */
+@Service
+@Transactional
+public class OrderPlacedHandler implements OutboxEventHandler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrderPlacedHandler.class);
+
+    public static final String EVENT_TYPE = "order-placed";
+
+    private final OrderRepository orderRepository;
+
+    private final OrderStatusHistoryRepository orderStatusHistoryRepository;
+
+    private final OrderDetailService orderDetailService;
+
+    public OrderPlacedHandler(
+        OrderRepository orderRepository,
+        OrderStatusHistoryRepository orderStatusHistoryRepository,
+        OrderDetailService orderDetailService
+    ) {
+        this.orderRepository = orderRepository;
+        this.orderStatusHistoryRepository = orderStatusHistoryRepository;
+        this.orderDetailService = orderDetailService;
+    }
+
+    @Override
+    public String getEventType() {
+        return EVENT_TYPE;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        Long orderId = event.getAggregateId();
+        if (orderStatusHistoryRepository.existsByOrderIdAndStatus(orderId, OrderStatus.PENDING)) {
+            return;
+        }
+        // a deleted order has nothing left to record
+        orderRepository
+            .findById(orderId)
+            .ifPresentOrElse(
+                order -> {
+                    OrderStatusHistory history = new OrderStatusHistory();
+                    history.setOrder(order);
+                    history.setStatus(OrderStatus.PENDING);
+                    history.setChangedAt(order.getOrderDate());
+                    history.setNotes("Commande créée par le client");
+                    orderStatusHistoryRepository.save(history);
+                    orderDetailService.evict(orderId);
+                },
+                () -> LOG.debug("Order {} placed then deleted, no history recorded", orderId)
+            );
+    }
+}
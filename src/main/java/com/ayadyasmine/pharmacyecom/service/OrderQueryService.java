@@ -2,15 +2,28 @@ package com.ayadyasmine.pharmacyecom.service;
 
 import com.ayadyasmine.pharmacyecom.domain.*; // for static metamodels
 import com.ayadyasmine.pharmacyecom.domain.Order;
+import com.ayadyasmine.pharmacyecom.repository.OrderItemRepository;
 import com.ayadyasmine.pharmacyecom.repository.OrderRepository;
+import com.ayadyasmine.pharmacyecom.repository.OrderStatusHistoryRepository;
 import com.ayadyasmine.pharmacyecom.service.criteria.OrderCriteria;
+import com.ayadyasmine.pharmacyecom.service.dto.CursorPage;
+import com.ayadyasmine.pharmacyecom.service.dto.CustomerOrderDTO;
+import com.ayadyasmine.pharmacyecom.service.dto.CustomerOrderItemDTO;
 import com.ayadyasmine.pharmacyecom.service.dto.OrderDTO;
 import com.ayadyasmine.pharmacyecom.service.mapper.OrderMapper;
 import jakarta.persistence.criteria.JoinType;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,12 +41,42 @@ public class OrderQueryService extends QueryService<Order> {
 
     private static final Logger LOG = LoggerFactory.getLogger(OrderQueryService.class);
 
+    /**
+     * Sort properties accepted by the keyset pagination of {@link #findByCriteria(OrderCriteria, String, Pageable)}.
+     */
+    private static final Map<String, KeysetCursor.Key<Order, ?>> KEYSET_KEYS = Map.of(
+        "id",
+        new KeysetCursor.Key<>(Order_.id, Long::valueOf, Order::getId),
+        "orderDate",
+        new KeysetCursor.Key<>(Order_.orderDate, Instant::parse, Order::getOrderDate),
+        "totalPrice",
+        new KeysetCursor.Key<>(Order_.totalPrice, BigDecimal::new, Order::getTotalPrice)
+    );
+
+    /**
+     * The order history of a customer is only paginated by {@code orderDate}, most recent first by default.
+     */
+    private static final Map<String, KeysetCursor.Key<Order, ?>> CUSTOMER_KEYSET_KEYS = Map.of("orderDate", KEYSET_KEYS.get("orderDate"));
+
+    private static final Sort CUSTOMER_ORDERS_SORT = Sort.by(Sort.Direction.DESC, "orderDate");
+
     private final OrderRepository orderRepository;
 
+    private final OrderItemRepository orderItemRepository;
+
+    private final OrderStatusHistoryRepository orderStatusHistoryRepository;
+
     private final OrderMapper orderMapper;
 
-    public OrderQueryService(OrderRepository orderRepository, OrderMapper orderMapper) {
+    public OrderQueryService(
+        OrderRepository orderRepository,
+        OrderItemRepository orderItemRepository,
+        OrderStatusHistoryRepository orderStatusHistoryRepository,
+        OrderMapper orderMapper
+    ) {
         this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.orderStatusHistoryRepository = orderStatusHistoryRepository;
         this.orderMapper = orderMapper;
     }
 
@@ -50,6 +93,74 @@ public class OrderQueryService extends QueryService<Order> {
         return orderRepository.findAll(specification, page).map(orderMapper::toDto);
     }
 
+    /**
+     * Return a {@link CursorPage} of {@link OrderDTO} which matches the criteria from the database, using keyset pagination.
+     * No count query is run, and the page number of {@code page} is ignored.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The token of the page to return, or an empty string for the first page.
+     * @param page The page size and, for the first page, the sort, on {@code id}, {@code orderDate} or {@code totalPrice}.
+     * @return the matching entities.
+     * @throws IllegalArgumentException if the cursor is malformed or the sort is not supported.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<OrderDTO> findByCriteria(OrderCriteria criteria, String cursor, Pageable page) {
+        LOG.debug("find by criteria : {}, cursor: {}, page: {}", criteria, cursor, page);
+        final KeysetCursor keysetCursor = cursor.isEmpty()
+            ? KeysetCursor.first(page.getSort(), KEYSET_KEYS)
+            : KeysetCursor.decode(cursor, KEYSET_KEYS);
+        final KeysetCursor.Key<Order, ?> key = KEYSET_KEYS.get(keysetCursor.property());
+        final Specification<Order> specification = createSpecification(criteria).and(keysetCursor.seek(key, Order_.id));
+        final int size = page.getPageSize();
+        List<Order> orders = orderRepository.findBy(specification, query -> query.sortBy(keysetCursor.sort()).limit(size + 1).all());
+        return keysetCursor.page(orders, size, key, Order::getId, orderMapper::toDto);
+    }
+
+    /**
+     * Return a {@link CursorPage} of the orders of a customer, most recent first, each with its lines and the time of
+     * its latest status change, using keyset pagination.
+     * <p>
+     * The page is read in two phases: the orders of the page first, on their own so that the limit applies to orders
+     * rather than to joined rows, then the lines of these orders with their products and variants, and the latest
+     * status change, with a query each. The number of queries does not depend on the page size nor on the lines.
+     * @param login The login of the customer.
+     * @param cursor The token of the page to return, or an empty string for the first page.
+     * @param size The number of orders per page.
+     * @return the orders of the page.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CustomerOrderDTO> findByCustomer(String login, String cursor, int size) {
+        LOG.debug("find by customer : {}, cursor: {}, size: {}", login, cursor, size);
+        final KeysetCursor keysetCursor = cursor.isEmpty()
+            ? KeysetCursor.first(CUSTOMER_ORDERS_SORT, CUSTOMER_KEYSET_KEYS)
+            : KeysetCursor.decode(cursor, CUSTOMER_KEYSET_KEYS);
+        final KeysetCursor.Key<Order, ?> key = CUSTOMER_KEYSET_KEYS.get(keysetCursor.property());
+        final Specification<Order> specification = Specification.where(ofCustomer(login)).and(keysetCursor.seek(key, Order_.id));
+        List<Order> orders = orderRepository.findBy(specification, query -> query.sortBy(keysetCursor.sort()).limit(size + 1).all());
+        CursorPage<Order> page = keysetCursor.page(orders, size, key, Order::getId, Function.identity());
+        if (page.content().isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+
+        List<Long> orderIds = page.content().stream().map(Order::getId).toList();
+        Map<Long, List<CustomerOrderItemDTO>> items = new HashMap<>();
+        orderItemRepository
+            .findAllWithToOneRelationshipsByOrderIdIn(orderIds)
+            .forEach(item -> items.computeIfAbsent(item.getOrder().getId(), orderId -> new ArrayList<>()).add(toCustomerOrderItemDto(item)));
+        Map<Long, Instant> statusChangedAt = new HashMap<>();
+        orderStatusHistoryRepository
+            .findLatestChangeRowsByOrderIdIn(orderIds)
+            .forEach(row -> statusChangedAt.put((Long) row[0], (Instant) row[1]));
+        return new CursorPage<>(
+            page
+                .content()
+                .stream()
+                .map(order -> toCustomerOrderDto(order, items.getOrDefault(order.getId(), List.of()), statusChangedAt.get(order.getId())))
+                .toList(),
+            page.nextCursor()
+        );
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -62,6 +173,42 @@ public class OrderQueryService extends QueryService<Order> {
         return orderRepository.count(specification);
     }
 
+    private static Specification<Order> ofCustomer(String login) {
+        return (root, query, cb) -> cb.equal(root.join(Order_.customer).join(Customer_.user).get(User_.login), login);
+    }
+
+    private static CustomerOrderDTO toCustomerOrderDto(Order order, List<CustomerOrderItemDTO> items, Instant statusChangedAt) {
+        CustomerOrderDTO dto = new CustomerOrderDTO();
+        dto.setId(order.getId());
+        dto.setOrderDate(order.getOrderDate());
+        dto.setTotalPrice(order.getTotalPrice());
+        dto.setShippingFee(order.getShippingFee());
+        dto.setPaymentMethod(order.getPaymentMethod());
+        dto.setStatus(order.getStatus());
+        dto.setStatusChangedAt(statusChangedAt);
+        dto.setDeliveryAddress(order.getDeliveryAddress());
+        dto.setTrackingNumber(order.getTrackingNumber());
+        dto.setItems(items);
+        return dto;
+    }
+
+    static CustomerOrderItemDTO toCustomerOrderItemDto(OrderItem item) {
+        CustomerOrderItemDTO dto = new CustomerOrderItemDTO();
+        dto.setId(item.getId());
+        dto.setQuantity(item.getQuantity());
+        dto.setUnitPrice(item.getUnitPrice());
+        if (item.getProduct() != null) {
+            dto.setProductId(item.getProduct().getId());
+            dto.setProductName(item.getProduct().getName());
+            dto.setProductSlug(item.getProduct().getSlug());
+        }
+        if (item.getVariant() != null) {
+            dto.setVariantId(item.getVariant().getId());
+            dto.setVariantLabel(item.getVariant().getLabel());
+        }
+        return dto;
+    }
+
     /**
      * Function to convert {@link OrderCriteria} to a {@link Specification}
      * @param criteria The object which holds all the filters, which the entities should match.
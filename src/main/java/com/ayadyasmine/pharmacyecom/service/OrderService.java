@@ -2,6 +2,7 @@ package com.ayadyasmine.pharmacyecom.service;
 
 import com.ayadyasmine.pharmacyecom.domain.Cart;
 import com.ayadyasmine.pharmacyecom.domain.CartItem;
+import com.ayadyasmine.pharmacyecom.domain.Money;
 import com.ayadyasmine.pharmacyecom.domain.Order;
 import com.ayadyasmine.pharmacyecom.domain.OrderItem;
 import com.ayadyasmine.pharmacyecom.domain.OrderStatusHistory;
@@ -15,11 +16,24 @@ import com.ayadyasmine.pharmacyecom.repository.OrderRepository;
 import com.ayadyasmine.pharmacyecom.repository.OrderStatusHistoryRepository;
 import com.ayadyasmine.pharmacyecom.repository.ProductVariantRepository;
 import com.ayadyasmine.pharmacyecom.service.dto.OrderDTO;
+import com.ayadyasmine.pharmacyecom.service.dto.OrderTransitionResultDTO;
 import com.ayadyasmine.pharmacyecom.service.mapper.OrderMapper;
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -34,14 +48,23 @@ public class OrderService {
 
     private static final Logger LOG = LoggerFactory.getLogger(OrderService.class);
 
+    private static final Money FREE_SHIPPING_THRESHOLD = Money.ofMajor(10000);
+
+    private static final Money SHIPPING_FEE = Money.ofMajor(600);
+
     private final OrderRepository orderRepository;
     private final OrderMapper orderMapper;
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
     private final OrderItemRepository orderItemRepository;
     private final ProductVariantRepository productVariantRepository;
-    private final OrderStatusHistoryRepository orderStatusHistoryRepository;
+    private final OutboxService outboxService;
     private final PromotionService promotionService;
+    private final StockReservationService stockReservationService;
+    private final IdempotencyKeyService idempotencyKeyService;
+    private final HotStockService hotStockService;
+    private final OrderDetailService orderDetailService;
+    private final OrderStatusHistoryRepository orderStatusHistoryRepository;
 
     public OrderService(
         OrderRepository orderRepository,
@@ -50,8 +73,13 @@ public class OrderService {
         CartItemRepository cartItemRepository,
         OrderItemRepository orderItemRepository,
         ProductVariantRepository productVariantRepository,
-        OrderStatusHistoryRepository orderStatusHistoryRepository,
-        PromotionService promotionService
+        OutboxService outboxService,
+        PromotionService promotionService,
+        StockReservationService stockReservationService,
+        IdempotencyKeyService idempotencyKeyService,
+        HotStockService hotStockService,
+        OrderDetailService orderDetailService,
+        OrderStatusHistoryRepository orderStatusHistoryRepository
     ) {
         this.orderRepository = orderRepository;
         this.orderMapper = orderMapper;
@@ -59,8 +87,13 @@ public class OrderService {
         this.cartItemRepository = cartItemRepository;
         this.orderItemRepository = orderItemRepository;
         this.productVariantRepository = productVariantRepository;
-        this.orderStatusHistoryRepository = orderStatusHistoryRepository;
+        this.outboxService = outboxService;
         this.promotionService = promotionService;
+        this.stockReservationService = stockReservationService;
+        this.idempotencyKeyService = idempotencyKeyService;
+        this.hotStockService = hotStockService;
+        this.orderDetailService = orderDetailService;
+        this.orderStatusHistoryRepository = orderStatusHistoryRepository;
     }
 
     /**
@@ -86,6 +119,7 @@ public class OrderService {
         LOG.debug("Request to update Order : {}", orderDTO);
         Order order = orderMapper.toEntity(orderDTO);
         order = orderRepository.save(order);
+        orderDetailService.evict(order.getId());
         return orderMapper.toDto(order);
     }
 
@@ -106,7 +140,10 @@ public class OrderService {
                 return existingOrder;
             })
             .map(orderRepository::save)
-            .map(orderMapper::toDto);
+            .map(order -> {
+                orderDetailService.evict(order.getId());
+                return orderMapper.toDto(order);
+            });
     }
 
     /**
@@ -129,22 +166,256 @@ public class OrderService {
     public void delete(Long id) {
         LOG.debug("Request to delete Order : {}", id);
         orderRepository.deleteById(id);
+        orderDetailService.evict(id);
+    }
+
+    /**
+     * Move orders to a status, recording the change in their status history.
+     * <p>
+     * The orders are locked in ascending id order and checked against {@link OrderStatus#canTransitionTo}; the ones
+     * that may move are updated in a single statement, and their history rows inserted in JDBC batches. An order that
+     * does not exist or may not move is left unchanged, without failing the others.
+     *
+     * @param orderIds the ids of the orders; duplicates are ignored.
+     * @param status the new status.
+     * @param trackingNumbers the new tracking number per order id, for the orders that get one.
+     * @param notes the notes of the history rows, or {@code null}.
+     * @return the outcome of each order, in the order of the ids.
+     */
+    public List<OrderTransitionResultDTO> transition(
+        List<Long> orderIds,
+        OrderStatus status,
+        Map<Long, String> trackingNumbers,
+        String notes
+    ) {
+        LOG.debug("Request to move {} Orders to {}", orderIds.size(), status);
+        SortedSet<Long> ids = new TreeSet<>(orderIds);
+        Map<Long, OrderStatus> previousStatus = ids.isEmpty() ? Map.of() : orderRepository.lockStatus(ids);
+
+        List<OrderTransitionResultDTO> results = new ArrayList<>();
+        List<Long> transitioned = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(orderIds)) {
+            OrderStatus previous = previousStatus.get(id);
+            if (previous == null) {
+                results.add(OrderTransitionResultDTO.rejected(id, null, OrderTransitionResultDTO.ORDER_NOT_FOUND));
+            } else if (!previous.canTransitionTo(status)) {
+                results.add(OrderTransitionResultDTO.rejected(id, previous, OrderTransitionResultDTO.TRANSITION_INVALID));
+            } else {
+                results.add(OrderTransitionResultDTO.transitioned(id, previous, status));
+                transitioned.add(id);
+            }
+        }
+        if (transitioned.isEmpty()) {
+            return results;
+        }
+
+        orderRepository.updateStatus(transitioned, status, trackingNumbers);
+        Instant changedAt = Instant.now();
+        List<OrderStatusHistory> histories = new ArrayList<>();
+        for (Long id : transitioned) {
+            OrderStatusHistory history = new OrderStatusHistory();
+            history.setOrder(orderRepository.getReferenceById(id));
+            history.setStatus(status);
+            history.setChangedAt(changedAt);
+            history.setNotes(notes);
+            histories.add(history);
+            orderDetailService.evict(id);
+        }
+        orderStatusHistoryRepository.saveAll(histories);
+        return results;
     }
 
+    /**
+     * Turn the active cart of a customer into an order.
+     *
+     * <p>
+     * When an idempotency key is given, a checkout already made with it returns the same order, without touching the
+     * cart or the stock again, and a concurrent checkout with it waits for the first one to complete.
+     *
+     * @param login the login of the customer.
+     * @param idempotencyKey the key identifying the checkout across retries, or {@code null}.
+     * @param deliveryAddress the delivery address.
+     * @param paymentMethod the payment method.
+     * @return the created order.
+     * @throws InsufficientStockException if a variant of the cart has not enough stock left.
+     */
     @Transactional
-    public OrderDTO checkout(String login, String deliveryAddress, PaymentMethod paymentMethod) {
+    public OrderDTO checkout(String login, String idempotencyKey, String deliveryAddress, PaymentMethod paymentMethod) {
+        if (idempotencyKey != null) {
+            Optional<OrderDTO> previousOrder = findPreviousOrder(login, idempotencyKey);
+            if (previousOrder.isPresent()) {
+                return previousOrder.get();
+            }
+        }
+
         // 1. Récupérer le panier
-        Cart cart = cartRepository.findByCustomerUserLoginAndActiveTrue(login)
-            .orElseThrow(() -> new RuntimeException("Panier non trouvé"));
+        Cart cart = findActiveCart(login);
 
-        // 2. MODIFICATION ICI : Au lieu de cart.getItems(), on demande directement au Repository
-        List<CartItem> items = cartItemRepository.findByCart(cart);
+        // 2. Verrouiller les variantes par id croissant, puis charger articles, variantes et produits en une requête
+        productVariantRepository.lockByCartId(cart.getId());
+        List<CartItem> items = findItems(cart);
 
+        // 3. Créer la commande
+        SortedMap<Long, Integer> quantities = quantities(items);
+        Order order = buildOrder(cart, items, deliveryAddress, paymentMethod, discountedPrices(items));
+
+        // Déduire le stock : vérification et décrément atomiques, annulés avec la transaction si une ligne manque de stock
+        List<Long> outOfStock = hotStockService.decrementStock(quantities);
+        if (!outOfStock.isEmpty()) {
+            throw insufficientStock(items, outOfStock);
+        }
+
+        return placeOrders(List.of(new PlacedOrder(login, idempotencyKey, cart, order, quantities))).get(0);
+    }
+
+    /**
+     * Turn the active carts of several customers into orders, in a single transaction, for the group commit of
+     * {@link CheckoutQueueService}.
+     * <p>
+     * The variants of all the carts are locked at once, in ascending id order, and their stock is allocated in memory
+     * in the order of the requests: a cart short of stock is rejected without affecting the others. The stock of the
+     * accepted carts is then taken in a single batch of updates, and their orders inserted together.
+     *
+     * @param requests the checkouts, each of a distinct login.
+     * @return the outcome of each request, in the order of the requests.
+     */
+    @Transactional
+    public List<CheckoutOutcome> checkoutBatch(List<CheckoutRequest> requests) {
+        CheckoutOutcome[] outcomes = new CheckoutOutcome[requests.size()];
+        Map<Integer, Cart> carts = new LinkedHashMap<>();
+        Map<Integer, List<CartItem>> itemsByRequest = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CheckoutRequest request = requests.get(i);
+            try {
+                if (request.idempotencyKey() != null) {
+                    Optional<OrderDTO> previousOrder = findPreviousOrder(request.login(), request.idempotencyKey());
+                    if (previousOrder.isPresent()) {
+                        outcomes[i] = CheckoutOutcome.placed(previousOrder.get());
+                        continue;
+                    }
+                }
+                Cart cart = findActiveCart(request.login());
+                itemsByRequest.put(i, findItems(cart));
+                carts.put(i, cart);
+            } catch (RuntimeException e) {
+                outcomes[i] = reject(request, e);
+            }
+        }
+
+        // Verrouiller toutes les variantes du lot par id croissant, puis répartir le stock dans l'ordre des demandes
+        SortedSet<Long> variantIds = new TreeSet<>();
+        itemsByRequest.values().forEach(items -> items.forEach(item -> variantIds.add(item.getVariant().getId())));
+        Map<Long, Integer> remaining = variantIds.isEmpty() ? new HashMap<>() : productVariantRepository.lockStock(variantIds);
+        remaining.putAll(hotStockService.getStock(variantIds));
+        Map<Long, BigDecimal> discountedPrices = discountedPrices(
+            itemsByRequest.values().stream().flatMap(List::stream).toList()
+        );
+        SortedMap<Long, Integer> totalQuantities = new TreeMap<>();
+        List<Integer> accepted = new ArrayList<>();
+        List<PlacedOrder> placed = new ArrayList<>();
+        for (Map.Entry<Integer, Cart> entry : carts.entrySet()) {
+            int i = entry.getKey();
+            CheckoutRequest request = requests.get(i);
+            List<CartItem> items = itemsByRequest.get(i);
+            SortedMap<Long, Integer> quantities = quantities(items);
+            List<Long> outOfStock = quantities
+                .entrySet()
+                .stream()
+                .filter(line -> remaining.getOrDefault(line.getKey(), 0) < line.getValue())
+                .map(Map.Entry::getKey)
+                .toList();
+            if (!outOfStock.isEmpty()) {
+                outcomes[i] = reject(request, insufficientStock(items, outOfStock));
+                continue;
+            }
+            quantities.forEach((variantId, quantity) -> {
+                remaining.merge(variantId, -quantity, Integer::sum);
+                totalQuantities.merge(variantId, quantity, Integer::sum);
+            });
+            accepted.add(i);
+            placed.add(
+                new PlacedOrder(
+                    request.login(),
+                    request.idempotencyKey(),
+                    entry.getValue(),
+                    buildOrder(entry.getValue(), items, request.deliveryAddress(), request.paymentMethod(), discountedPrices),
+                    quantities
+                )
+            );
+        }
+
+        if (!placed.isEmpty()) {
+            // les lignes sont verrouillées, mais pas les compteurs des variantes chaudes : un manque de stock ici annule
+            // tout le lot, que la file repasse une commande à la fois
+            List<Long> outOfStock = hotStockService.decrementStock(totalQuantities);
+            if (!outOfStock.isEmpty()) {
+                throw new IllegalStateException("Stock of the batch variants changed: " + outOfStock);
+            }
+            List<OrderDTO> orders = placeOrders(placed);
+            for (int j = 0; j < accepted.size(); j++) {
+                outcomes[accepted.get(j)] = CheckoutOutcome.placed(orders.get(j));
+            }
+        }
+        return Arrays.asList(outcomes);
+    }
+
+    private Optional<OrderDTO> findPreviousOrder(String login, String idempotencyKey) {
+        return idempotencyKeyService
+            .claim(login, idempotencyKey)
+            .map(previousOrderId -> orderRepository.findById(previousOrderId).map(orderMapper::toDto).orElseThrow());
+    }
+
+    private Cart findActiveCart(String login) {
+        return cartRepository.findByCustomerUserLoginAndActiveTrue(login).orElseThrow(() -> new RuntimeException("Panier non trouvé"));
+    }
+
+    private List<CartItem> findItems(Cart cart) {
+        List<CartItem> items = cartItemRepository.findByCartIdForCheckout(cart.getId());
         if (items.isEmpty()) {
             throw new RuntimeException("Le panier est vide");
         }
+        return items;
+    }
 
-        // 3. Créer la commande
+    private Map<Long, BigDecimal> discountedPrices(List<CartItem> items) {
+        return promotionService.getDiscountedPrices(items.stream().map(CartItem::getProduct).filter(Objects::nonNull).distinct().toList());
+    }
+
+    private static SortedMap<Long, Integer> quantities(List<CartItem> items) {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        items.forEach(item -> quantities.merge(item.getVariant().getId(), item.getQuantity(), Integer::sum));
+        return quantities;
+    }
+
+    private static InsufficientStockException insufficientStock(List<CartItem> items, List<Long> outOfStock) {
+        return new InsufficientStockException(
+            items
+                .stream()
+                .map(CartItem::getVariant)
+                .filter(variant -> outOfStock.contains(variant.getId()))
+                .map(ProductVariant::getLabel)
+                .distinct()
+                .collect(Collectors.joining(", "))
+        );
+    }
+
+    /**
+     * Reject a request of a batch, releasing its idempotency key, as the batch commits without its order.
+     */
+    private CheckoutOutcome reject(CheckoutRequest request, RuntimeException e) {
+        if (request.idempotencyKey() != null) {
+            idempotencyKeyService.release(request.login(), request.idempotencyKey());
+        }
+        return CheckoutOutcome.failed(e);
+    }
+
+    private Order buildOrder(
+        Cart cart,
+        List<CartItem> items,
+        String deliveryAddress,
+        PaymentMethod paymentMethod,
+        Map<Long, BigDecimal> discountedPrices
+    ) {
         Order order = new Order();
         order.setCustomer(cart.getCustomer());
         order.setOrderDate(Instant.now());
@@ -152,56 +423,75 @@ public class OrderService {
         order.setPaymentMethod(paymentMethod);
         order.setDeliveryAddress(deliveryAddress);
 
-        BigDecimal total = BigDecimal.ZERO;
+        Money total = Money.ZERO;
 
-        // 4. Transformer les CartItems en OrderItems + Maj Stock
+        // 4. Transformer les CartItems en OrderItems
         for (CartItem item : items) {
-            ProductVariant variant = item.getVariant();
-
-            // Vérification ultime du stock avant de figer la commande
-            if (variant.getStock() < item.getQuantity()) {
-                throw new RuntimeException("Stock épuisé pour : " + variant.getLabel());
-            }
-
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
-            orderItem.setVariant(variant);
+            orderItem.setVariant(item.getVariant());
             orderItem.setProduct(item.getProduct());
             orderItem.setQuantity(item.getQuantity());
 
             // Get the discounted price for the product (using the main product, not the variant)
-            BigDecimal currentPrice = promotionService.getDiscountedPrice(item.getProduct());
+            BigDecimal currentPrice = discountedPrices.get(item.getProduct().getId());
             orderItem.setUnitPrice(currentPrice); // ON FIGE LE PRIX ICI
 
-            total = total.add(currentPrice.multiply(new BigDecimal(item.getQuantity())));
-
-            // Déduire le stock
-            variant.setStock(variant.getStock() - item.getQuantity());
-            productVariantRepository.save(variant);
+            total = total.plus(Money.of(currentPrice).times(item.getQuantity()));
 
             order.addItems(orderItem); // Méthode générée par JHipster
         }
 
-        order.setTotalPrice(total);
+        order.setTotalPrice(total.toBigDecimal());
         // Simulation frais de port (Exemple: 600 DA fixe ou gratuit si > 10.000 DA)
-        order.setShippingFee(total.compareTo(new BigDecimal(10000)) > 0 ? BigDecimal.ZERO : new BigDecimal(600));
+        order.setShippingFee((total.isGreaterThan(FREE_SHIPPING_THRESHOLD) ? Money.ZERO : SHIPPING_FEE).toBigDecimal());
+        return order;
+    }
 
-        // 5. Sauvegarder la commande
-        Order savedOrder = orderRepository.save(order);
+    /**
+     * Save orders whose stock was taken, and close their carts.
+     *
+     * @return the saved orders, in the same order.
+     */
+    private List<OrderDTO> placeOrders(List<PlacedOrder> placed) {
+        placed.forEach(placedOrder -> stockReservationService.convertHolds(placedOrder.cart().getId(), placedOrder.quantities()));
 
-        // 6. Créer l'historique
-        OrderStatusHistory history = new OrderStatusHistory();
-        history.setOrder(savedOrder);
-        history.setStatus(OrderStatus.PENDING);
-        history.setChangedAt(Instant.now());
-        history.setNotes("Commande créée par le client");
-        orderStatusHistoryRepository.save(history);
+        // 5. Sauvegarder les commandes
+        List<Order> orders = orderRepository.saveAll(placed.stream().map(PlacedOrder::order).toList());
+        orderItemRepository.saveAll(orders.stream().flatMap(order -> order.getItems().stream()).toList());
 
-        // 7. Désactiver le panier
-        cart.setActive(false);
-        cartRepository.save(cart);
+        for (PlacedOrder placedOrder : placed) {
+            // 6. L'historique est écrit après le commit, par OrderPlacedHandler
+            outboxService.publish(OrderPlacedHandler.EVENT_TYPE, placedOrder.order().getId(), null);
+            if (placedOrder.idempotencyKey() != null) {
+                idempotencyKeyService.complete(placedOrder.login(), placedOrder.idempotencyKey(), placedOrder.order().getId());
+            }
+            // 7. Désactiver le panier
+            placedOrder.cart().setActive(false);
+        }
+        cartRepository.saveAll(placed.stream().map(PlacedOrder::cart).toList());
 
         // Convertir en DTO et retourner
-        return orderMapper.toDto(savedOrder);
+        return orders.stream().map(orderMapper::toDto).toList();
     }
+
+    /**
+     * A checkout queued for {@link #checkoutBatch}.
+     */
+    public record CheckoutRequest(String login, String idempotencyKey, String deliveryAddress, PaymentMethod paymentMethod) {}
+
+    /**
+     * The outcome of a checkout of a batch: the order placed, or the error that rejected it.
+     */
+    public record CheckoutOutcome(OrderDTO order, RuntimeException error) {
+        static CheckoutOutcome placed(OrderDTO order) {
+            return new CheckoutOutcome(order, null);
+        }
+
+        static CheckoutOutcome failed(RuntimeException error) {
+            return new CheckoutOutcome(null, error);
+        }
+    }
+
+    private record PlacedOrder(String login, String idempotencyKey, Cart cart, Order order, SortedMap<Long, Integer> quantities) {}
 }
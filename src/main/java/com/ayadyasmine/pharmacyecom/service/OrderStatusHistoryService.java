@@ -26,12 +26,16 @@ public class OrderStatusHistoryService {
 
     private final OrderStatusHistoryMapper orderStatusHistoryMapper;
 
+    private final OrderDetailService orderDetailService;
+
     public OrderStatusHistoryService(
         OrderStatusHistoryRepository orderStatusHistoryRepository,
-        OrderStatusHistoryMapper orderStatusHistoryMapper
+        OrderStatusHistoryMapper orderStatusHistoryMapper,
+        OrderDetailService orderDetailService
     ) {
         this.orderStatusHistoryRepository = orderStatusHistoryRepository;
         this.orderStatusHistoryMapper = orderStatusHistoryMapper;
+        this.orderDetailService = orderDetailService;
     }
 
     /**
@@ -44,6 +48,7 @@ public class OrderStatusHistoryService {
         LOG.debug("Request to save OrderStatusHistory : {}", orderStatusHistoryDTO);
         OrderStatusHistory orderStatusHistory = orderStatusHistoryMapper.toEntity(orderStatusHistoryDTO);
         orderStatusHistory = orderStatusHistoryRepository.save(orderStatusHistory);
+        evictOrderOf(orderStatusHistory);
         return orderStatusHistoryMapper.toDto(orderStatusHistory);
     }
 
@@ -55,8 +60,11 @@ public class OrderStatusHistoryService {
      */
     public OrderStatusHistoryDTO update(OrderStatusHistoryDTO orderStatusHistoryDTO) {
         LOG.debug("Request to update OrderStatusHistory : {}", orderStatusHistoryDTO);
+        // the entry may be moved to another order: the previous one is evicted too
+        orderStatusHistoryRepository.findById(orderStatusHistoryDTO.getId()).ifPresent(this::evictOrderOf);
         OrderStatusHistory orderStatusHistory = orderStatusHistoryMapper.toEntity(orderStatusHistoryDTO);
         orderStatusHistory = orderStatusHistoryRepository.save(orderStatusHistory);
+        evictOrderOf(orderStatusHistory);
         return orderStatusHistoryMapper.toDto(orderStatusHistory);
     }
 
@@ -72,12 +80,16 @@ public class OrderStatusHistoryService {
         return orderStatusHistoryRepository
             .findById(orderStatusHistoryDTO.getId())
             .map(existingOrderStatusHistory -> {
+                evictOrderOf(existingOrderStatusHistory);
                 orderStatusHistoryMapper.partialUpdate(existingOrderStatusHistory, orderStatusHistoryDTO);
 
                 return existingOrderStatusHistory;
             })
             .map(orderStatusHistoryRepository::save)
-            .map(orderStatusHistoryMapper::toDto);
+            .map(orderStatusHistory -> {
+                evictOrderOf(orderStatusHistory);
+                return orderStatusHistoryMapper.toDto(orderStatusHistory);
+            });
     }
 
     /**
@@ -114,6 +126,13 @@ public class OrderStatusHistoryService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete OrderStatusHistory : {}", id);
+        orderStatusHistoryRepository.findById(id).ifPresent(this::evictOrderOf);
         orderStatusHistoryRepository.deleteById(id);
     }
+
+    private void evictOrderOf(OrderStatusHistory orderStatusHistory) {
+        if (orderStatusHistory.getOrder() != null) {
+            orderDetailService.evict(orderStatusHistory.getOrder().getId());
+        }
+    }
 }
@@ -0,0 +1,23 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import com.ayadyasmine.pharmacyecom.domain.OutboxEvent;
+
+/**
+ * Handler of the {@link OutboxEvent}s of a type, run by {@link OutboxService} after the transaction that wrote them.
+ * <p>
+ * An event is handled at least once: it is retried when a handler fails, and may be handled again if the node
+ * crashes before recording it as done, so handlers must be idempotent.
+ */
+public interface OutboxEventHandler {
+    /**
+     * Get the type of the events handled.
+     */
+    String getEventType();
+
+    /**
+     * Handle an event, in the transaction that deletes it.
+     *
+     * @param event the event.
+     */
+    void handle(OutboxEvent event);
+}
@@ -0,0 +1,180 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import com.ayadyasmine.pharmacyecom.domain.OutboxEvent;
+import com.ayadyasmine.pharmacyecom.repository.OutboxEventRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for the transactional outbox: side effects of a business change are written as {@link OutboxEvent}s in its
+ * transaction, so that they cost an insert to the customer-facing request, and are handled once it commits.
+ * <p>
+ * A commit wakes the dispatcher up on the async executor, and a scheduled poll picks up the events left behind. The
+ * dispatcher claims due events in batches with {@code SKIP LOCKED}, leasing them for a while so that concurrent
+ * dispatchers, on this node or others, never handle the same event at the same time. Each event is then handled in its
+ * own transaction, which deletes it; a failed event is retried with an exponential backoff, a limited number of times.
+ */
+@Service
+public class OutboxService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OutboxService.class);
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final int MAX_ATTEMPTS = 10;
+
+    /**
+     * A claimed event not handled within this time, because its node crashed, is due again.
+     */
+    private static final Duration LEASE = Duration.ofMinutes(5);
+
+    private static final Duration FIRST_RETRY_DELAY = Duration.ofSeconds(10);
+
+    private static final Duration MAX_RETRY_DELAY = Duration.ofHours(1);
+
+    private static final int LAST_ERROR_MAX_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final Map<String, OutboxEventHandler> handlers;
+
+    private final Executor taskExecutor;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean dispatchRequested = new AtomicBoolean();
+
+    public OutboxService(
+        OutboxEventRepository outboxEventRepository,
+        List<OutboxEventHandler> handlers,
+        @Qualifier("taskExecutor") Executor taskExecutor,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.handlers = handlers.stream().collect(Collectors.toMap(OutboxEventHandler::getEventType, Function.identity()));
+        this.taskExecutor = taskExecutor;
+        // the dispatch may run from a completed transaction's callbacks, where it must not join that transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Write an event in the current transaction, to be handled once it commits.
+     *
+     * @param eventType the type of the event.
+     * @param aggregateId the id of the entity the event is about.
+     * @param payload the data of the event, if the handlers need more than the id.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String eventType, Long aggregateId, String payload) {
+        Instant now = Instant.now();
+        outboxEventRepository.save(
+            new OutboxEvent()
+                .eventType(eventType)
+                .aggregateId(aggregateId)
+                .payload(payload)
+                .createdAt(now)
+                .attempts(0)
+                .nextAttemptAt(now)
+        );
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    requestDispatch();
+                }
+            }
+        );
+    }
+
+    /**
+     * Dispatch the due events on the async executor, unless a dispatch is already waiting to start.
+     */
+    void requestDispatch() {
+        if (dispatchRequested.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> {
+                dispatchRequested.set(false);
+                dispatch();
+            });
+        }
+    }
+
+    /**
+     * Pick up the events whose dispatch was missed or that are due for a retry.
+     */
+    @Scheduled(fixedDelay = 10_000, initialDelay = 10_000)
+    public void poll() {
+        dispatch();
+    }
+
+    /**
+     * Handle the due events, one claimed batch after the other.
+     */
+    public void dispatch() {
+        List<Long> claimed;
+        do {
+            claimed = transactionTemplate.execute(status -> claimBatch());
+            claimed.forEach(this::handle);
+        } while (claimed.size() == BATCH_SIZE);
+    }
+
+    private List<Long> claimBatch() {
+        Instant now = Instant.now();
+        List<OutboxEvent> events = outboxEventRepository.findDueForUpdate(now, PageRequest.of(0, BATCH_SIZE));
+        events.forEach(event -> event.setNextAttemptAt(now.plus(LEASE)));
+        return events.stream().map(OutboxEvent::getId).toList();
+    }
+
+    private void handle(Long eventId) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository
+                    .findById(eventId)
+                    .ifPresent(event -> {
+                        OutboxEventHandler handler = handlers.get(event.getEventType());
+                        if (handler == null) {
+                            throw new IllegalStateException("No handler for outbox event type " + event.getEventType());
+                        }
+                        handler.handle(event);
+                        outboxEventRepository.delete(event);
+                    })
+            );
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.findById(eventId).ifPresent(event -> fail(event, e)));
+        }
+    }
+
+    private void fail(OutboxEvent event, RuntimeException e) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(StringUtils.abbreviate(e.toString(), LAST_ERROR_MAX_LENGTH));
+        if (attempts >= MAX_ATTEMPTS) {
+            event.setNextAttemptAt(null);
+            LOG.error("Giving up on outbox event {} after {} attempts", event, attempts, e);
+            return;
+        }
+        Duration delay = FIRST_RETRY_DELAY.multipliedBy(1L << (attempts - 1));
+        event.setNextAttemptAt(Instant.now().plus(delay.compareTo(MAX_RETRY_DELAY) < 0 ? delay : MAX_RETRY_DELAY));
+        LOG.warn("Outbox event {} failed, attempt {}: {}", event.getId(), attempts, e.toString());
+    }
+}
@@ -0,0 +1,114 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import com.ayadyasmine.pharmacyecom.config.ApplicationProperties;
+import com.ayadyasmine.pharmacyecom.service.criteria.ProductCriteria;
+import com.ayadyasmine.pharmacyecom.service.dto.ProductDTO;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hazelcast cache of the results of {@link ProductQueryService#findByCriteria(ProductCriteria, Pageable)} and
+ * {@link ProductQueryService#countByCriteria(ProductCriteria)}, shared by all the nodes.
+ * <p>
+ * Entries are keyed by the {@link CatalogVersion} and a canonical form of the criteria and page request:
+ * {@link ProductCriteria#toString()} lists the set filters in a fixed order, so equivalent requests share an entry
+ * whatever the order of their query parameters. A catalog write bumps the version, which invalidates every entry.
+ */
+@Component
+public class ProductQueryCache {
+
+    public static final String REQUESTS_METER_NAME = "catalog.query.cache.requests";
+    public static final String REQUESTS_METER_DESCRIPTION = "Indicates the lookups of the catalog query result cache.";
+    public static final String REQUESTS_METER_RESULT_DIMENSION = "result";
+
+    public static final String MAP_NAME = "product-query-results";
+
+    private final IMap<String, Serializable> results;
+
+    private final CatalogVersion catalogVersion;
+
+    private final ApplicationProperties.CatalogQueryCache properties;
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    public ProductQueryCache(
+        HazelcastInstance hazelcastInstance,
+        CatalogVersion catalogVersion,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.results = hazelcastInstance.getMap(MAP_NAME);
+        this.catalogVersion = catalogVersion;
+        this.properties = applicationProperties.getCatalogQueryCache();
+        this.hitCounter = requestsCounterForResultBuilder("hit").register(registry);
+        this.missCounter = requestsCounterForResultBuilder("miss").register(registry);
+    }
+
+    private Counter.Builder requestsCounterForResultBuilder(String result) {
+        return Counter.builder(REQUESTS_METER_NAME)
+            .description(REQUESTS_METER_DESCRIPTION)
+            .tag(REQUESTS_METER_RESULT_DIMENSION, result);
+    }
+
+    /**
+     * Get a page of products from the cache, or compute and cache it.
+     */
+    public Page<ProductDTO> page(ProductCriteria criteria, Pageable page, Supplier<Page<ProductDTO>> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get();
+        }
+        String key = key("page", criteria) + "|" + page.getPageNumber() + ":" + page.getPageSize() + ":" + page.getSort();
+        CachedPage cached = (CachedPage) results.get(key);
+        if (cached != null) {
+            hitCounter.increment();
+            return new PageImpl<>(cached.content(), page, cached.total());
+        }
+        missCounter.increment();
+        Page<ProductDTO> result = loader.get();
+        results.set(
+            key,
+            new CachedPage(new ArrayList<>(result.getContent()), result.getTotalElements()),
+            properties.getTimeToLiveSeconds(),
+            TimeUnit.SECONDS
+        );
+        return result;
+    }
+
+    /**
+     * Get a count of products from the cache, or compute and cache it.
+     */
+    public long count(ProductCriteria criteria, Supplier<Long> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get();
+        }
+        String key = key("count", criteria);
+        Long cached = (Long) results.get(key);
+        if (cached != null) {
+            hitCounter.increment();
+            return cached;
+        }
+        missCounter.increment();
+        Long result = loader.get();
+        results.set(key, result, properties.getTimeToLiveSeconds(), TimeUnit.SECONDS);
+        return result;
+    }
+
+    private String key(String kind, ProductCriteria criteria) {
+        return catalogVersion.current() + "|" + kind + "|" + (criteria == null ? "" : criteria.toString());
+    }
+
+    private record CachedPage(List<ProductDTO> content, long total) implements Serializable {}
+}
@@ -3,10 +3,19 @@ package com.ayadyasmine.pharmacyecom.service;
 import com.ayadyasmine.pharmacyecom.domain.*; // for static metamodels
 import com.ayadyasmine.pharmacyecom.domain.Product;
 import com.ayadyasmine.pharmacyecom.repository.ProductRepository;
+import com.ayadyasmine.pharmacyecom.repository.ProductRepository.ProductContent;
+import com.ayadyasmine.pharmacyecom.repository.ProductRepositoryWithSummaries;
 import com.ayadyasmine.pharmacyecom.service.criteria.ProductCriteria;
+import com.ayadyasmine.pharmacyecom.service.dto.CursorPage;
 import com.ayadyasmine.pharmacyecom.service.dto.ProductDTO;
+import com.ayadyasmine.pharmacyecom.service.dto.ProductFacetsDTO;
+import com.ayadyasmine.pharmacyecom.service.dto.ProductSummaryDTO;
 import com.ayadyasmine.pharmacyecom.service.mapper.ProductMapper;
+import jakarta.persistence.Tuple;
 import jakarta.persistence.criteria.JoinType;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -28,17 +37,43 @@ public class ProductQueryService extends QueryService<Product> {
 
     private static final Logger LOG = LoggerFactory.getLogger(ProductQueryService.class);
 
+    /**
+     * Upper bounds, in DZD, of the price buckets of {@link #facets(ProductCriteria)}; the last bucket is unbounded.
+     */
+    private static final List<BigDecimal> PRICE_BUCKET_BOUNDS = List.of(
+        new BigDecimal(500),
+        new BigDecimal(1000),
+        new BigDecimal(2000),
+        new BigDecimal(5000)
+    );
+
+    /**
+     * Sort properties accepted by the keyset pagination of {@link #findByCriteria(ProductCriteria, String, Pageable)}.
+     */
+    private static final Map<String, KeysetCursor.Key<Product, ?>> KEYSET_KEYS = Map.of(
+        "id",
+        new KeysetCursor.Key<>(Product_.id, Long::valueOf, Product::getId),
+        "name",
+        new KeysetCursor.Key<>(Product_.name, value -> value, Product::getName),
+        "price",
+        new KeysetCursor.Key<>(Product_.price, BigDecimal::new, Product::getPrice)
+    );
+
     private final ProductRepository productRepository;
 
     private final ProductMapper productMapper;
 
-    public ProductQueryService(ProductRepository productRepository, ProductMapper productMapper) {
+    private final ProductQueryCache productQueryCache;
+
+    public ProductQueryService(ProductRepository productRepository, ProductMapper productMapper, ProductQueryCache productQueryCache) {
         this.productRepository = productRepository;
         this.productMapper = productMapper;
+        this.productQueryCache = productQueryCache;
     }
 
     /**
      * Return a {@link Page} of {@link ProductDTO} which matches the criteria from the database.
+     * Results are served from the {@link ProductQueryCache} while the catalog is unchanged.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
      * @return the matching entities.
@@ -46,20 +81,127 @@ public class ProductQueryService extends QueryService<Product> {
     @Transactional(readOnly = true)
     public Page<ProductDTO> findByCriteria(ProductCriteria criteria, Pageable page) {
         LOG.debug("find by criteria : {}, page: {}", criteria, page);
+        return productQueryCache.page(criteria, page, () -> {
+            final Specification<Product> specification = createSpecification(criteria);
+            Page<ProductDTO> result = productRepository.findAll(specification, page).map(productMapper::toDtoWithoutContent);
+            setContents(result.getContent());
+            return result;
+        });
+    }
+
+    /**
+     * Return a {@link Page} of {@link ProductSummaryDTO} which matches the criteria from the database.
+     * Only the columns shown on a listing grid are selected.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<ProductSummaryDTO> findSummariesByCriteria(ProductCriteria criteria, Pageable page) {
+        LOG.debug("find summaries by criteria : {}, page: {}", criteria, page);
         final Specification<Product> specification = createSpecification(criteria);
-        return productRepository.findAll(specification, page).map(productMapper::toDto);
+        return productRepository.findSummaryRows(specification, page).map(ProductQueryService::toSummaryDto);
+    }
+
+    /**
+     * Return a {@link CursorPage} of {@link ProductDTO} which matches the criteria from the database, using keyset pagination.
+     * No count query is run, and the page number of {@code page} is ignored.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The token of the page to return, or an empty string for the first page.
+     * @param page The page size and, for the first page, the sort, on {@code id}, {@code name} or {@code price}.
+     * @return the matching entities.
+     * @throws IllegalArgumentException if the cursor is malformed or the sort is not supported.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProductDTO> findByCriteria(ProductCriteria criteria, String cursor, Pageable page) {
+        LOG.debug("find by criteria : {}, cursor: {}, page: {}", criteria, cursor, page);
+        final KeysetCursor keysetCursor = cursor.isEmpty()
+            ? KeysetCursor.first(page.getSort(), KEYSET_KEYS)
+            : KeysetCursor.decode(cursor, KEYSET_KEYS);
+        final KeysetCursor.Key<Product, ?> key = KEYSET_KEYS.get(keysetCursor.property());
+        final Specification<Product> specification = createSpecification(criteria).and(keysetCursor.seek(key, Product_.id));
+        final int size = page.getPageSize();
+        List<Product> products = productRepository.findBy(specification, query ->
+            query.sortBy(keysetCursor.sort()).limit(size + 1).all()
+        );
+        CursorPage<ProductDTO> result = keysetCursor.page(products, size, key, Product::getId, productMapper::toDtoWithoutContent);
+        setContents(result.content());
+        return result;
     }
 
     /**
      * Return the number of matching entities in the database.
+     * Results are served from the {@link ProductQueryCache} while the catalog is unchanged.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the number of matching entities.
      */
     @Transactional(readOnly = true)
     public long countByCriteria(ProductCriteria criteria) {
         LOG.debug("count by criteria : {}", criteria);
+        return productQueryCache.count(criteria, () -> {
+            final Specification<Product> specification = createSpecification(criteria);
+            return productRepository.count(specification);
+        });
+    }
+
+    /**
+     * Return the category, brand, price bucket and stock counts of the matching entities, computed by a single grouped query.
+     * Prices are bucketed on the effective (discounted) price.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the facet counts.
+     */
+    @Transactional(readOnly = true)
+    public ProductFacetsDTO facets(ProductCriteria criteria) {
+        LOG.debug("facets by criteria : {}", criteria);
         final Specification<Product> specification = createSpecification(criteria);
-        return productRepository.count(specification);
+        ProductFacetsDTO facets = new ProductFacetsDTO();
+        long[] bucketCounts = new long[PRICE_BUCKET_BOUNDS.size() + 1];
+        for (Object[] row : productRepository.countFacets(specification, PRICE_BUCKET_BOUNDS)) {
+            long count = ((Number) row[2]).longValue();
+            facets.setTotal(facets.getTotal() + count);
+            if (row[0] != null) {
+                facets.getCategories().merge((Long) row[0], count, Long::sum);
+            }
+            if (row[1] != null) {
+                facets.getBrands().merge((Long) row[1], count, Long::sum);
+            }
+            facets.setInStock(facets.getInStock() + ((Number) row[3]).longValue());
+            for (int i = 0; i < bucketCounts.length; i++) {
+                bucketCounts[i] += ((Number) row[4 + i]).longValue();
+            }
+        }
+        facets.setOutOfStock(facets.getTotal() - facets.getInStock());
+        for (int i = 0; i < bucketCounts.length; i++) {
+            String from = i == 0 ? "0" : PRICE_BUCKET_BOUNDS.get(i - 1).toPlainString();
+            String to = i < PRICE_BUCKET_BOUNDS.size() ? PRICE_BUCKET_BOUNDS.get(i).toPlainString() : "*";
+            facets.getPriceBuckets().put(from + "-" + to, bucketCounts[i]);
+        }
+        return facets;
+    }
+
+    /**
+     * Set the text contents of a page of products, read in one query.
+     */
+    private void setContents(List<ProductDTO> productDTOs) {
+        Map<Long, ProductContent> contents = productRepository.findContentsById(productDTOs.stream().map(ProductDTO::getId).toList());
+        productDTOs.forEach(productDTO -> productMapper.updateContent(productDTO, contents.get(productDTO.getId())));
+    }
+
+    static ProductSummaryDTO toSummaryDto(Tuple row) {
+        ProductSummaryDTO summary = new ProductSummaryDTO();
+        summary.setId(row.get(ProductRepositoryWithSummaries.SUMMARY_ID, Long.class));
+        summary.setName(row.get(ProductRepositoryWithSummaries.SUMMARY_NAME, String.class));
+        summary.setSlug(row.get(ProductRepositoryWithSummaries.SUMMARY_SLUG, String.class));
+        summary.setPrice(row.get(ProductRepositoryWithSummaries.SUMMARY_PRICE, BigDecimal.class));
+        summary.setOldPrice(row.get(ProductRepositoryWithSummaries.SUMMARY_OLD_PRICE, BigDecimal.class));
+        summary.setDiscountedPrice(row.get(ProductRepositoryWithSummaries.SUMMARY_EFFECTIVE_PRICE, BigDecimal.class));
+        summary.setStock(row.get(ProductRepositoryWithSummaries.SUMMARY_STOCK, Integer.class));
+        summary.setActive(row.get(ProductRepositoryWithSummaries.SUMMARY_ACTIVE, Boolean.class));
+        summary.setCategoryId(row.get(ProductRepositoryWithSummaries.SUMMARY_CATEGORY_ID, Long.class));
+        summary.setCategoryName(row.get(ProductRepositoryWithSummaries.SUMMARY_CATEGORY_NAME, String.class));
+        summary.setBrandId(row.get(ProductRepositoryWithSummaries.SUMMARY_BRAND_ID, Long.class));
+        summary.setBrandName(row.get(ProductRepositoryWithSummaries.SUMMARY_BRAND_NAME, String.class));
+        return summary;
     }
 
     /**
@@ -78,6 +220,7 @@ public class ProductQueryService extends QueryService<Product> {
                 buildStringSpecification(criteria.getSlug(), Product_.slug),
                 buildRangeSpecification(criteria.getPrice(), Product_.price),
                 buildRangeSpecification(criteria.getOldPrice(), Product_.oldPrice),
+                buildRangeSpecification(criteria.getEffectivePrice(), Product_.effectivePrice),
                 buildRangeSpecification(criteria.getStock(), Product_.stock),
                 buildStringSpecification(criteria.getSku(), Product_.sku),
                 buildSpecification(criteria.getActive(), Product_.active),
@@ -87,6 +230,9 @@ public class ProductQueryService extends QueryService<Product> {
                 buildStringSpecification(criteria.getMetaDescription(), Product_.metaDescription),
                 buildRangeSpecification(criteria.getViewsCount(), Product_.viewsCount),
                 buildSpecification(criteria.getCategoryId(), root -> root.join(Product_.category, JoinType.LEFT).get(Category_.id)),
+                buildSpecification(criteria.getCategorySubtreeId(), root ->
+                    root.join(Product_.category, JoinType.LEFT).join(Category_.ancestorLinks, JoinType.LEFT).get(CategoryClosure_.ancestorId)
+                ),
                 buildSpecification(criteria.getBrandId(), root -> root.join(Product_.brand, JoinType.LEFT).get(Brand_.id)),
                 buildSpecification(criteria.getPromotionsId(), root -> root.join(Product_.promotions, JoinType.LEFT).get(Promotion_.id))
             );
@@ -0,0 +1,229 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import com.ayadyasmine.pharmacyecom.domain.Product;
+import com.ayadyasmine.pharmacyecom.domain.Product_;
+import com.ayadyasmine.pharmacyecom.repository.ProductCoPurchaseRepository;
+import com.ayadyasmine.pharmacyecom.repository.ProductRepository;
+import com.ayadyasmine.pharmacyecom.service.dto.ProductSummaryDTO;
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for the "frequently bought together" recommendations.
+ * <p>
+ * A batch job counts, for each pair of products, the orders containing both, in a sparse matrix of primitive maps
+ * built from the order items of the orders not counted yet. The counts are added to the stored ones and the top
+ * related products of each touched product are recomputed, so that a product page reads a handful of rows.
+ */
+@Service
+public class ProductRecommendationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductRecommendationService.class);
+
+    /**
+     * Cache of the related product ids per product, the summaries being read per request so that they follow the
+     * product, variant and promotion writes.
+     */
+    public static final String RELATED_PRODUCTS_CACHE = "relatedProductIds";
+
+    private static final String JOB = "product-co-purchase";
+
+    private static final int ORDER_BATCH_SIZE = 1_000;
+
+    private static final int REFRESH_BATCH_SIZE = 1_000;
+
+    /**
+     * Number of related products kept per product.
+     */
+    private static final int RELATED_PRODUCTS_SIZE = 12;
+
+    /**
+     * Larger baskets, which are bulk purchases rather than products bought together, are not counted.
+     */
+    private static final int MAX_BASKET_SIZE = 50;
+
+    private final ProductCoPurchaseRepository productCoPurchaseRepository;
+
+    private final ProductRepository productRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CacheManager cacheManager;
+
+    public ProductRecommendationService(
+        ProductCoPurchaseRepository productCoPurchaseRepository,
+        ProductRepository productRepository,
+        PlatformTransactionManager transactionManager,
+        CacheManager cacheManager
+    ) {
+        this.productCoPurchaseRepository = productCoPurchaseRepository;
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Get the products most often bought together with a product, most bought together first.
+     *
+     * @param productId the id of the product.
+     * @return the summaries of the active related products.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductSummaryDTO> findRelated(Long productId) {
+        LOG.debug("Request to get related Products of Product : {}", productId);
+        List<Long> relatedIds = findRelatedIds(productId);
+        if (relatedIds.isEmpty()) {
+            return List.of();
+        }
+        Specification<Product> specification = (root, query, cb) ->
+            cb.and(
+                root.get(Product_.id).in(relatedIds),
+                cb.or(cb.isNull(root.get(Product_.active)), cb.isTrue(root.get(Product_.active)))
+            );
+        Map<Long, ProductSummaryDTO> summaries = productRepository
+            .findSummaryRows(specification, Pageable.unpaged())
+            .map(ProductQueryService::toSummaryDto)
+            .stream()
+            .collect(Collectors.toMap(ProductSummaryDTO::getId, Function.identity()));
+        return relatedIds.stream().map(summaries::get).filter(Objects::nonNull).toList();
+    }
+
+    private List<Long> findRelatedIds(Long productId) {
+        Cache cache = cacheManager.getCache(RELATED_PRODUCTS_CACHE);
+        if (cache == null) {
+            return productCoPurchaseRepository.findRelatedProductIds(productId);
+        }
+        return cache.get(productId, () -> new ArrayList<>(productCoPurchaseRepository.findRelatedProductIds(productId)));
+    }
+
+    /**
+     * Count the co-purchases of the orders not counted yet, one batch of orders per transaction.
+     */
+    @Scheduled(fixedDelay = 3_600_000, initialDelay = 300_000)
+    public void computeCoPurchases() {
+        int orders = 0;
+        int batchOrders;
+        do {
+            batchOrders = transactionTemplate.execute(status -> computeBatch());
+            orders += batchOrders;
+        } while (batchOrders == ORDER_BATCH_SIZE);
+        LOG.debug("Counted the co-purchases of {} Orders", orders);
+    }
+
+    /**
+     * Count the co-purchases of the next batch of orders and mark them counted.
+     *
+     * @return the number of orders counted.
+     */
+    private int computeBatch() {
+        productCoPurchaseRepository.lockJob(JOB);
+        List<Long> orderIds = productCoPurchaseRepository.findUncountedOrderIds(ORDER_BATCH_SIZE);
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+
+        LongObjectHashMap<LongIntHashMap> counts = new LongObjectHashMap<>();
+        LongArrayList basket = new LongArrayList();
+        long basketOrderId = 0;
+        try (Stream<Object[]> rows = productCoPurchaseRepository.streamOrderProductRows(orderIds)) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                long orderId = (Long) row[0];
+                if (orderId != basketOrderId) {
+                    count(counts, basket);
+                    basket.clear();
+                    basketOrderId = orderId;
+                }
+                basket.add((Long) row[1]);
+            }
+        }
+        count(counts, basket);
+
+        if (!counts.isEmpty()) {
+            productCoPurchaseRepository.addCounts(counts);
+            long[] productIds = counts.keys().toArray();
+            for (int from = 0; from < productIds.length; from += REFRESH_BATCH_SIZE) {
+                int to = Math.min(from + REFRESH_BATCH_SIZE, productIds.length);
+                List<Long> batch = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    batch.add(productIds[i]);
+                }
+                productCoPurchaseRepository.refreshRelated(batch, RELATED_PRODUCTS_SIZE);
+            }
+            clearRelatedCache();
+        }
+        productCoPurchaseRepository.markOrdersCounted(orderIds);
+        return orderIds.size();
+    }
+
+    /**
+     * Count each pair of distinct products of a basket once, in both directions.
+     */
+    private static void count(LongObjectHashMap<LongIntHashMap> counts, LongArrayList basket) {
+        long[] products = LongStream.of(basket.toArray()).sorted().distinct().toArray();
+        if (products.length < 2 || products.length > MAX_BASKET_SIZE) {
+            return;
+        }
+        for (int i = 0; i < products.length; i++) {
+            for (int j = i + 1; j < products.length; j++) {
+                row(counts, products[i]).addTo(products[j], 1);
+                row(counts, products[j]).addTo(products[i], 1);
+            }
+        }
+    }
+
+    private static LongIntHashMap row(LongObjectHashMap<LongIntHashMap> counts, long productId) {
+        LongIntHashMap row = counts.get(productId);
+        if (row == null) {
+            row = new LongIntHashMap();
+            counts.put(productId, row);
+        }
+        return row;
+    }
+
+    /**
+     * Clear the cached related products once the transaction commits.
+     */
+    private void clearRelatedCache() {
+        Cache cache = cacheManager.getCache(RELATED_PRODUCTS_CACHE);
+        if (cache == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        cache.clear();
+                    }
+                }
+            );
+        } else {
+            cache.clear();
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package com.ayadyasmine.pharmacyecom.service;
 
 import com.ayadyasmine.pharmacyecom.domain.Product;
+import com.ayadyasmine.pharmacyecom.repository.NaturalIdRepository;
 import com.ayadyasmine.pharmacyecom.repository.ProductRepository;
+import com.ayadyasmine.pharmacyecom.repository.ProductRepository.ProductContent;
 import com.ayadyasmine.pharmacyecom.service.dto.ProductDTO;
+import com.ayadyasmine.pharmacyecom.service.dto.ProductSuggestionDTO;
 import com.ayadyasmine.pharmacyecom.service.mapper.ProductMapper;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -24,11 +32,24 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
     private final PromotionService promotionService;
+    private final ProductSuggestionIndex productSuggestionIndex;
+    private final NaturalIdRepository naturalIdRepository;
+    private final CatalogVersion catalogVersion;
 
-    public ProductService(ProductRepository productRepository, ProductMapper productMapper, PromotionService promotionService) {
+    public ProductService(
+        ProductRepository productRepository,
+        ProductMapper productMapper,
+        PromotionService promotionService,
+        ProductSuggestionIndex productSuggestionIndex,
+        NaturalIdRepository naturalIdRepository,
+        CatalogVersion catalogVersion
+    ) {
         this.productRepository = productRepository;
         this.productMapper = productMapper;
         this.promotionService = promotionService;
+        this.productSuggestionIndex = productSuggestionIndex;
+        this.naturalIdRepository = naturalIdRepository;
+        this.catalogVersion = catalogVersion;
     }
 
     /**
@@ -40,7 +61,10 @@ public class ProductService {
     public ProductDTO save(ProductDTO productDTO) {
         LOG.debug("Request to save Product : {}", productDTO);
         Product product = productMapper.toEntity(productDTO);
+        product.setEffectivePrice(promotionService.getDiscountedPrice(product));
         product = productRepository.save(product);
+        productSuggestionIndex.productChanged(product.getId());
+        catalogVersion.bump();
         ProductDTO savedDTO = productMapper.toDto(product);
         savedDTO.setDiscountedPrice(promotionService.getDiscountedPrice(product));
         return savedDTO;
@@ -55,7 +79,10 @@ public class ProductService {
     public ProductDTO update(ProductDTO productDTO) {
         LOG.debug("Request to update Product : {}", productDTO);
         Product product = productMapper.toEntity(productDTO);
+        product.setEffectivePrice(promotionService.getDiscountedPrice(product));
         product = productRepository.save(product);
+        productSuggestionIndex.productChanged(product.getId());
+        catalogVersion.bump();
         ProductDTO updatedDTO = productMapper.toDto(product);
         updatedDTO.setDiscountedPrice(promotionService.getDiscountedPrice(product));
         return updatedDTO;
@@ -74,11 +101,14 @@ public class ProductService {
             .findById(productDTO.getId())
             .map(existingProduct -> {
                 productMapper.partialUpdate(existingProduct, productDTO);
+                existingProduct.setEffectivePrice(promotionService.getDiscountedPrice(existingProduct));
 
                 return existingProduct;
             })
             .map(productRepository::save)
             .map(product -> {
+                productSuggestionIndex.productChanged(product.getId());
+                catalogVersion.bump();
                 ProductDTO dto = productMapper.toDto(product);
                 dto.setDiscountedPrice(promotionService.getDiscountedPrice(product));
                 return dto;
@@ -91,12 +121,40 @@ public class ProductService {
      * @return the list of entities.
      */
     public Page<ProductDTO> findAllWithEagerRelationships(Pageable pageable) {
-        return productRepository.findAllWithEagerRelationships(pageable)
-            .map(product -> {
-                ProductDTO dto = productMapper.toDto(product);
-                dto.setDiscountedPrice(promotionService.getDiscountedPrice(product));
-                return dto;
-            });
+        return toDtosWithDiscountedPrice(productRepository.findAllWithEagerRelationships(pageable));
+    }
+
+    /**
+     * Full-text search of the products, ranked by relevance.
+     *
+     * @param query the search terms, in web search syntax.
+     * @param pageable the pagination information; any sort is ignored.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<ProductDTO> search(String query, Pageable pageable) {
+        LOG.debug("Request to search Products : {}", query);
+        return toDtosWithDiscountedPrice(
+            productRepository.search(query, PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()))
+        );
+    }
+
+    /**
+     * Map a page of products to DTOs, resolving the discounted price of the whole page from the promotion index, and
+     * reading the text contents of the whole page in a single query.
+     *
+     * @param page the page of entities.
+     * @return the page of DTOs.
+     */
+    public Page<ProductDTO> toDtosWithDiscountedPrice(Page<Product> page) {
+        Map<Long, BigDecimal> discountedPrices = promotionService.getDiscountedPrices(page.getContent());
+        Map<Long, ProductContent> contents = productRepository.findContentsById(page.getContent().stream().map(Product::getId).toList());
+        return page.map(product -> {
+            ProductDTO dto = productMapper.toDtoWithoutContent(product);
+            dto.setDiscountedPrice(discountedPrices.get(product.getId()));
+            productMapper.updateContent(dto, contents.get(product.getId()));
+            return dto;
+        });
     }
 
     /**
@@ -116,6 +174,24 @@ public class ProductService {
             });
     }
 
+    /**
+     * Get one product by slug, resolved through the natural-id cache.
+     *
+     * @param slug the slug of the entity.
+     * @return the entity.
+     */
+    @Transactional(readOnly = true)
+    public Optional<ProductDTO> findOneBySlug(String slug) {
+        LOG.debug("Request to get Product by slug : {}", slug);
+        return naturalIdRepository
+            .findBySimpleNaturalId(Product.class, slug)
+            .map(product -> {
+                ProductDTO dto = productMapper.toDto(product);
+                dto.setDiscountedPrice(promotionService.getDiscountedPrice(product));
+                return dto;
+            });
+    }
+
     /**
      * Delete the product by id.
      *
@@ -124,5 +200,20 @@ public class ProductService {
     public void delete(Long id) {
         LOG.debug("Request to delete Product : {}", id);
         productRepository.deleteById(id);
+        productSuggestionIndex.productChanged(id);
+        catalogVersion.bump();
+    }
+
+    /**
+     * Get typeahead suggestions from the in-memory {@link ProductSuggestionIndex}, outside of any transaction so that no
+     * keystroke takes a connection.
+     *
+     * @param query the text typed so far.
+     * @param limit the maximum number of suggestions.
+     * @return the suggestions.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ProductSuggestionDTO> suggest(String query, int limit) {
+        return productSuggestionIndex.suggest(query, limit);
     }
 }
@@ -0,0 +1,245 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import com.ayadyasmine.pharmacyecom.repository.ProductRepository;
+import com.ayadyasmine.pharmacyecom.service.dto.ProductSuggestionDTO;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import jakarta.annotation.PostConstruct;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory prefix index for product typeahead.
+ * <p>
+ * Product name, slug, SKU and brand name are split into tokens, folded to lower case without accents, and kept
+ * in a sorted map from token to product ids, so a prefix lookup is a sub-map range scan. Changes are applied
+ * per product through {@link #productChanged(Long)}, broadcast on a Hazelcast topic after commit like
+ * {@link PromotionIndex}; a periodic rebuild picks up brand renames.
+ * <p>
+ * Lookups do not lock: a rebuild fills new maps and publishes them with a single write of {@link #entries}, and the
+ * per-product changes go to concurrent maps, where a lookup sees each product either before or after its change.
+ */
+@Component
+public class ProductSuggestionIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductSuggestionIndex.class);
+
+    private static final String TOPIC_NAME = "product-suggestion-index";
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final ProductRepository productRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ITopic<Long> topic;
+
+    private volatile Entries entries;
+
+    public ProductSuggestionIndex(
+        ProductRepository productRepository,
+        PlatformTransactionManager transactionManager,
+        HazelcastInstance hazelcastInstance
+    ) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.topic = hazelcastInstance.getTopic(TOPIC_NAME);
+    }
+
+    @PostConstruct
+    void listen() {
+        topic.addMessageListener(message -> reload(message.getMessageObject()));
+    }
+
+    /**
+     * Fold a text to lower case without accents, so that "Doliprane Enfant", "DOLIPRANE" and "dolipràne" match.
+     */
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(SEPARATORS.split(normalize(text))).filter(token -> !token.isEmpty()).toList();
+    }
+
+    /**
+     * Get the products having a token starting with each of the query terms.
+     *
+     * @param query the text typed so far.
+     * @param limit the maximum number of suggestions.
+     * @return the suggestions, ordered by name.
+     */
+    public List<ProductSuggestionDTO> suggest(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Entries current = ensureLoaded();
+        Set<Long> matches = null;
+        for (String term : terms) {
+            Set<Long> termMatches = new HashSet<>();
+            current.productsByToken.subMap(term, true, term + Character.MAX_VALUE, false).values().forEach(termMatches::addAll);
+            if (matches == null) {
+                matches = termMatches;
+            } else {
+                matches.retainAll(termMatches);
+            }
+            if (matches.isEmpty()) {
+                return List.of();
+            }
+        }
+        return matches
+            .stream()
+            .map(current.suggestions::get)
+            .filter(Objects::nonNull)
+            .sorted(Comparator.comparing(ProductSuggestionDTO::getName, String.CASE_INSENSITIVE_ORDER))
+            .limit(limit)
+            .toList();
+    }
+
+    /**
+     * Notify the cluster that a product was created, updated or deleted.
+     * When called inside a transaction, the notification is sent after commit.
+     */
+    public void productChanged(Long productId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        topic.publish(productId);
+                    }
+                }
+            );
+        } else {
+            topic.publish(productId);
+        }
+    }
+
+    /**
+     * Rebuild the whole index, to pick up changes not made through {@link ProductService}, such as brand renames.
+     */
+    @Scheduled(fixedDelay = 900_000, initialDelay = 900_000)
+    public void rebuild() {
+        if (entries == null) {
+            return;
+        }
+        // the rows are read under the lock, so that no product change is applied to the replaced maps in between
+        synchronized (this) {
+            entries = load();
+        }
+        LOG.debug("Rebuilt product suggestion index with {} products", entries.suggestions.size());
+    }
+
+    private Entries ensureLoaded() {
+        Entries current = entries;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (entries == null) {
+                entries = load();
+                LOG.debug("Loaded {} products into the suggestion index", entries.suggestions.size());
+            }
+            return entries;
+        }
+    }
+
+    private Entries load() {
+        List<Object[]> rows = transactionTemplate.execute(status -> productRepository.findAllSuggestionRows());
+        Entries loaded = new Entries();
+        rows.forEach(loaded::index);
+        return loaded;
+    }
+
+    private void reload(Long productId) {
+        if (entries == null) {
+            return;
+        }
+        List<Object[]> rows = transactionTemplate.execute(status -> productRepository.findSuggestionRowsById(productId));
+        synchronized (this) {
+            entries.remove(productId);
+            rows.forEach(entries::index);
+        }
+    }
+
+    /**
+     * The maps of the index, replaced as a whole by a rebuild.
+     */
+    private static final class Entries {
+
+        private final NavigableMap<String, Set<Long>> productsByToken = new ConcurrentSkipListMap<>();
+
+        private final Map<Long, ProductSuggestionDTO> suggestions = new ConcurrentHashMap<>();
+
+        private final Map<Long, Set<String>> tokensByProduct = new ConcurrentHashMap<>();
+
+        /**
+         * Index a row of {@code [id, name, slug, sku, active, brandName]}.
+         */
+        private void index(Object[] row) {
+            Long id = (Long) row[0];
+            String name = (String) row[1];
+            String slug = (String) row[2];
+            String sku = (String) row[3];
+            Boolean active = (Boolean) row[4];
+            String brandName = (String) row[5];
+            if (Boolean.FALSE.equals(active)) {
+                return;
+            }
+            Set<String> tokens = new HashSet<>();
+            tokens.addAll(tokenize(name));
+            tokens.addAll(tokenize(slug));
+            tokens.addAll(tokenize(brandName));
+            if (sku != null) {
+                tokens.addAll(tokenize(sku));
+                tokens.add(normalize(sku));
+            }
+            suggestions.put(id, new ProductSuggestionDTO(id, name, slug, brandName));
+            tokensByProduct.put(id, tokens);
+            for (String token : tokens) {
+                productsByToken.computeIfAbsent(token, key -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        }
+
+        private void remove(Long productId) {
+            suggestions.remove(productId);
+            Set<String> tokens = tokensByProduct.remove(productId);
+            if (tokens == null) {
+                return;
+            }
+            for (String token : tokens) {
+                productsByToken.computeIfPresent(token, (key, ids) -> {
+                    ids.remove(productId);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+    }
+}
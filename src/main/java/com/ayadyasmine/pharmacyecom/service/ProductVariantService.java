@@ -13,6 +13,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -28,9 +29,20 @@ public class ProductVariantService {
 
     private final ProductVariantMapper productVariantMapper;
 
-    public ProductVariantService(ProductVariantRepository productVariantRepository, ProductVariantMapper productVariantMapper) {
+    private final StockReservationService stockReservationService;
+
+    private final HotStockService hotStockService;
+
+    public ProductVariantService(
+        ProductVariantRepository productVariantRepository,
+        ProductVariantMapper productVariantMapper,
+        StockReservationService stockReservationService,
+        HotStockService hotStockService
+    ) {
         this.productVariantRepository = productVariantRepository;
         this.productVariantMapper = productVariantMapper;
+        this.stockReservationService = stockReservationService;
+        this.hotStockService = hotStockService;
     }
 
     /**
@@ -47,7 +59,7 @@ public class ProductVariantService {
     }
 
     /**
-     * Update a productVariant.
+     * Update a productVariant. The stock is only changed when it differs from the stock stored.
      *
      * @param productVariantDTO the entity to save.
      * @return the persisted entity.
@@ -55,12 +67,14 @@ public class ProductVariantService {
     public ProductVariantDTO update(ProductVariantDTO productVariantDTO) {
         LOG.debug("Request to update ProductVariant : {}", productVariantDTO);
         ProductVariant productVariant = productVariantMapper.toEntity(productVariantDTO);
+        Integer stock = stockChange(productVariant, productVariantRepository.findStockById(productVariant.getId()).orElse(null));
         productVariant = productVariantRepository.save(productVariant);
+        stockChanged(productVariant.getId(), stock);
         return productVariantMapper.toDto(productVariant);
     }
 
     /**
-     * Partially update a productVariant.
+     * Partially update a productVariant. The stock is only changed when it is given and differs from the stock stored.
      *
      * @param productVariantDTO the entity to update partially.
      * @return the persisted entity.
@@ -71,12 +85,13 @@ public class ProductVariantService {
         return productVariantRepository
             .findById(productVariantDTO.getId())
             .map(existingProductVariant -> {
+                Integer previousStock = existingProductVariant.getStock();
                 productVariantMapper.partialUpdate(existingProductVariant, productVariantDTO);
-
-                return existingProductVariant;
-            })
-            .map(productVariantRepository::save)
-            .map(productVariantMapper::toDto);
+                Integer stock = stockChange(existingProductVariant, previousStock);
+                ProductVariant productVariant = productVariantRepository.save(existingProductVariant);
+                stockChanged(productVariant.getId(), stock);
+                return productVariantMapper.toDto(productVariant);
+            });
     }
 
     /**
@@ -115,6 +130,53 @@ public class ProductVariantService {
         return productVariantRepository.findOneWithEagerRelationships(id).map(productVariantMapper::toDto);
     }
 
+    /**
+     * Get the quantity of a productVariant that can still be added to a cart, answered from memory.
+     *
+     * @param id the id of the entity.
+     * @return the available quantity, or empty if the entity does not exist.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<Integer> findAvailableToSell(Long id) {
+        return stockReservationService.getAvailableToSell(id);
+    }
+
+    /**
+     * Mirror the stock of a productVariant in an in-memory counter, see {@link HotStockService#enable}.
+     *
+     * @param id the id of the entity.
+     * @return the stock of the counter, or empty if the entity does not exist.
+     */
+    public Optional<Integer> enableHotStock(Long id) {
+        return hotStockService.enable(id);
+    }
+
+    /**
+     * Stop mirroring the stock of a productVariant in an in-memory counter, see {@link HotStockService#disable}.
+     *
+     * @param id the id of the entity.
+     */
+    public void disableHotStock(Long id) {
+        hotStockService.disable(id);
+    }
+
+    /**
+     * Get the stock change requested by an update, compared with the stock stored, which is what the clients read.
+     *
+     * @return the new stock, or {@code null} if the stock is unchanged.
+     */
+    private static Integer stockChange(ProductVariant productVariant, Integer previousStock) {
+        Integer stock = productVariant.getStock();
+        return stock == null || stock.equals(previousStock) ? null : stock;
+    }
+
+    private void stockChanged(Long id, Integer stock) {
+        if (stock != null) {
+            stockReservationService.variantChanged(id);
+            hotStockService.stockChanged(id, stock);
+        }
+    }
+
     /**
      * Delete the productVariant by id.
      *
@@ -123,5 +185,7 @@ public class ProductVariantService {
     public void delete(Long id) {
         LOG.debug("Request to delete ProductVariant : {}", id);
         productVariantRepository.deleteById(id);
+        stockReservationService.variantChanged(id);
+        hotStockService.variantDeleted(id);
     }
 }
@@ -0,0 +1,235 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import com.ayadyasmine.pharmacyecom.domain.Product;
+import com.ayadyasmine.pharmacyecom.domain.Promotion;
+import com.ayadyasmine.pharmacyecom.repository.PromotionRepository;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import jakarta.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory index of the live promotions, keyed by product id.
+ * <p>
+ * Each product holds its promotion windows ordered by {@code startDate} then {@code endDate}, so pricing
+ * is answered without a database round trip. Writes go through {@link #promotionChanged(Long)}, which
+ * broadcasts the promotion id on a Hazelcast topic once the transaction commits; every cluster member
+ * (including this one) then reloads that single promotion from the database, or once the index is loaded when it is
+ * not yet. The promotions that go live or end at their boundaries are broadcast the same way by
+ * {@link PromotionLifecycleService#sweep()}.
+ */
+@Component
+public class PromotionIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PromotionIndex.class);
+
+    private static final String TOPIC_NAME = "promotion-index";
+
+    private static final Comparator<Window> WINDOW_ORDER = Comparator.comparing(Window::startDate).thenComparing(Window::endDate);
+
+    /**
+     * A promotion applying to one product between {@code startDate} and {@code endDate}, both inclusive.
+     */
+    record Window(Long promotionId, int discountPercent, Instant startDate, Instant endDate) {
+        boolean covers(Instant instant) {
+            return !startDate.isAfter(instant) && !endDate.isBefore(instant);
+        }
+    }
+
+    private final PromotionRepository promotionRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ITopic<Long> topic;
+
+    private final Map<Long, List<Window>> windowsByProduct = new ConcurrentHashMap<>();
+
+    private final Map<Long, Set<Long>> productsByPromotion = new HashMap<>();
+
+    /**
+     * Promotions changed before the index was loaded, reloaded once it is, as the load may have read them before
+     * their change was committed.
+     */
+    private final Set<Long> reloadsWhileLoading = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean loaded;
+
+    public PromotionIndex(
+        PromotionRepository promotionRepository,
+        PlatformTransactionManager transactionManager,
+        HazelcastInstance hazelcastInstance
+    ) {
+        this.promotionRepository = promotionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.topic = hazelcastInstance.getTopic(TOPIC_NAME);
+    }
+
+    @PostConstruct
+    void listen() {
+        topic.addMessageListener(message -> reload(message.getMessageObject()));
+    }
+
+    /**
+     * Get the best discount percentage applying to a product at the given instant.
+     *
+     * @return the discount percentage, or {@code 0} when no promotion applies.
+     */
+    public int getDiscountPercent(Long productId, Instant instant) {
+        if (productId == null) {
+            return 0;
+        }
+        ensureLoaded();
+        List<Window> windows = windowsByProduct.get(productId);
+        if (windows == null) {
+            return 0;
+        }
+        int max = 0;
+        for (Window window : windows) {
+            if (window.startDate().isAfter(instant)) {
+                break;
+            }
+            if (window.covers(instant)) {
+                max = Math.max(max, window.discountPercent());
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Get the best discount percentage of several products at the given instant.
+     * Products without any applicable promotion are absent from the result.
+     */
+    public Map<Long, Integer> getDiscountPercents(Collection<Long> productIds, Instant instant) {
+        Map<Long, Integer> discounts = new HashMap<>();
+        for (Long productId : productIds) {
+            int discount = getDiscountPercent(productId, instant);
+            if (discount > 0) {
+                discounts.put(productId, discount);
+            }
+        }
+        return discounts;
+    }
+
+    /**
+     * Notify the cluster that a promotion was created, updated or deleted.
+     * When called inside a transaction, the notification is sent after commit.
+     */
+    public void promotionChanged(Long promotionId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        topic.publish(promotionId);
+                    }
+                }
+            );
+        } else {
+            topic.publish(promotionId);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            List<Promotion> promotions = transactionTemplate.execute(status -> promotionRepository.findLivePromotionsWithProducts());
+            windowsByProduct.clear();
+            productsByPromotion.clear();
+            promotions.forEach(this::index);
+            loaded = true;
+            LOG.debug("Loaded {} live promotions into the index", promotions.size());
+        }
+        replayReloadsWhileLoading();
+    }
+
+    private void reload(Long promotionId) {
+        if (!loaded) {
+            reloadsWhileLoading.add(promotionId);
+            // the load may have completed in the meantime, without seeing the recorded id
+            if (loaded) {
+                replayReloadsWhileLoading();
+            }
+            return;
+        }
+        load(promotionId);
+    }
+
+    private void replayReloadsWhileLoading() {
+        for (Iterator<Long> ids = reloadsWhileLoading.iterator(); ids.hasNext();) {
+            Long promotionId = ids.next();
+            ids.remove();
+            load(promotionId);
+        }
+    }
+
+    private void load(Long promotionId) {
+        LOG.debug("Reloading Promotion {} into the index", promotionId);
+        Optional<Promotion> promotion = transactionTemplate.execute(status ->
+            promotionRepository.findOneWithEagerRelationships(promotionId)
+        );
+        synchronized (this) {
+            remove(promotionId);
+            promotion.ifPresent(this::index);
+        }
+    }
+
+    private void index(Promotion promotion) {
+        if (
+            !Boolean.TRUE.equals(promotion.getLive()) ||
+            promotion.getDiscountPercent() == null ||
+            promotion.getStartDate() == null ||
+            promotion.getEndDate() == null
+        ) {
+            return;
+        }
+        Window window = new Window(promotion.getId(), promotion.getDiscountPercent(), promotion.getStartDate(), promotion.getEndDate());
+        Set<Long> productIds = new HashSet<>();
+        for (Product product : promotion.getProducts()) {
+            productIds.add(product.getId());
+            windowsByProduct.merge(product.getId(), List.of(window), (existing, added) -> {
+                List<Window> merged = new ArrayList<>(existing);
+                merged.addAll(added);
+                merged.sort(WINDOW_ORDER);
+                return List.copyOf(merged);
+            });
+        }
+        productsByPromotion.put(promotion.getId(), productIds);
+    }
+
+    private void remove(Long promotionId) {
+        Set<Long> productIds = productsByPromotion.remove(promotionId);
+        if (productIds == null) {
+            return;
+        }
+        for (Long productId : productIds) {
+            windowsByProduct.computeIfPresent(productId, (id, windows) -> {
+                List<Window> remaining = windows.stream().filter(window -> !window.promotionId().equals(promotionId)).toList();
+                return remaining.isEmpty() ? null : remaining;
+            });
+        }
+    }
+}
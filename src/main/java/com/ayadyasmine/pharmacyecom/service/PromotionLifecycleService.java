@@ -0,0 +1,91 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import com.ayadyasmine.pharmacyecom.domain.Promotion;
+import com.ayadyasmine.pharmacyecom.repository.PromotionRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service maintaining the persisted {@code live} state of {@link Promotion}.
+ * <p>
+ * A promotion is live while it is active and the current instant lies between its start and end dates.
+ * Pricing only looks at live promotions, which are covered by a partial index: the effective prices are computed from
+ * them and {@link PromotionIndex} only holds them. The sweep is therefore what moves prices at the boundaries, with a
+ * delay of up to one sweep period.
+ */
+@Service
+@Transactional
+public class PromotionLifecycleService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PromotionLifecycleService.class);
+
+    private final PromotionRepository promotionRepository;
+
+    private final EffectivePriceService effectivePriceService;
+
+    private final PromotionIndex promotionIndex;
+
+    private boolean reconciled;
+
+    public PromotionLifecycleService(
+        PromotionRepository promotionRepository,
+        EffectivePriceService effectivePriceService,
+        PromotionIndex promotionIndex
+    ) {
+        this.promotionRepository = promotionRepository;
+        this.effectivePriceService = effectivePriceService;
+        this.promotionIndex = promotionIndex;
+    }
+
+    /**
+     * Whether a promotion is live at the given instant.
+     */
+    public static boolean isLiveAt(Promotion promotion, Instant instant) {
+        return (
+            Boolean.TRUE.equals(promotion.getActive()) &&
+            promotion.getStartDate() != null &&
+            promotion.getEndDate() != null &&
+            !promotion.getStartDate().isAfter(instant) &&
+            !promotion.getEndDate().isBefore(instant)
+        );
+    }
+
+    /**
+     * Flip the promotions whose start or end boundary has been crossed since the previous sweep, then recompute the
+     * effective price of their products and reload them into the index of every member.
+     * <p>
+     * The first sweep after startup recomputes the whole catalog to reconcile missed boundaries.
+     * <p>
+     * This is scheduled to get fired every minute.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public synchronized void sweep() {
+        Instant now = Instant.now();
+        List<Long> started = promotionRepository.findIdsOfStartedPromotions(now);
+        List<Long> ended = promotionRepository.findIdsOfEndedPromotions(now);
+        if (!started.isEmpty()) {
+            promotionRepository.markStartedPromotionsLive(started, now);
+        }
+        if (!ended.isEmpty()) {
+            promotionRepository.markEndedPromotionsNotLive(ended, now);
+        }
+        List<Long> flipped = new ArrayList<>(started);
+        flipped.addAll(ended);
+        if (!reconciled) {
+            effectivePriceService.recomputeAll();
+            reconciled = true;
+        } else {
+            effectivePriceService.recompute(effectivePriceService.findProductIdsOfPromotions(flipped));
+        }
+        flipped.forEach(promotionIndex::promotionChanged);
+        if (!flipped.isEmpty()) {
+            LOG.debug("Promotion sweep: {} went live, {} ended", started.size(), ended.size());
+        }
+    }
+}
@@ -1,15 +1,21 @@
 package com.ayadyasmine.pharmacyecom.service;
 
+import com.ayadyasmine.pharmacyecom.domain.Money;
 import com.ayadyasmine.pharmacyecom.domain.Product;
 import com.ayadyasmine.pharmacyecom.domain.Promotion;
 import com.ayadyasmine.pharmacyecom.repository.PromotionRepository;
 import com.ayadyasmine.pharmacyecom.service.dto.PromotionDTO;
 import com.ayadyasmine.pharmacyecom.service.mapper.PromotionMapper;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.slf4j.Logger;
@@ -28,39 +34,56 @@ public class PromotionService {
 
     private final PromotionRepository promotionRepository;
     private final PromotionMapper promotionMapper;
-
-    public PromotionService(PromotionRepository promotionRepository, PromotionMapper promotionMapper) {
+    private final PromotionIndex promotionIndex;
+    private final EffectivePriceService effectivePriceService;
+    private final CatalogVersion catalogVersion;
+
+    public PromotionService(
+        PromotionRepository promotionRepository,
+        PromotionMapper promotionMapper,
+        PromotionIndex promotionIndex,
+        EffectivePriceService effectivePriceService,
+        CatalogVersion catalogVersion
+    ) {
         this.promotionRepository = promotionRepository;
         this.promotionMapper = promotionMapper;
+        this.promotionIndex = promotionIndex;
+        this.effectivePriceService = effectivePriceService;
+        this.catalogVersion = catalogVersion;
     }
 
     // Standard CRUD methods for Promotion
     public PromotionDTO save(PromotionDTO promotionDTO) {
         LOG.debug("Request to save Promotion : {}", promotionDTO);
         Promotion promotion = promotionMapper.toEntity(promotionDTO);
+        promotion.setLive(PromotionLifecycleService.isLiveAt(promotion, Instant.now()));
         promotion = promotionRepository.save(promotion);
-        return promotionMapper.toDto(promotion);
+        return afterWrite(promotion, Set.of());
     }
 
     public PromotionDTO update(PromotionDTO promotionDTO) {
         LOG.debug("Request to update Promotion : {}", promotionDTO);
+        List<Long> previousProductIds = effectivePriceService.findProductIdsOfPromotion(promotionDTO.getId());
         Promotion promotion = promotionMapper.toEntity(promotionDTO);
+        promotion.setLive(PromotionLifecycleService.isLiveAt(promotion, Instant.now()));
         promotion = promotionRepository.save(promotion);
-        return promotionMapper.toDto(promotion);
+        return afterWrite(promotion, previousProductIds);
     }
 
     public Optional<PromotionDTO> partialUpdate(PromotionDTO promotionDTO) {
         LOG.debug("Request to partially update Promotion : {}", promotionDTO);
+        List<Long> previousProductIds = effectivePriceService.findProductIdsOfPromotion(promotionDTO.getId());
 
         return promotionRepository
             .findById(promotionDTO.getId())
             .map(existingPromotion -> {
                 promotionMapper.partialUpdate(existingPromotion, promotionDTO);
+                existingPromotion.setLive(PromotionLifecycleService.isLiveAt(existingPromotion, Instant.now()));
 
                 return existingPromotion;
             })
             .map(promotionRepository::save)
-            .map(promotionMapper::toDto);
+            .map(promotion -> afterWrite(promotion, previousProductIds));
     }
 
     public List<PromotionDTO> findAll() {
@@ -85,44 +108,67 @@ public class PromotionService {
 
     public void delete(Long id) {
         LOG.debug("Request to delete Promotion : {}", id);
+        List<Long> productIds = effectivePriceService.findProductIdsOfPromotion(id);
         promotionRepository.deleteById(id);
+        promotionIndex.promotionChanged(id);
+        effectivePriceService.recompute(productIds);
+        catalogVersion.bump();
+    }
+
+    /**
+     * Propagate a promotion write to the pricing index, to the effective price of the products it touched and to the catalog version.
+     * The DTO is built first, as recomputing prices clears the persistence context.
+     */
+    private PromotionDTO afterWrite(Promotion promotion, Collection<Long> previousProductIds) {
+        PromotionDTO result = promotionMapper.toDto(promotion);
+        Set<Long> productIds = new HashSet<>(previousProductIds);
+        promotion.getProducts().forEach(product -> productIds.add(product.getId()));
+        promotionIndex.promotionChanged(promotion.getId());
+        effectivePriceService.recompute(productIds);
+        catalogVersion.bump();
+        return result;
     }
 
     // Dynamic pricing methods
     public BigDecimal getDiscountedPrice(Product product) {
-        List<Promotion> activePromos = promotionRepository.findActivePromotionsForProduct(product.getId(), Instant.now());
+        return applyDiscount(product.getPrice(), getDiscountPercentForProduct(product.getId()));
+    }
 
-        if (activePromos.isEmpty()) {
-            return product.getPrice();
+    /**
+     * Get the discounted price of several products from the in-memory {@link PromotionIndex}.
+     *
+     * @param products the products to price.
+     * @return the discounted price of each product, keyed by product id.
+     */
+    public Map<Long, BigDecimal> getDiscountedPrices(Collection<Product> products) {
+        Map<Long, Integer> discounts = getDiscountPercentsForProducts(products.stream().map(Product::getId).toList());
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        for (Product product : products) {
+            prices.put(product.getId(), applyDiscount(product.getPrice(), discounts.getOrDefault(product.getId(), 0)));
         }
-
-        // If multiple promos, take the most advantageous (the biggest percentage)
-        int maxDiscount = activePromos.stream()
-            .mapToInt(Promotion::getDiscountPercent)
-            .max()
-            .orElse(0);
-
-        BigDecimal discount = product.getPrice()
-            .multiply(new BigDecimal(maxDiscount))
-            .divide(new BigDecimal(100), RoundingMode.HALF_UP);
-
-        return product.getPrice().subtract(discount);
+        return prices;
     }
 
     /**
      * Get the discount percentage for a product if any active promotion exists
      */
     public int getDiscountPercentForProduct(Long productId) {
-        List<Promotion> activePromos = promotionRepository.findActivePromotionsForProduct(productId, Instant.now());
+        return promotionIndex.getDiscountPercent(productId, Instant.now());
+    }
 
-        if (activePromos.isEmpty()) {
-            return 0;
-        }
+    /**
+     * Get the maximum active discount percentage of several products.
+     * Products without any active promotion are absent from the result.
+     */
+    public Map<Long, Integer> getDiscountPercentsForProducts(Collection<Long> productIds) {
+        List<Long> ids = productIds.stream().filter(Objects::nonNull).distinct().toList();
+        return promotionIndex.getDiscountPercents(ids, Instant.now());
+    }
 
-        // Return the maximum discount percentage
-        return activePromos.stream()
-            .mapToInt(Promotion::getDiscountPercent)
-            .max()
-            .orElse(0);
+    private BigDecimal applyDiscount(BigDecimal price, int discountPercent) {
+        if (price == null || discountPercent == 0) {
+            return price;
+        }
+        return Money.of(price).minusPercent(discountPercent).toBigDecimal();
     }
-}
\ No newline at end of file
+}
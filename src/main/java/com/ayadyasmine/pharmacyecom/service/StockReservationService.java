@@ -0,0 +1,379 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import com.ayadyasmine.pharmacyecom.config.ApplicationProperties;
+import com.ayadyasmine.pharmacyecom.domain.ProductVariant;
+import com.ayadyasmine.pharmacyecom.domain.StockReservation;
+import com.ayadyasmine.pharmacyecom.repository.ProductVariantRepository;
+import com.ayadyasmine.pharmacyecom.repository.StockReservationRepository;
+import com.hazelcast.cluster.Member;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import jakarta.annotation.PostConstruct;
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service holding stock for carts between add-to-cart and checkout.
+ * <p>
+ * Each hold is a {@link StockReservation} row, and each node keeps in memory, per variant, the stock on hand and the
+ * quantity held, so that the quantity available to sell is answered without a database read. The counters are guarded
+ * by a fixed set of striped locks rather than one lock per variant or a global one. Committed changes are broadcast on
+ * a Hazelcast topic like {@link PromotionIndex}, and the counters are periodically dropped and reloaded from the
+ * database to correct any drift between the nodes.
+ * <p>
+ * Holds are a promise made to the customer, not the stock guard: checkout still takes the quantities off the stock with
+ * conditional updates, so that a hold lost between the nodes can never oversell.
+ */
+@Service
+public class StockReservationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StockReservationService.class);
+
+    private static final String TOPIC_NAME = "stock-reservations";
+
+    private static final int STRIPES = 64;
+
+    private static final int REAPER_BATCH_SIZE = 500;
+
+    private final StockReservationRepository stockReservationRepository;
+
+    private final ProductVariantRepository productVariantRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ITopic<StockChange> topic;
+
+    private final Duration holdTimeToLive;
+
+    private final Map<Long, VariantStock> counters = new ConcurrentHashMap<>();
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    public StockReservationService(
+        StockReservationRepository stockReservationRepository,
+        ProductVariantRepository productVariantRepository,
+        PlatformTransactionManager transactionManager,
+        HazelcastInstance hazelcastInstance,
+        ApplicationProperties applicationProperties
+    ) {
+        this.stockReservationRepository = stockReservationRepository;
+        this.productVariantRepository = productVariantRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.topic = hazelcastInstance.getTopic(TOPIC_NAME);
+        this.holdTimeToLive = Duration.ofSeconds(applicationProperties.getStockReservation().getHoldTimeToLiveSeconds());
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @PostConstruct
+    void listen() {
+        topic.addMessageListener(message -> {
+            StockChange change = message.getMessageObject();
+            Member publisher = message.getPublishingMember();
+            if (change.appliedAtOrigin() && publisher != null && publisher.localMember()) {
+                return;
+            }
+            if (change.reload()) {
+                counters.remove(change.variantId());
+                return;
+            }
+            // a variant not counted yet is loaded from the database, with the change, on first use
+            VariantStock stock = counters.get(change.variantId());
+            if (stock != null) {
+                apply(change.variantId(), stock, change.stockDelta(), change.reservedDelta());
+            }
+        });
+    }
+
+    /**
+     * Get the quantity of a variant that can still be added to a cart, from memory.
+     *
+     * @param variantId the id of the variant.
+     * @return the stock on hand minus the held quantity, or empty if the variant does not exist.
+     */
+    public Optional<Integer> getAvailableToSell(Long variantId) {
+        VariantStock stock = counter(variantId);
+        if (stock == null) {
+            return Optional.empty();
+        }
+        ReentrantLock lock = lock(variantId);
+        lock.lock();
+        try {
+            return Optional.of(Math.max(0, stock.onHand - stock.reserved));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hold a quantity of a variant for a cart, until the hold expires or the cart is checked out.
+     * The hold of the cart on the variant, if any, is increased and extended.
+     *
+     * @param cartId the id of the cart.
+     * @param variant the variant.
+     * @param quantity the quantity to hold.
+     * @throws InsufficientStockException if less than {@code quantity} is available to sell.
+     */
+    @Transactional
+    public void reserve(Long cartId, ProductVariant variant, int quantity) {
+        Long variantId = variant.getId();
+        VariantStock stock = counter(variantId);
+        ReentrantLock lock = lock(variantId);
+        lock.lock();
+        try {
+            if (stock == null || stock.onHand - stock.reserved < quantity) {
+                throw new InsufficientStockException(variant.getLabel());
+            }
+            stock.reserved += quantity;
+        } finally {
+            lock.unlock();
+        }
+        // the hold is counted here right away, so that concurrent requests on this node see it; other nodes see it on commit
+        afterCompletion(committed -> {
+            if (committed) {
+                topic.publish(new StockChange(variantId, 0, quantity, false, true));
+            } else {
+                apply(variantId, stock, 0, -quantity);
+            }
+        });
+
+        StockReservation reservation = stockReservationRepository
+            .findByCartIdAndVariantId(cartId, variantId)
+            .orElseGet(() -> new StockReservation().cartId(cartId).variantId(variantId).quantity(0));
+        reservation.setQuantity(reservation.getQuantity() + quantity);
+        reservation.setExpiresAt(Instant.now().plus(holdTimeToLive));
+        stockReservationRepository.save(reservation);
+    }
+
+    /**
+     * Release part of the hold of a cart on a variant, when the quantity of a cart item is lowered or the item removed.
+     * The held quantity is released once the transaction commits, no more than what is still held, as an expired hold
+     * may already have been released.
+     *
+     * @param cartId the id of the cart.
+     * @param variantId the id of the variant.
+     * @param quantity the quantity to release.
+     */
+    @Transactional
+    public void release(Long cartId, Long variantId, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        stockReservationRepository
+            .findByCartIdAndVariantId(cartId, variantId)
+            .ifPresent(reservation -> {
+                int released = Math.min(quantity, reservation.getQuantity());
+                if (released == reservation.getQuantity()) {
+                    stockReservationRepository.delete(reservation);
+                } else {
+                    reservation.setQuantity(reservation.getQuantity() - released);
+                    stockReservationRepository.save(reservation);
+                }
+                afterCompletion(committed -> {
+                    if (committed) {
+                        publishAll(Map.of(), Map.of(variantId, released));
+                    }
+                });
+            });
+    }
+
+    /**
+     * Release all the holds of a cart, when the cart is deleted without being checked out.
+     *
+     * @param cartId the id of the cart.
+     */
+    @Transactional
+    public void releaseAll(Long cartId) {
+        List<StockReservation> holds = stockReservationRepository.findByCartId(cartId);
+        if (holds.isEmpty()) {
+            return;
+        }
+        stockReservationRepository.deleteAllInBatch(holds);
+        Map<Long, Integer> released = new HashMap<>();
+        holds.forEach(hold -> released.merge(hold.getVariantId(), hold.getQuantity(), Integer::sum));
+        afterCompletion(committed -> {
+            if (committed) {
+                publishAll(Map.of(), released);
+            }
+        });
+    }
+
+    /**
+     * Convert the holds of a cart being checked out into stock decrements: once the transaction commits, the held
+     * quantities are released and the ordered quantities taken off the stock on hand.
+     *
+     * @param cartId the id of the cart.
+     * @param orderedQuantities the ordered quantity per variant id, already taken off the stock in the database.
+     */
+    @Transactional
+    public void convertHolds(Long cartId, Map<Long, Integer> orderedQuantities) {
+        List<StockReservation> holds = stockReservationRepository.findByCartId(cartId);
+        stockReservationRepository.deleteAllInBatch(holds);
+        Map<Long, Integer> released = new HashMap<>();
+        holds.forEach(hold -> released.merge(hold.getVariantId(), hold.getQuantity(), Integer::sum));
+        Map<Long, Integer> taken = Map.copyOf(orderedQuantities);
+        afterCompletion(committed -> {
+            if (committed) {
+                publishAll(taken, released);
+            }
+        });
+    }
+
+    /**
+     * Drop the counters of a variant whose stock was written directly, so that they are reloaded on next use.
+     *
+     * @param variantId the id of the variant.
+     */
+    public void variantChanged(Long variantId) {
+        afterCompletion(committed -> {
+            if (committed) {
+                topic.publish(new StockChange(variantId, 0, 0, true, false));
+            }
+        });
+    }
+
+    /**
+     * Release the expired holds, one batch per transaction.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void releaseExpiredHolds() {
+        int total = 0;
+        int released;
+        do {
+            released = transactionTemplate.execute(status -> {
+                List<Object[]> rows = stockReservationRepository.deleteExpired(Instant.now(), REAPER_BATCH_SIZE);
+                Map<Long, Integer> quantities = new HashMap<>();
+                rows.forEach(row -> quantities.merge(((Number) row[0]).longValue(), ((Number) row[1]).intValue(), Integer::sum));
+                afterCompletion(committed -> {
+                    if (committed) {
+                        publishAll(Map.of(), quantities);
+                    }
+                });
+                return rows.size();
+            });
+            total += released;
+        } while (released == REAPER_BATCH_SIZE);
+        if (total > 0) {
+            LOG.debug("Released {} expired stock reservations", total);
+        }
+    }
+
+    /**
+     * Drop all the counters, so that they are reloaded from the database on next use.
+     */
+    @Scheduled(fixedDelay = 900_000, initialDelay = 900_000)
+    public void resync() {
+        counters.clear();
+    }
+
+    /**
+     * Apply committed changes to the counters of this node, then broadcast them to the other nodes.
+     */
+    private void publishAll(Map<Long, Integer> taken, Map<Long, Integer> released) {
+        Map<Long, StockChange> changes = new HashMap<>();
+        taken.forEach((variantId, quantity) -> changes.put(variantId, new StockChange(variantId, -quantity, 0, false, true)));
+        released.forEach((variantId, quantity) ->
+            changes.merge(variantId, new StockChange(variantId, 0, -quantity, false, true), (change, release) ->
+                new StockChange(variantId, change.stockDelta(), release.reservedDelta(), false, true)
+            )
+        );
+        for (StockChange change : changes.values()) {
+            VariantStock stock = counters.get(change.variantId());
+            if (stock != null) {
+                apply(change.variantId(), stock, change.stockDelta(), change.reservedDelta());
+            }
+            topic.publish(change);
+        }
+    }
+
+    private VariantStock counter(Long variantId) {
+        VariantStock stock = counters.get(variantId);
+        if (stock != null) {
+            return stock;
+        }
+        VariantStock loaded = transactionTemplate.execute(status ->
+            productVariantRepository
+                .findStockById(variantId)
+                .map(onHand -> new VariantStock(onHand, (int) stockReservationRepository.sumQuantityByVariantId(variantId)))
+                .orElse(null)
+        );
+        if (loaded == null) {
+            return null;
+        }
+        VariantStock existing = counters.putIfAbsent(variantId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private void apply(Long variantId, VariantStock stock, int stockDelta, int reservedDelta) {
+        ReentrantLock lock = lock(variantId);
+        lock.lock();
+        try {
+            stock.onHand += stockDelta;
+            stock.reserved += reservedDelta;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lock(Long variantId) {
+        return locks[Math.floorMod(variantId.hashCode(), STRIPES)];
+    }
+
+    private static void afterCompletion(CompletionCallback callback) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        callback.completed(status == STATUS_COMMITTED);
+                    }
+                }
+            );
+        } else {
+            callback.completed(true);
+        }
+    }
+
+    @FunctionalInterface
+    private interface CompletionCallback {
+        void completed(boolean committed);
+    }
+
+    /**
+     * Stock on hand and held quantity of a variant, guarded by the stripe lock of the variant.
+     */
+    private static final class VariantStock {
+
+        private int onHand;
+
+        private int reserved;
+
+        private VariantStock(int onHand, int reserved) {
+            this.onHand = onHand;
+            this.reserved = reserved;
+        }
+    }
+
+    /**
+     * A committed change of the stock on hand or of the held quantity of a variant, or a request to reload its counters.
+     */
+    record StockChange(long variantId, int stockDelta, int reservedDelta, boolean reload, boolean appliedAtOrigin)
+        implements Serializable {}
+}
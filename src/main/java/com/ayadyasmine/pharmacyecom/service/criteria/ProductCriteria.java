@@ -32,6 +32,8 @@ public class ProductCriteria implements Serializable, Criteria {
 
     private BigDecimalFilter oldPrice;
 
+    private BigDecimalFilter effectivePrice;
+
     private IntegerFilter stock;
 
     private StringFilter sku;
@@ -50,6 +52,8 @@ public class ProductCriteria implements Serializable, Criteria {
 
     private LongFilter categoryId;
 
+    private LongFilter categorySubtreeId;
+
     private LongFilter brandId;
 
     private LongFilter promotionsId;
@@ -64,6 +68,7 @@ public class ProductCriteria implements Serializable, Criteria {
         this.slug = other.optionalSlug().map(StringFilter::copy).orElse(null);
         this.price = other.optionalPrice().map(BigDecimalFilter::copy).orElse(null);
         this.oldPrice = other.optionalOldPrice().map(BigDecimalFilter::copy).orElse(null);
+        this.effectivePrice = other.optionalEffectivePrice().map(BigDecimalFilter::copy).orElse(null);
         this.stock = other.optionalStock().map(IntegerFilter::copy).orElse(null);
         this.sku = other.optionalSku().map(StringFilter::copy).orElse(null);
         this.active = other.optionalActive().map(BooleanFilter::copy).orElse(null);
@@ -73,6 +78,7 @@ public class ProductCriteria implements Serializable, Criteria {
         this.metaDescription = other.optionalMetaDescription().map(StringFilter::copy).orElse(null);
         this.viewsCount = other.optionalViewsCount().map(LongFilter::copy).orElse(null);
         this.categoryId = other.optionalCategoryId().map(LongFilter::copy).orElse(null);
+        this.categorySubtreeId = other.optionalCategorySubtreeId().map(LongFilter::copy).orElse(null);
         this.brandId = other.optionalBrandId().map(LongFilter::copy).orElse(null);
         this.promotionsId = other.optionalPromotionsId().map(LongFilter::copy).orElse(null);
         this.distinct = other.distinct;
@@ -178,6 +184,25 @@ public class ProductCriteria implements Serializable, Criteria {
         this.oldPrice = oldPrice;
     }
 
+    public BigDecimalFilter getEffectivePrice() {
+        return effectivePrice;
+    }
+
+    public Optional<BigDecimalFilter> optionalEffectivePrice() {
+        return Optional.ofNullable(effectivePrice);
+    }
+
+    public BigDecimalFilter effectivePrice() {
+        if (effectivePrice == null) {
+            setEffectivePrice(new BigDecimalFilter());
+        }
+        return effectivePrice;
+    }
+
+    public void setEffectivePrice(BigDecimalFilter effectivePrice) {
+        this.effectivePrice = effectivePrice;
+    }
+
     public IntegerFilter getStock() {
         return stock;
     }
@@ -349,6 +374,25 @@ public class ProductCriteria implements Serializable, Criteria {
         this.categoryId = categoryId;
     }
 
+    public LongFilter getCategorySubtreeId() {
+        return categorySubtreeId;
+    }
+
+    public Optional<LongFilter> optionalCategorySubtreeId() {
+        return Optional.ofNullable(categorySubtreeId);
+    }
+
+    public LongFilter categorySubtreeId() {
+        if (categorySubtreeId == null) {
+            setCategorySubtreeId(new LongFilter());
+        }
+        return categorySubtreeId;
+    }
+
+    public void setCategorySubtreeId(LongFilter categorySubtreeId) {
+        this.categorySubtreeId = categorySubtreeId;
+    }
+
     public LongFilter getBrandId() {
         return brandId;
     }
@@ -421,6 +465,7 @@ public class ProductCriteria implements Serializable, Criteria {
             Objects.equals(slug, that.slug) &&
             Objects.equals(price, that.price) &&
             Objects.equals(oldPrice, that.oldPrice) &&
+            Objects.equals(effectivePrice, that.effectivePrice) &&
             Objects.equals(stock, that.stock) &&
             Objects.equals(sku, that.sku) &&
             Objects.equals(active, that.active) &&
@@ -430,6 +475,7 @@ public class ProductCriteria implements Serializable, Criteria {
             Objects.equals(metaDescription, that.metaDescription) &&
             Objects.equals(viewsCount, that.viewsCount) &&
             Objects.equals(categoryId, that.categoryId) &&
+            Objects.equals(categorySubtreeId, that.categorySubtreeId) &&
             Objects.equals(brandId, that.brandId) &&
             Objects.equals(promotionsId, that.promotionsId) &&
             Objects.equals(distinct, that.distinct)
@@ -444,6 +490,7 @@ public class ProductCriteria implements Serializable, Criteria {
             slug,
             price,
             oldPrice,
+            effectivePrice,
             stock,
             sku,
             active,
@@ -453,6 +500,7 @@ public class ProductCriteria implements Serializable, Criteria {
             metaDescription,
             viewsCount,
             categoryId,
+            categorySubtreeId,
             brandId,
             promotionsId,
             distinct
@@ -468,6 +516,7 @@ public class ProductCriteria implements Serializable, Criteria {
             optionalSlug().map(f -> "slug=" + f + ", ").orElse("") +
             optionalPrice().map(f -> "price=" + f + ", ").orElse("") +
             optionalOldPrice().map(f -> "oldPrice=" + f + ", ").orElse("") +
+            optionalEffectivePrice().map(f -> "effectivePrice=" + f + ", ").orElse("") +
             optionalStock().map(f -> "stock=" + f + ", ").orElse("") +
             optionalSku().map(f -> "sku=" + f + ", ").orElse("") +
             optionalActive().map(f -> "active=" + f + ", ").orElse("") +
@@ -477,6 +526,7 @@ public class ProductCriteria implements Serializable, Criteria {
             optionalMetaDescription().map(f -> "metaDescription=" + f + ", ").orElse("") +
             optionalViewsCount().map(f -> "viewsCount=" + f + ", ").orElse("") +
             optionalCategoryId().map(f -> "categoryId=" + f + ", ").orElse("") +
+            optionalCategorySubtreeId().map(f -> "categorySubtreeId=" + f + ", ").orElse("") +
             optionalBrandId().map(f -> "brandId=" + f + ", ").orElse("") +
             optionalPromotionsId().map(f -> "promotionsId=" + f + ", ").orElse("") +
             optionalDistinct().map(f -> "distinct=" + f + ", ").orElse("") +
@@ -0,0 +1,104 @@
+package com.ayadyasmine.pharmacyecom.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A node of the {@link com.ayadyasmine.pharmacyecom.domain.Category} tree, with its subcategories.
+ */
+public class CategoryTreeDTO implements Serializable {
+
+    private Long id;
+
+    private String name;
+
+    private String slug;
+
+    private Boolean active;
+
+    private List<CategoryTreeDTO> children = new ArrayList<>();
+
+    public CategoryTreeDTO() {}
+
+    public CategoryTreeDTO(Long id, String name, String slug, Boolean active) {
+        this.id = id;
+        this.name = name;
+        this.slug = slug;
+        this.active = active;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSlug() {
+        return slug;
+    }
+
+    public void setSlug(String slug) {
+        this.slug = slug;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+    public List<CategoryTreeDTO> getChildren() {
+        return children;
+    }
+
+    public void setChildren(List<CategoryTreeDTO> children) {
+        this.children = children;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CategoryTreeDTO)) {
+            return false;
+        }
+
+        CategoryTreeDTO categoryTreeDTO = (CategoryTreeDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, categoryTreeDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CategoryTreeDTO{" +
+            "id=" + getId() +
+            ", name='" + getName() + "'" +
+            ", slug='" + getSlug() + "'" +
+            ", active='" + getActive() + "'" +
+            ", children=" + getChildren().size() +
+            "}";
+    }
+}
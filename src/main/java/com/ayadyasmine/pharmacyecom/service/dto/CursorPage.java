@@ -0,0 +1,9 @@
+package com.ayadyasmine.pharmacyecom.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A page of a keyset pagination, with the token of the next page or {@code null} when this page is the last one.
+ */
+public record CursorPage<T>(List<T> content, String nextCursor) implements Serializable {}
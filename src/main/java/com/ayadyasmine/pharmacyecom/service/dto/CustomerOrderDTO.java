@@ -0,0 +1,155 @@
+package com.ayadyasmine.pharmacyecom.service.dto;
+
+import com.ayadyasmine.pharmacyecom.domain.enumeration.OrderStatus;
+import com.ayadyasmine.pharmacyecom.domain.enumeration.PaymentMethod;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A view of an {@link com.ayadyasmine.pharmacyecom.domain.Order} for the order history of its customer, with its lines
+ * and the time of its latest status change.
+ */
+public class CustomerOrderDTO implements Serializable {
+
+    private Long id;
+
+    private Instant orderDate;
+
+    private BigDecimal totalPrice;
+
+    private BigDecimal shippingFee;
+
+    private PaymentMethod paymentMethod;
+
+    private OrderStatus status;
+
+    private Instant statusChangedAt;
+
+    private String deliveryAddress;
+
+    private String trackingNumber;
+
+    private List<CustomerOrderItemDTO> items = new ArrayList<>();
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Instant getOrderDate() {
+        return orderDate;
+    }
+
+    public void setOrderDate(Instant orderDate) {
+        this.orderDate = orderDate;
+    }
+
+    public BigDecimal getTotalPrice() {
+        return totalPrice;
+    }
+
+    public void setTotalPrice(BigDecimal totalPrice) {
+        this.totalPrice = totalPrice;
+    }
+
+    public BigDecimal getShippingFee() {
+        return shippingFee;
+    }
+
+    public void setShippingFee(BigDecimal shippingFee) {
+        this.shippingFee = shippingFee;
+    }
+
+    public PaymentMethod getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(PaymentMethod paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public Instant getStatusChangedAt() {
+        return statusChangedAt;
+    }
+
+    public void setStatusChangedAt(Instant statusChangedAt) {
+        this.statusChangedAt = statusChangedAt;
+    }
+
+    public String getDeliveryAddress() {
+        return deliveryAddress;
+    }
+
+    public void setDeliveryAddress(String deliveryAddress) {
+        this.deliveryAddress = deliveryAddress;
+    }
+
+    public String getTrackingNumber() {
+        return trackingNumber;
+    }
+
+    public void setTrackingNumber(String trackingNumber) {
+        this.trackingNumber = trackingNumber;
+    }
+
+    public List<CustomerOrderItemDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<CustomerOrderItemDTO> items) {
+        this.items = items;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CustomerOrderDTO)) {
+            return false;
+        }
+
+        CustomerOrderDTO customerOrderDTO = (CustomerOrderDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, customerOrderDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CustomerOrderDTO{" +
+            "id=" + getId() +
+            ", orderDate='" + getOrderDate() + "'" +
+            ", totalPrice=" + getTotalPrice() +
+            ", shippingFee=" + getShippingFee() +
+            ", paymentMethod='" + getPaymentMethod() + "'" +
+            ", status='" + getStatus() + "'" +
+            ", statusChangedAt='" + getStatusChangedAt() + "'" +
+            ", deliveryAddress='" + getDeliveryAddress() + "'" +
+            ", trackingNumber='" + getTrackingNumber() + "'" +
+            ", items=" + getItems() +
+            "}";
+    }
+}
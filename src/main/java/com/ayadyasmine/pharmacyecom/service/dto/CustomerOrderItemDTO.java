@@ -0,0 +1,128 @@
+package com.ayadyasmine.pharmacyecom.service.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * A line of a {@link CustomerOrderDTO} or an {@link OrderDetailDTO}, with the names of its product and variant rather
+ * than the whole entities.
+ */
+public class CustomerOrderItemDTO implements Serializable {
+
+    private Long id;
+
+    private Integer quantity;
+
+    private BigDecimal unitPrice;
+
+    private Long productId;
+
+    private String productName;
+
+    private String productSlug;
+
+    private Long variantId;
+
+    private String variantLabel;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+
+    public void setUnitPrice(BigDecimal unitPrice) {
+        this.unitPrice = unitPrice;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public String getProductSlug() {
+        return productSlug;
+    }
+
+    public void setProductSlug(String productSlug) {
+        this.productSlug = productSlug;
+    }
+
+    public Long getVariantId() {
+        return variantId;
+    }
+
+    public void setVariantId(Long variantId) {
+        this.variantId = variantId;
+    }
+
+    public String getVariantLabel() {
+        return variantLabel;
+    }
+
+    public void setVariantLabel(String variantLabel) {
+        this.variantLabel = variantLabel;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CustomerOrderItemDTO)) {
+            return false;
+        }
+
+        CustomerOrderItemDTO customerOrderItemDTO = (CustomerOrderItemDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, customerOrderItemDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CustomerOrderItemDTO{" +
+            "id=" + getId() +
+            ", quantity=" + getQuantity() +
+            ", unitPrice=" + getUnitPrice() +
+            ", productId=" + getProductId() +
+            ", productName='" + getProductName() + "'" +
+            ", productSlug='" + getProductSlug() + "'" +
+            ", variantId=" + getVariantId() +
+            ", variantLabel='" + getVariantLabel() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,217 @@
+package com.ayadyasmine.pharmacyecom.service.dto;
+
+import com.ayadyasmine.pharmacyecom.domain.enumeration.OrderStatus;
+import com.ayadyasmine.pharmacyecom.domain.enumeration.PaymentMethod;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A view of an {@link com.ayadyasmine.pharmacyecom.domain.Order} for the order screens of the back office, with its
+ * customer, its lines and its whole status history.
+ */
+public class OrderDetailDTO implements Serializable {
+
+    private Long id;
+
+    private Instant orderDate;
+
+    private BigDecimal totalPrice;
+
+    private BigDecimal shippingFee;
+
+    private PaymentMethod paymentMethod;
+
+    private OrderStatus status;
+
+    private String deliveryAddress;
+
+    private String trackingNumber;
+
+    private Long customerId;
+
+    private String customerLogin;
+
+    private String customerFirstName;
+
+    private String customerLastName;
+
+    private String customerEmail;
+
+    private String customerPhone;
+
+    private List<CustomerOrderItemDTO> items = new ArrayList<>();
+
+    private List<OrderStatusHistoryDTO> statusHistories = new ArrayList<>();
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Instant getOrderDate() {
+        return orderDate;
+    }
+
+    public void setOrderDate(Instant orderDate) {
+        this.orderDate = orderDate;
+    }
+
+    public BigDecimal getTotalPrice() {
+        return totalPrice;
+    }
+
+    public void setTotalPrice(BigDecimal totalPrice) {
+        this.totalPrice = totalPrice;
+    }
+
+    public BigDecimal getShippingFee() {
+        return shippingFee;
+    }
+
+    public void setShippingFee(BigDecimal shippingFee) {
+        this.shippingFee = shippingFee;
+    }
+
+    public PaymentMethod getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(PaymentMethod paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public String getDeliveryAddress() {
+        return deliveryAddress;
+    }
+
+    public void setDeliveryAddress(String deliveryAddress) {
+        this.deliveryAddress = deliveryAddress;
+    }
+
+    public String getTrackingNumber() {
+        return trackingNumber;
+    }
+
+    public void setTrackingNumber(String trackingNumber) {
+        this.trackingNumber = trackingNumber;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getCustomerLogin() {
+        return customerLogin;
+    }
+
+    public void setCustomerLogin(String customerLogin) {
+        this.customerLogin = customerLogin;
+    }
+
+    public String getCustomerFirstName() {
+        return customerFirstName;
+    }
+
+    public void setCustomerFirstName(String customerFirstName) {
+        this.customerFirstName = customerFirstName;
+    }
+
+    public String getCustomerLastName() {
+        return customerLastName;
+    }
+
+    public void setCustomerLastName(String customerLastName) {
+        this.customerLastName = customerLastName;
+    }
+
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+
+    public void setCustomerEmail(String customerEmail) {
+        this.customerEmail = customerEmail;
+    }
+
+    public String getCustomerPhone() {
+        return customerPhone;
+    }
+
+    public void setCustomerPhone(String customerPhone) {
+        this.customerPhone = customerPhone;
+    }
+
+    public List<CustomerOrderItemDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<CustomerOrderItemDTO> items) {
+        this.items = items;
+    }
+
+    public List<OrderStatusHistoryDTO> getStatusHistories() {
+        return statusHistories;
+    }
+
+    public void setStatusHistories(List<OrderStatusHistoryDTO> statusHistories) {
+        this.statusHistories = statusHistories;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OrderDetailDTO)) {
+            return false;
+        }
+
+        OrderDetailDTO orderDetailDTO = (OrderDetailDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, orderDetailDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "OrderDetailDTO{" +
+            "id=" + getId() +
+            ", orderDate='" + getOrderDate() + "'" +
+            ", totalPrice=" + getTotalPrice() +
+            ", shippingFee=" + getShippingFee() +
+            ", paymentMethod='" + getPaymentMethod() + "'" +
+            ", status='" + getStatus() + "'" +
+            ", deliveryAddress='" + getDeliveryAddress() + "'" +
+            ", trackingNumber='" + getTrackingNumber() + "'" +
+            ", customerId=" + getCustomerId() +
+            ", customerLogin='" + getCustomerLogin() + "'" +
+            ", items=" + getItems() +
+            ", statusHistories=" + getStatusHistories() +
+            "}";
+    }
+}
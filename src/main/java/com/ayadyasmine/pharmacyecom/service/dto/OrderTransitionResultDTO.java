@@ -0,0 +1,117 @@
+package com.ayadyasmine.pharmacyecom.service.dto;
+
+import com.ayadyasmine.pharmacyecom.domain.enumeration.OrderStatus;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * The outcome of a status transition for one {@link com.ayadyasmine.pharmacyecom.domain.Order} of a bulk transition:
+ * either the order moved to the new status, or the error key telling why it did not.
+ */
+public class OrderTransitionResultDTO implements Serializable {
+
+    public static final String ORDER_NOT_FOUND = "ordernotfound";
+
+    public static final String TRANSITION_INVALID = "transitioninvalid";
+
+    private Long id;
+
+    private OrderStatus previousStatus;
+
+    private OrderStatus status;
+
+    private boolean transitioned;
+
+    private String error;
+
+    public static OrderTransitionResultDTO transitioned(Long id, OrderStatus previousStatus, OrderStatus status) {
+        OrderTransitionResultDTO result = new OrderTransitionResultDTO();
+        result.setId(id);
+        result.setPreviousStatus(previousStatus);
+        result.setStatus(status);
+        result.setTransitioned(true);
+        return result;
+    }
+
+    public static OrderTransitionResultDTO rejected(Long id, OrderStatus status, String error) {
+        OrderTransitionResultDTO result = new OrderTransitionResultDTO();
+        result.setId(id);
+        result.setPreviousStatus(status);
+        result.setStatus(status);
+        result.setError(error);
+        return result;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public OrderStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public void setPreviousStatus(OrderStatus previousStatus) {
+        this.previousStatus = previousStatus;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public boolean isTransitioned() {
+        return transitioned;
+    }
+
+    public void setTransitioned(boolean transitioned) {
+        this.transitioned = transitioned;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OrderTransitionResultDTO)) {
+            return false;
+        }
+
+        OrderTransitionResultDTO orderTransitionResultDTO = (OrderTransitionResultDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, orderTransitionResultDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "OrderTransitionResultDTO{" +
+            "id=" + getId() +
+            ", previousStatus='" + getPreviousStatus() + "'" +
+            ", status='" + getStatus() + "'" +
+            ", transitioned='" + isTransitioned() + "'" +
+            ", error='" + getError() + "'" +
+            "}";
+    }
+}
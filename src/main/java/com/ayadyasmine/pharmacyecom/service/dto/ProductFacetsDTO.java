@@ -0,0 +1,84 @@
+package com.ayadyasmine.pharmacyecom.service.dto;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Facet counts of the {@link com.ayadyasmine.pharmacyecom.domain.Product} entities matching a criteria.
+ */
+public class ProductFacetsDTO implements Serializable {
+
+    private long total;
+
+    private Map<Long, Long> categories = new LinkedHashMap<>();
+
+    private Map<Long, Long> brands = new LinkedHashMap<>();
+
+    private Map<String, Long> priceBuckets = new LinkedHashMap<>();
+
+    private long inStock;
+
+    private long outOfStock;
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Map<Long, Long> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(Map<Long, Long> categories) {
+        this.categories = categories;
+    }
+
+    public Map<Long, Long> getBrands() {
+        return brands;
+    }
+
+    public void setBrands(Map<Long, Long> brands) {
+        this.brands = brands;
+    }
+
+    public Map<String, Long> getPriceBuckets() {
+        return priceBuckets;
+    }
+
+    public void setPriceBuckets(Map<String, Long> priceBuckets) {
+        this.priceBuckets = priceBuckets;
+    }
+
+    public long getInStock() {
+        return inStock;
+    }
+
+    public void setInStock(long inStock) {
+        this.inStock = inStock;
+    }
+
+    public long getOutOfStock() {
+        return outOfStock;
+    }
+
+    public void setOutOfStock(long outOfStock) {
+        this.outOfStock = outOfStock;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProductFacetsDTO{" +
+            "total=" + getTotal() +
+            ", categories=" + getCategories() +
+            ", brands=" + getBrands() +
+            ", priceBuckets=" + getPriceBuckets() +
+            ", inStock=" + getInStock() +
+            ", outOfStock=" + getOutOfStock() +
+            "}";
+    }
+}
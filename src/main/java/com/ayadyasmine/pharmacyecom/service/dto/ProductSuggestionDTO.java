@@ -0,0 +1,91 @@
+package com.ayadyasmine.pharmacyecom.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A typeahead suggestion for the {@link com.ayadyasmine.pharmacyecom.domain.Product} entity.
+ */
+public class ProductSuggestionDTO implements Serializable {
+
+    private Long id;
+
+    private String name;
+
+    private String slug;
+
+    private String brandName;
+
+    public ProductSuggestionDTO() {}
+
+    public ProductSuggestionDTO(Long id, String name, String slug, String brandName) {
+        this.id = id;
+        this.name = name;
+        this.slug = slug;
+        this.brandName = brandName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSlug() {
+        return slug;
+    }
+
+    public void setSlug(String slug) {
+        this.slug = slug;
+    }
+
+    public String getBrandName() {
+        return brandName;
+    }
+
+    public void setBrandName(String brandName) {
+        this.brandName = brandName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProductSuggestionDTO)) {
+            return false;
+        }
+
+        ProductSuggestionDTO productSuggestionDTO = (ProductSuggestionDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, productSuggestionDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProductSuggestionDTO{" +
+            "id=" + getId() +
+            ", name='" + getName() + "'" +
+            ", slug='" + getSlug() + "'" +
+            ", brandName='" + getBrandName() + "'" +
+            "}";
+    }
+}
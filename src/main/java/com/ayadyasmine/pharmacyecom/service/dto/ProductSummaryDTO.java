@@ -0,0 +1,172 @@
+package com.ayadyasmine.pharmacyecom.service.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * A lightweight view of the {@link com.ayadyasmine.pharmacyecom.domain.Product} entity for listing grids,
+ * without the text contents nor the promotions.
+ */
+public class ProductSummaryDTO implements Serializable {
+
+    private Long id;
+
+    private String name;
+
+    private String slug;
+
+    private BigDecimal price;
+
+    private BigDecimal oldPrice;
+
+    private BigDecimal discountedPrice;
+
+    private Integer stock;
+
+    private Boolean active;
+
+    private Long categoryId;
+
+    private String categoryName;
+
+    private Long brandId;
+
+    private String brandName;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSlug() {
+        return slug;
+    }
+
+    public void setSlug(String slug) {
+        this.slug = slug;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public BigDecimal getOldPrice() {
+        return oldPrice;
+    }
+
+    public void setOldPrice(BigDecimal oldPrice) {
+        this.oldPrice = oldPrice;
+    }
+
+    public BigDecimal getDiscountedPrice() {
+        return discountedPrice;
+    }
+
+    public void setDiscountedPrice(BigDecimal discountedPrice) {
+        this.discountedPrice = discountedPrice;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public void setCategoryName(String categoryName) {
+        this.categoryName = categoryName;
+    }
+
+    public Long getBrandId() {
+        return brandId;
+    }
+
+    public void setBrandId(Long brandId) {
+        this.brandId = brandId;
+    }
+
+    public String getBrandName() {
+        return brandName;
+    }
+
+    public void setBrandName(String brandName) {
+        this.brandName = brandName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProductSummaryDTO)) {
+            return false;
+        }
+
+        ProductSummaryDTO productSummaryDTO = (ProductSummaryDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, productSummaryDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProductSummaryDTO{" +
+            "id=" + getId() +
+            ", name='" + getName() + "'" +
+            ", slug='" + getSlug() + "'" +
+            ", price=" + getPrice() +
+            ", oldPrice=" + getOldPrice() +
+            ", discountedPrice=" + getDiscountedPrice() +
+            ", stock=" + getStock() +
+            ", active=" + getActive() +
+            ", categoryId=" + getCategoryId() +
+            ", categoryName='" + getCategoryName() + "'" +
+            ", brandId=" + getBrandId() +
+            ", brandName='" + getBrandName() + "'" +
+            "}";
+    }
+}
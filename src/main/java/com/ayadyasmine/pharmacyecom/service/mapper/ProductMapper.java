@@ -4,6 +4,7 @@ import com.ayadyasmine.pharmacyecom.domain.Brand;
 import com.ayadyasmine.pharmacyecom.domain.Category;
 import com.ayadyasmine.pharmacyecom.domain.Product;
 import com.ayadyasmine.pharmacyecom.domain.Promotion;
+import com.ayadyasmine.pharmacyecom.repository.ProductRepository.ProductContent;
 import com.ayadyasmine.pharmacyecom.service.dto.BrandDTO;
 import com.ayadyasmine.pharmacyecom.service.dto.CategoryDTO;
 import com.ayadyasmine.pharmacyecom.service.dto.ProductDTO;
@@ -20,8 +21,33 @@ public interface ProductMapper extends EntityMapper<ProductDTO, Product> {
     @Mapping(target = "category", source = "category", qualifiedByName = "categoryName")
     @Mapping(target = "brand", source = "brand", qualifiedByName = "brandName")
     @Mapping(target = "promotions", source = "promotions", qualifiedByName = "promotionTitleSet")
+    @Mapping(target = "discountedPrice", source = "effectivePrice")
     ProductDTO toDto(Product s);
 
+    /**
+     * Map a product for a listing without its text contents, so that these lazy attributes are not loaded one product
+     * at a time; the contents of the whole page are then set with {@link #updateContent}.
+     */
+    @Named("withoutContent")
+    @Mapping(target = "category", source = "category", qualifiedByName = "categoryName")
+    @Mapping(target = "brand", source = "brand", qualifiedByName = "brandName")
+    @Mapping(target = "promotions", source = "promotions", qualifiedByName = "promotionTitleSet")
+    @Mapping(target = "discountedPrice", source = "effectivePrice")
+    @Mapping(target = "description", ignore = true)
+    @Mapping(target = "composition", ignore = true)
+    @Mapping(target = "usageAdvice", ignore = true)
+    ProductDTO toDtoWithoutContent(Product s);
+
+    /**
+     * Set the text contents of a product mapped without them.
+     */
+    @BeanMapping(ignoreByDefault = true)
+    @Mapping(target = "description", source = "description")
+    @Mapping(target = "composition", source = "composition")
+    @Mapping(target = "usageAdvice", source = "usageAdvice")
+    void updateContent(@MappingTarget ProductDTO productDTO, ProductContent content);
+
+    @Mapping(target = "effectivePrice", ignore = true)
     @Mapping(target = "promotions", ignore = true)
     @Mapping(target = "removePromotions", ignore = true)
     Product toEntity(ProductDTO productDTO);
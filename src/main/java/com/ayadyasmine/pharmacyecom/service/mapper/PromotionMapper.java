@@ -16,6 +16,7 @@ public interface PromotionMapper extends EntityMapper<PromotionDTO, Promotion> {
     @Mapping(target = "products", source = "products", qualifiedByName = "productNameSet")
     PromotionDTO toDto(Promotion s);
 
+    @Mapping(target = "live", ignore = true)
     @Mapping(target = "removeProducts", ignore = true)
     Promotion toEntity(PromotionDTO promotionDTO);
 
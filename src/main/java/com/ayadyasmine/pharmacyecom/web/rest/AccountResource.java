@@ -4,8 +4,11 @@ import com.ayadyasmine.pharmacyecom.domain.User;
 import com.ayadyasmine.pharmacyecom.repository.UserRepository;
 import com.ayadyasmine.pharmacyecom.security.SecurityUtils;
 import com.ayadyasmine.pharmacyecom.service.MailService;
+import com.ayadyasmine.pharmacyecom.service.OrderQueryService;
 import com.ayadyasmine.pharmacyecom.service.UserService;
 import com.ayadyasmine.pharmacyecom.service.dto.AdminUserDTO;
+import com.ayadyasmine.pharmacyecom.service.dto.CursorPage;
+import com.ayadyasmine.pharmacyecom.service.dto.CustomerOrderDTO;
 import com.ayadyasmine.pharmacyecom.service.dto.PasswordChangeDTO;
 import com.ayadyasmine.pharmacyecom.web.rest.errors.*;
 import com.ayadyasmine.pharmacyecom.web.rest.vm.KeyAndPasswordVM;
@@ -15,7 +18,10 @@ import java.util.*;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -34,16 +40,26 @@ public class AccountResource {
 
     private static final Logger LOG = LoggerFactory.getLogger(AccountResource.class);
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final UserRepository userRepository;
 
     private final UserService userService;
 
     private final MailService mailService;
 
-    public AccountResource(UserRepository userRepository, UserService userService, MailService mailService) {
+    private final OrderQueryService orderQueryService;
+
+    public AccountResource(
+        UserRepository userRepository,
+        UserService userService,
+        MailService mailService,
+        OrderQueryService orderQueryService
+    ) {
         this.userRepository = userRepository;
         this.userService = userService;
         this.mailService = mailService;
+        this.orderQueryService = orderQueryService;
     }
 
     /**
@@ -120,6 +136,39 @@ public class AccountResource {
         );
     }
 
+    /**
+     * {@code GET  /account/orders} : get the orders of the current user, most recent first, with their lines.
+     *
+     * <p>
+     * The orders are paginated by keyset: omit the cursor for the first page, then pass the value of the
+     * {@code X-Next-Cursor} header, absent on the last page. No total count is computed.
+     *
+     * @param cursor the continuation token.
+     * @param pageable the page size.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the orders in body,
+     * or with status {@code 400 (Bad Request)} if the cursor is invalid.
+     * @throws RuntimeException {@code 500 (Internal Server Error)} if the user login wasn't found.
+     */
+    @GetMapping("/account/orders")
+    public ResponseEntity<List<CustomerOrderDTO>> getAccountOrders(
+        @RequestParam(name = "cursor", defaultValue = "") String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        String userLogin = SecurityUtils.getCurrentUserLogin()
+            .orElseThrow(() -> new AccountResourceException("Current user login not found"));
+        CursorPage<CustomerOrderDTO> page;
+        try {
+            page = orderQueryService.findByCustomer(userLogin, cursor, pageable.getPageSize());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", "order", "cursorinvalid");
+        }
+        HttpHeaders headers = new HttpHeaders();
+        if (page.nextCursor() != null) {
+            headers.add(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return ResponseEntity.ok().headers(headers).body(page.content());
+    }
+
     /**
      * {@code POST  /account/change-password} : changes the current user's password.
      *
@@ -162,6 +162,19 @@ public class ArticleResource {
         return ResponseUtil.wrapOrNotFound(articleDTO);
     }
 
+    /**
+     * {@code GET  /articles/by-slug/:slug} : get the article with the given slug.
+     *
+     * @param slug the slug of the articleDTO to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the articleDTO, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/by-slug/{slug}")
+    public ResponseEntity<ArticleDTO> getArticleBySlug(@PathVariable("slug") String slug) {
+        LOG.debug("REST request to get Article by slug : {}", slug);
+        Optional<ArticleDTO> articleDTO = articleService.findOneBySlug(slug);
+        return ResponseUtil.wrapOrNotFound(articleDTO);
+    }
+
     /**
      * {@code DELETE  /articles/:id} : delete the "id" article.
      *
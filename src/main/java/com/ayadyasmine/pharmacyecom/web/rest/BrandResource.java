@@ -184,6 +184,19 @@ public class BrandResource {
         return ResponseUtil.wrapOrNotFound(brandDTO);
     }
 
+    /**
+     * {@code GET  /brands/by-slug/:slug} : get the brand with the given slug.
+     *
+     * @param slug the slug of the brandDTO to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the brandDTO, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/by-slug/{slug}")
+    public ResponseEntity<BrandDTO> getBrandBySlug(@PathVariable("slug") String slug) {
+        LOG.debug("REST request to get Brand by slug : {}", slug);
+        Optional<BrandDTO> brandDTO = brandService.findOneBySlug(slug);
+        return ResponseUtil.wrapOrNotFound(brandDTO);
+    }
+
     /**
      * {@code DELETE  /brands/:id} : delete the "id" brand.
      *
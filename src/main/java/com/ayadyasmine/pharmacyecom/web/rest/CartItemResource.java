@@ -2,6 +2,7 @@ package com.ayadyasmine.pharmacyecom.web.rest;
 
 import com.ayadyasmine.pharmacyecom.repository.CartItemRepository;
 import com.ayadyasmine.pharmacyecom.service.CartItemService;
+import com.ayadyasmine.pharmacyecom.service.InsufficientStockException;
 import com.ayadyasmine.pharmacyecom.service.dto.CartItemDTO;
 import com.ayadyasmine.pharmacyecom.web.rest.errors.BadRequestAlertException;
 import jakarta.validation.Valid;
@@ -46,7 +47,7 @@ public class CartItemResource {
      * {@code POST  /cart-items} : Create a new cartItem.
      *
      * @param cartItemDTO the cartItemDTO to create.
-     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new cartItemDTO, or with status {@code 400 (Bad Request)} if the cartItem has already an ID.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new cartItemDTO, or with status {@code 400 (Bad Request)} if the cartItem has already an ID or its quantity is not available to sell.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("")
@@ -55,7 +56,11 @@ public class CartItemResource {
         if (cartItemDTO.getId() != null) {
             throw new BadRequestAlertException("A new cartItem cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        cartItemDTO = cartItemService.save(cartItemDTO);
+        try {
+            cartItemDTO = cartItemService.save(cartItemDTO);
+        } catch (InsufficientStockException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "stockinsufficient");
+        }
         return ResponseEntity.created(new URI("/api/cart-items/" + cartItemDTO.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, cartItemDTO.getId().toString()))
             .body(cartItemDTO);
@@ -88,7 +93,11 @@ public class CartItemResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        cartItemDTO = cartItemService.update(cartItemDTO);
+        try {
+            cartItemDTO = cartItemService.update(cartItemDTO);
+        } catch (InsufficientStockException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "stockinsufficient");
+        }
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, cartItemDTO.getId().toString()))
             .body(cartItemDTO);
@@ -122,7 +131,12 @@ public class CartItemResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        Optional<CartItemDTO> result = cartItemService.partialUpdate(cartItemDTO);
+        Optional<CartItemDTO> result;
+        try {
+            result = cartItemService.partialUpdate(cartItemDTO);
+        } catch (InsufficientStockException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "stockinsufficient");
+        }
 
         return ResponseUtil.wrapOrNotFound(
             result,
@@ -3,6 +3,7 @@ package com.ayadyasmine.pharmacyecom.web.rest;
 import com.ayadyasmine.pharmacyecom.repository.CartRepository;
 import com.ayadyasmine.pharmacyecom.security.SecurityUtils;
 import com.ayadyasmine.pharmacyecom.service.CartService;
+import com.ayadyasmine.pharmacyecom.service.InsufficientStockException;
 import com.ayadyasmine.pharmacyecom.service.dto.CartDTO;
 import com.ayadyasmine.pharmacyecom.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
@@ -177,7 +178,11 @@ public class CartResource {
         String login = SecurityUtils.getCurrentUserLogin()
             .orElseThrow(() -> new RuntimeException("Utilisateur non authentifié"));
 
-        cartService.addVariantToCart(variantId, quantity, login);
+        try {
+            cartService.addVariantToCart(variantId, quantity, login);
+        } catch (InsufficientStockException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "stockinsufficient");
+        }
         return ResponseEntity.ok().build();
     }
 }
@@ -5,6 +5,7 @@ import com.ayadyasmine.pharmacyecom.service.CategoryQueryService;
 import com.ayadyasmine.pharmacyecom.service.CategoryService;
 import com.ayadyasmine.pharmacyecom.service.criteria.CategoryCriteria;
 import com.ayadyasmine.pharmacyecom.service.dto.CategoryDTO;
+import com.ayadyasmine.pharmacyecom.service.dto.CategoryTreeDTO;
 import com.ayadyasmine.pharmacyecom.web.rest.errors.BadRequestAlertException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
@@ -101,6 +102,9 @@ public class CategoryResource {
         if (!categoryRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        if (categoryDTO.getParent() != null && categoryService.isInSubtree(categoryDTO.getParent().getId(), id)) {
+            throw new BadRequestAlertException("A category cannot be moved under its own subtree", ENTITY_NAME, "parentinsubtree");
+        }
 
         categoryDTO = categoryService.update(categoryDTO);
         return ResponseEntity.ok()
@@ -135,6 +139,9 @@ public class CategoryResource {
         if (!categoryRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
+        if (categoryDTO.getParent() != null && categoryService.isInSubtree(categoryDTO.getParent().getId(), id)) {
+            throw new BadRequestAlertException("A category cannot be moved under its own subtree", ENTITY_NAME, "parentinsubtree");
+        }
 
         Optional<CategoryDTO> result = categoryService.partialUpdate(categoryDTO);
 
@@ -163,6 +170,17 @@ public class CategoryResource {
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /categories/tree} : get the whole category tree.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the root categories, with their subcategories, in body.
+     */
+    @GetMapping("/tree")
+    public ResponseEntity<List<CategoryTreeDTO>> getCategoryTree() {
+        LOG.debug("REST request to get the Category tree");
+        return ResponseEntity.ok().body(categoryService.findTree());
+    }
+
     /**
      * {@code GET  /categories/count} : count all the categories.
      *
@@ -188,6 +206,19 @@ public class CategoryResource {
         return ResponseUtil.wrapOrNotFound(categoryDTO);
     }
 
+    /**
+     * {@code GET  /categories/by-slug/:slug} : get the category with the given slug.
+     *
+     * @param slug the slug of the categoryDTO to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the categoryDTO, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/by-slug/{slug}")
+    public ResponseEntity<CategoryDTO> getCategoryBySlug(@PathVariable("slug") String slug) {
+        LOG.debug("REST request to get Category by slug : {}", slug);
+        Optional<CategoryDTO> categoryDTO = categoryService.findOneBySlug(slug);
+        return ResponseUtil.wrapOrNotFound(categoryDTO);
+    }
+
     /**
      * {@code DELETE  /categories/:id} : delete the "id" category.
      *
@@ -2,13 +2,22 @@ package com.ayadyasmine.pharmacyecom.web.rest;
 
 import com.ayadyasmine.pharmacyecom.domain.Order;
 import com.ayadyasmine.pharmacyecom.repository.OrderRepository;
+import com.ayadyasmine.pharmacyecom.security.AuthoritiesConstants;
 import com.ayadyasmine.pharmacyecom.security.SecurityUtils;
+import com.ayadyasmine.pharmacyecom.service.CheckoutQueueFullException;
+import com.ayadyasmine.pharmacyecom.service.CheckoutQueueService;
+import com.ayadyasmine.pharmacyecom.service.InsufficientStockException;
+import com.ayadyasmine.pharmacyecom.service.OrderDetailService;
 import com.ayadyasmine.pharmacyecom.service.OrderQueryService;
 import com.ayadyasmine.pharmacyecom.service.OrderService;
 import com.ayadyasmine.pharmacyecom.service.criteria.OrderCriteria;
+import com.ayadyasmine.pharmacyecom.service.dto.CursorPage;
 import com.ayadyasmine.pharmacyecom.service.dto.OrderDTO;
+import com.ayadyasmine.pharmacyecom.service.dto.OrderDetailDTO;
+import com.ayadyasmine.pharmacyecom.service.dto.OrderTransitionResultDTO;
 import com.ayadyasmine.pharmacyecom.web.rest.errors.BadRequestAlertException;
 import com.ayadyasmine.pharmacyecom.web.rest.vm.CheckoutVM;
+import com.ayadyasmine.pharmacyecom.web.rest.vm.OrderTransitionVM;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
@@ -22,8 +31,11 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -40,6 +52,12 @@ public class OrderResource {
 
     private static final String ENTITY_NAME = "order";
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final int IDEMPOTENCY_KEY_MAX_LENGTH = 255;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -49,10 +67,22 @@ public class OrderResource {
 
     private final OrderQueryService orderQueryService;
 
-    public OrderResource(OrderService orderService, OrderRepository orderRepository, OrderQueryService orderQueryService) {
+    private final CheckoutQueueService checkoutQueueService;
+
+    private final OrderDetailService orderDetailService;
+
+    public OrderResource(
+        OrderService orderService,
+        OrderRepository orderRepository,
+        OrderQueryService orderQueryService,
+        CheckoutQueueService checkoutQueueService,
+        OrderDetailService orderDetailService
+    ) {
         this.orderService = orderService;
         this.orderRepository = orderRepository;
         this.orderQueryService = orderQueryService;
+        this.checkoutQueueService = checkoutQueueService;
+        this.orderDetailService = orderDetailService;
     }
 
     /**
@@ -146,16 +176,36 @@ public class OrderResource {
     /**
      * {@code GET  /orders} : get all the orders.
      *
+     * <p>
+     * When {@code cursor} is given, keyset pagination is used instead of page numbers: pass an empty cursor for the first
+     * page, then the value of the {@code X-Next-Cursor} header, absent on the last page. No total count is computed.
+     *
      * @param pageable the pagination information.
+     * @param cursor the continuation token, to opt into keyset pagination.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of orders in body.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of orders in body,
+     * or with status {@code 400 (Bad Request)} if the cursor is invalid.
      */
     @GetMapping("")
     public ResponseEntity<List<OrderDTO>> getAllOrders(
         OrderCriteria criteria,
+        @RequestParam(name = "cursor", required = false) String cursor,
         @org.springdoc.core.annotations.ParameterObject Pageable pageable
     ) {
         LOG.debug("REST request to get Orders by criteria: {}", criteria);
+        if (cursor != null) {
+            CursorPage<OrderDTO> page;
+            try {
+                page = orderQueryService.findByCriteria(criteria, cursor, pageable);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+            }
+            HttpHeaders headers = new HttpHeaders();
+            if (page.nextCursor() != null) {
+                headers.add(NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return ResponseEntity.ok().headers(headers).body(page.content());
+        }
 
         Page<OrderDTO> page = orderQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
@@ -187,6 +237,18 @@ public class OrderResource {
         return ResponseUtil.wrapOrNotFound(orderDTO);
     }
 
+    /**
+     * {@code GET  /orders/:id/detail} : get the "id" order with its customer, lines and status history.
+     *
+     * @param id the id of the order to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the orderDetailDTO, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{id}/detail")
+    public ResponseEntity<OrderDetailDTO> getOrderDetail(@PathVariable("id") Long id) {
+        LOG.debug("REST request to get the detail of Order : {}", id);
+        return ResponseUtil.wrapOrNotFound(orderDetailService.findOne(id));
+    }
+
     /**
      * {@code DELETE  /orders/:id} : delete the "id" order.
      *
@@ -202,12 +264,57 @@ public class OrderResource {
             .build();
     }
 
+    /**
+     * {@code POST  /orders/_transition} : move several orders to a status at once.
+     *
+     * @param orderTransitionVM the ids of the orders, the new status, and optionally tracking numbers by order id and
+     * notes for the status history.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of each order, an order
+     * that does not exist or may not move to the status being left unchanged, or with status {@code 400 (Bad Request)}
+     * if the request is not valid.
+     */
+    @PostMapping("/_transition")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<List<OrderTransitionResultDTO>> transitionOrders(@Valid @RequestBody OrderTransitionVM orderTransitionVM) {
+        LOG.debug("REST request to move Orders to {} : {}", orderTransitionVM.getStatus(), orderTransitionVM.getOrderIds());
+        List<OrderTransitionResultDTO> results = orderService.transition(
+            orderTransitionVM.getOrderIds(),
+            orderTransitionVM.getStatus(),
+            orderTransitionVM.getTrackingNumbers(),
+            orderTransitionVM.getNotes()
+        );
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * {@code POST  /orders/checkout} : turn the cart of the current user into an order.
+     *
+     * @param idempotencyKey a key identifying the checkout across client retries: a retry with the same key returns
+     * the order of the first attempt.
+     * @param checkoutVM the delivery address and payment method.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the order, or with status {@code 400 (Bad Request)}
+     * if the idempotency key is invalid or a variant has not enough stock, or with status {@code 503 (Service Unavailable)}
+     * if the checkout queue is full.
+     */
     @PostMapping("/checkout")
-    public ResponseEntity<OrderDTO> checkout(@RequestBody CheckoutVM checkoutVM) {
+    public ResponseEntity<OrderDTO> checkout(
+        @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+        @RequestBody CheckoutVM checkoutVM
+    ) {
         String login = SecurityUtils.getCurrentUserLogin()
             .orElseThrow(() -> new RuntimeException("Non authentifié"));
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > IDEMPOTENCY_KEY_MAX_LENGTH)) {
+            throw new BadRequestAlertException("Invalid Idempotency-Key", ENTITY_NAME, "idempotencykeyinvalid");
+        }
 
-        OrderDTO orderDTO = orderService.checkout(login, checkoutVM.getAddress(), checkoutVM.getPaymentMethod());
+        OrderDTO orderDTO;
+        try {
+            orderDTO = checkoutQueueService.checkout(login, idempotencyKey, checkoutVM.getAddress(), checkoutVM.getPaymentMethod());
+        } catch (InsufficientStockException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "stockinsufficient");
+        } catch (CheckoutQueueFullException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+        }
 
         return ResponseEntity.ok(orderDTO);
     }
@@ -2,9 +2,14 @@ package com.ayadyasmine.pharmacyecom.web.rest;
 
 import com.ayadyasmine.pharmacyecom.repository.ProductRepository;
 import com.ayadyasmine.pharmacyecom.service.ProductQueryService;
+import com.ayadyasmine.pharmacyecom.service.ProductRecommendationService;
 import com.ayadyasmine.pharmacyecom.service.ProductService;
 import com.ayadyasmine.pharmacyecom.service.criteria.ProductCriteria;
+import com.ayadyasmine.pharmacyecom.service.dto.CursorPage;
 import com.ayadyasmine.pharmacyecom.service.dto.ProductDTO;
+import com.ayadyasmine.pharmacyecom.service.dto.ProductFacetsDTO;
+import com.ayadyasmine.pharmacyecom.service.dto.ProductSuggestionDTO;
+import com.ayadyasmine.pharmacyecom.service.dto.ProductSummaryDTO;
 import com.ayadyasmine.pharmacyecom.web.rest.errors.BadRequestAlertException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
@@ -37,6 +42,8 @@ public class ProductResource {
 
     private static final String ENTITY_NAME = "product";
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -46,10 +53,18 @@ public class ProductResource {
 
     private final ProductQueryService productQueryService;
 
-    public ProductResource(ProductService productService, ProductRepository productRepository, ProductQueryService productQueryService) {
+    private final ProductRecommendationService productRecommendationService;
+
+    public ProductResource(
+        ProductService productService,
+        ProductRepository productRepository,
+        ProductQueryService productQueryService,
+        ProductRecommendationService productRecommendationService
+    ) {
         this.productService = productService;
         this.productRepository = productRepository;
         this.productQueryService = productQueryService;
+        this.productRecommendationService = productRecommendationService;
     }
 
     /**
@@ -143,22 +158,95 @@ public class ProductResource {
     /**
      * {@code GET  /products} : get all the products.
      *
+     * <p>
+     * When {@code cursor} is given, keyset pagination is used instead of page numbers: pass an empty cursor for the first
+     * page, then the value of the {@code X-Next-Cursor} header, absent on the last page. No total count is computed.
+     *
      * @param pageable the pagination information.
+     * @param cursor the continuation token, to opt into keyset pagination.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body,
+     * or with status {@code 400 (Bad Request)} if the cursor is invalid.
      */
     @GetMapping("")
     public ResponseEntity<List<ProductDTO>> getAllProducts(
         ProductCriteria criteria,
+        @RequestParam(name = "cursor", required = false) String cursor,
         @org.springdoc.core.annotations.ParameterObject Pageable pageable
     ) {
         LOG.debug("REST request to get Products by criteria: {}", criteria);
+        if (cursor != null) {
+            CursorPage<ProductDTO> page;
+            try {
+                page = productQueryService.findByCriteria(criteria, cursor, pageable);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+            }
+            HttpHeaders headers = new HttpHeaders();
+            if (page.nextCursor() != null) {
+                headers.add(NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return ResponseEntity.ok().headers(headers).body(page.content());
+        }
 
         Page<ProductDTO> page = productQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /products?view=summary} : get the summaries of all the products, for listing grids.
+     *
+     * @param pageable the pagination information.
+     * @param criteria the criteria which the requested entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of product summaries in body.
+     */
+    @GetMapping(value = "", params = "view=summary")
+    public ResponseEntity<List<ProductSummaryDTO>> getAllProductSummaries(
+        ProductCriteria criteria,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to get Product summaries by criteria: {}", criteria);
+
+        Page<ProductSummaryDTO> page = productQueryService.findSummariesByCriteria(criteria, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /products/_search?q=:query} : full-text search of the products, ranked by relevance.
+     *
+     * @param query the search terms.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body.
+     */
+    @GetMapping("/_search")
+    public ResponseEntity<List<ProductDTO>> searchProducts(
+        @RequestParam("q") String query,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to search Products : {}", query);
+        Page<ProductDTO> page = productService.search(query, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /products/_suggest?q=:query} : typeahead suggestions for the products, served from memory.
+     *
+     * @param query the text typed so far.
+     * @param limit the maximum number of suggestions.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of suggestions in body.
+     */
+    @GetMapping("/_suggest")
+    public ResponseEntity<List<ProductSuggestionDTO>> suggestProducts(
+        @RequestParam("q") String query,
+        @RequestParam(value = "limit", defaultValue = "10") int limit
+    ) {
+        LOG.debug("REST request to suggest Products : {}", query);
+        return ResponseEntity.ok().body(productService.suggest(query, Math.min(limit, 50)));
+    }
+
     /**
      * {@code GET  /products/count} : count all the products.
      *
@@ -171,6 +259,18 @@ public class ProductResource {
         return ResponseEntity.ok().body(productQueryService.countByCriteria(criteria));
     }
 
+    /**
+     * {@code GET  /products/facets} : count the products per category, brand, price bucket and stock status.
+     *
+     * @param criteria the criteria which the counted entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the facet counts in body.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacetsDTO> getProductFacets(ProductCriteria criteria) {
+        LOG.debug("REST request to get Product facets by criteria: {}", criteria);
+        return ResponseEntity.ok().body(productQueryService.facets(criteria));
+    }
+
     /**
      * {@code GET  /products/:id} : get the "id" product.
      *
@@ -184,6 +284,31 @@ public class ProductResource {
         return ResponseUtil.wrapOrNotFound(productDTO);
     }
 
+    /**
+     * {@code GET  /products/:id/related} : get the products frequently bought together with the "id" product.
+     *
+     * @param id the id of the product.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of product summaries in body, most bought together first.
+     */
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<ProductSummaryDTO>> getRelatedProducts(@PathVariable("id") Long id) {
+        LOG.debug("REST request to get related Products of Product : {}", id);
+        return ResponseEntity.ok().body(productRecommendationService.findRelated(id));
+    }
+
+    /**
+     * {@code GET  /products/by-slug/:slug} : get the product with the given slug.
+     *
+     * @param slug the slug of the productDTO to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the productDTO, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/by-slug/{slug}")
+    public ResponseEntity<ProductDTO> getProductBySlug(@PathVariable("slug") String slug) {
+        LOG.debug("REST request to get Product by slug : {}", slug);
+        Optional<ProductDTO> productDTO = productService.findOneBySlug(slug);
+        return ResponseUtil.wrapOrNotFound(productDTO);
+    }
+
     /**
      * {@code DELETE  /products/:id} : delete the "id" product.
      *
@@ -1,6 +1,7 @@
 package com.ayadyasmine.pharmacyecom.web.rest;
 
 import com.ayadyasmine.pharmacyecom.repository.ProductVariantRepository;
+import com.ayadyasmine.pharmacyecom.security.AuthoritiesConstants;
 import com.ayadyasmine.pharmacyecom.service.ProductVariantService;
 import com.ayadyasmine.pharmacyecom.service.dto.ProductVariantDTO;
 import com.ayadyasmine.pharmacyecom.web.rest.errors.BadRequestAlertException;
@@ -15,6 +16,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -145,6 +147,46 @@ public class ProductVariantResource {
         return productVariantService.findAll();
     }
 
+    /**
+     * {@code GET  /product-variants/:id/available} : get the quantity of the "id" productVariant that can still be added to a cart.
+     *
+     * @param id the id of the productVariant.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the available quantity, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{id}/available")
+    public ResponseEntity<Integer> getProductVariantAvailableToSell(@PathVariable("id") Long id) {
+        LOG.debug("REST request to get available quantity of ProductVariant : {}", id);
+        return ResponseUtil.wrapOrNotFound(productVariantService.findAvailableToSell(id));
+    }
+
+    /**
+     * {@code PUT  /product-variants/:id/hot-stock} : mirror the stock of the "id" productVariant in an in-memory counter,
+     * for variants whose checkouts contend on their row.
+     *
+     * @param id the id of the productVariant.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the stock of the counter, or with status {@code 404 (Not Found)}.
+     */
+    @PutMapping("/{id}/hot-stock")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<Integer> enableProductVariantHotStock(@PathVariable("id") Long id) {
+        LOG.debug("REST request to enable hot stock of ProductVariant : {}", id);
+        return ResponseUtil.wrapOrNotFound(productVariantService.enableHotStock(id));
+    }
+
+    /**
+     * {@code DELETE  /product-variants/:id/hot-stock} : stop mirroring the stock of the "id" productVariant in memory.
+     *
+     * @param id the id of the productVariant.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+     */
+    @DeleteMapping("/{id}/hot-stock")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<Void> disableProductVariantHotStock(@PathVariable("id") Long id) {
+        LOG.debug("REST request to disable hot stock of ProductVariant : {}", id);
+        productVariantService.disableHotStock(id);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * {@code GET  /product-variants/:id} : get the "id" productVariant.
      *
@@ -0,0 +1,61 @@
+package com.ayadyasmine.pharmacyecom.web.rest.vm;
+
+import com.ayadyasmine.pharmacyecom.domain.enumeration.OrderStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * View Model for bulk order status transitions.
+ */
+public class OrderTransitionVM {
+
+    public static final int MAX_ORDERS = 1000;
+
+    @NotEmpty
+    @Size(max = MAX_ORDERS)
+    private List<@NotNull Long> orderIds;
+
+    @NotNull
+    private OrderStatus status;
+
+    private Map<Long, @NotNull @Size(max = 255) String> trackingNumbers = new HashMap<>();
+
+    @Size(max = 255)
+    private String notes;
+
+    public List<Long> getOrderIds() {
+        return orderIds;
+    }
+
+    public void setOrderIds(List<Long> orderIds) {
+        this.orderIds = orderIds;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public Map<Long, String> getTrackingNumbers() {
+        return trackingNumbers;
+    }
+
+    public void setTrackingNumbers(Map<Long, String> trackingNumbers) {
+        this.trackingNumbers = trackingNumbers == null ? new HashMap<>() : trackingNumbers;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+}
@@ -0,0 +1,118 @@
+package com.ayadyasmine.pharmacyecom.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Throughput and allocation of the checkout arithmetic with {@link Money} against the {@link BigDecimal} computation
+ * it replaced: the discounted total of a cart, with the shipping fee rule, and the percent discount of a price.
+ * <p>
+ * Not part of the test suite; run {@link #main(String[])} from the test classpath. The GC profiler reports the bytes
+ * allocated per operation next to the throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final BigDecimal FREE_SHIPPING_THRESHOLD = new BigDecimal(10000);
+
+    private static final BigDecimal SHIPPING_FEE = new BigDecimal(600);
+
+    private static final Money FREE_SHIPPING_THRESHOLD_MONEY = Money.ofMajor(10000);
+
+    private static final Money SHIPPING_FEE_MONEY = Money.ofMajor(600);
+
+    @Param({ "5", "50" })
+    private int lines;
+
+    private BigDecimal[] prices;
+
+    private Money[] moneyPrices;
+
+    private int[] quantities;
+
+    private int[] discountPercents;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        prices = new BigDecimal[lines];
+        moneyPrices = new Money[lines];
+        quantities = new int[lines];
+        discountPercents = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            prices[i] = BigDecimal.valueOf(100 + random.nextInt(500_000), 2);
+            moneyPrices[i] = Money.of(prices[i]);
+            quantities[i] = 1 + random.nextInt(5);
+            // one line in three has no promotion
+            discountPercents[i] = i % 3 == 0 ? 0 : 5 + random.nextInt(45);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal checkoutTotalBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            BigDecimal price = discountBigDecimal(prices[i], discountPercents[i]);
+            total = total.add(price.multiply(new BigDecimal(quantities[i])));
+        }
+        return total.add(total.compareTo(FREE_SHIPPING_THRESHOLD) > 0 ? BigDecimal.ZERO : SHIPPING_FEE);
+    }
+
+    @Benchmark
+    public BigDecimal checkoutTotalMoney() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < lines; i++) {
+            total = total.plus(moneyPrices[i].minusPercent(discountPercents[i]).times(quantities[i]));
+        }
+        return total.plus(total.isGreaterThan(FREE_SHIPPING_THRESHOLD_MONEY) ? Money.ZERO : SHIPPING_FEE_MONEY).toBigDecimal();
+    }
+
+    @Benchmark
+    public void percentDiscountBigDecimal(Blackhole blackhole) {
+        for (int i = 0; i < lines; i++) {
+            blackhole.consume(discountBigDecimal(prices[i], discountPercents[i]));
+        }
+    }
+
+    @Benchmark
+    public void percentDiscountMoney(Blackhole blackhole) {
+        for (int i = 0; i < lines; i++) {
+            // priced from the stored BigDecimal, as PromotionService does
+            blackhole.consume(Money.of(prices[i]).minusPercent(discountPercents[i]).toBigDecimal());
+        }
+    }
+
+    private static BigDecimal discountBigDecimal(BigDecimal price, int discountPercent) {
+        if (discountPercent == 0) {
+            return price;
+        }
+        BigDecimal discount = price.multiply(new BigDecimal(discountPercent)).divide(new BigDecimal(100), RoundingMode.HALF_UP);
+        return price.subtract(discount);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MoneyBenchmark.class.getSimpleName()).addProfiler("gc").build()).run();
+    }
+}
@@ -0,0 +1,48 @@
+package com.ayadyasmine.pharmacyecom.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+    @Test
+    void roundTripsThroughBigDecimal() {
+        assertThat(Money.of(new BigDecimal("1234.56")).minorUnits()).isEqualTo(123456L);
+        assertThat(Money.of(new BigDecimal("10")).toBigDecimal()).isEqualTo(new BigDecimal("10.00"));
+        assertThat(Money.of(new BigDecimal("0.005")).minorUnits()).isEqualTo(1L);
+        assertThat(Money.ofMajor(600).toBigDecimal()).isEqualTo(new BigDecimal("600.00"));
+    }
+
+    @Test
+    void discountMatchesBigDecimalHalfUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            BigDecimal price = BigDecimal.valueOf(random.nextInt(10_000_000), 2);
+            int percent = 1 + random.nextInt(90);
+
+            BigDecimal discount = price.multiply(new BigDecimal(percent)).divide(new BigDecimal(100), RoundingMode.HALF_UP);
+            BigDecimal expected = price.subtract(discount);
+
+            assertThat(Money.of(price).minusPercent(percent).toBigDecimal()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void percentRoundsHalfAwayFromZero() {
+        assertThat(Money.ofMinor(50).percent(1).minorUnits()).isEqualTo(1L);
+        assertThat(Money.ofMinor(49).percent(1).minorUnits()).isZero();
+        assertThat(Money.ofMinor(-50).percent(1).minorUnits()).isEqualTo(-1L);
+    }
+
+    @Test
+    void totalsAndComparisons() {
+        Money total = Money.ZERO.plus(Money.of(new BigDecimal("19.99")).times(3)).plus(Money.ofMinor(3));
+        assertThat(total.toBigDecimal()).isEqualTo(new BigDecimal("60.00"));
+        assertThat(total.isGreaterThan(Money.ofMajor(59))).isTrue();
+        assertThat(total.compareTo(Money.ofMajor(60))).isZero();
+    }
+}
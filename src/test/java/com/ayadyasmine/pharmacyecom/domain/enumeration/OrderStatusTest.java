@@ -0,0 +1,31 @@
+package com.ayadyasmine.pharmacyecom.domain.enumeration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class OrderStatusTest {
+
+    @Test
+    void followsTheOrderLifecycle() {
+        assertThat(OrderStatus.PENDING.canTransitionTo(OrderStatus.CONFIRMED)).isTrue();
+        assertThat(OrderStatus.CONFIRMED.canTransitionTo(OrderStatus.SHIPPED)).isTrue();
+        assertThat(OrderStatus.PAID.canTransitionTo(OrderStatus.SHIPPED)).isTrue();
+        assertThat(OrderStatus.SHIPPED.canTransitionTo(OrderStatus.DELIVERED)).isTrue();
+        assertThat(OrderStatus.DELIVERED.canTransitionTo(OrderStatus.RETURNED)).isTrue();
+
+        assertThat(OrderStatus.PENDING.canTransitionTo(OrderStatus.SHIPPED)).isFalse();
+        assertThat(OrderStatus.SHIPPED.canTransitionTo(OrderStatus.CANCELLED)).isFalse();
+        assertThat(OrderStatus.DELIVERED.canTransitionTo(OrderStatus.SHIPPED)).isFalse();
+    }
+
+    @Test
+    void finalStatusesAndSelfTransitionsAreRejected() {
+        for (OrderStatus target : OrderStatus.values()) {
+            assertThat(OrderStatus.CANCELLED.canTransitionTo(target)).isFalse();
+            assertThat(OrderStatus.RETURNED.canTransitionTo(target)).isFalse();
+        }
+        assertThat(Arrays.stream(OrderStatus.values()).filter(status -> status.canTransitionTo(status))).isEmpty();
+    }
+}
@@ -0,0 +1,112 @@
+package com.ayadyasmine.pharmacyecom.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ayadyasmine.pharmacyecom.IntegrationTest;
+import com.ayadyasmine.pharmacyecom.domain.Order;
+import com.ayadyasmine.pharmacyecom.domain.OrderStatusHistory;
+import com.ayadyasmine.pharmacyecom.domain.enumeration.OrderStatus;
+import com.ayadyasmine.pharmacyecom.service.OrderService;
+import com.ayadyasmine.pharmacyecom.web.rest.OrderResourceIT;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the status updates of {@link OrderRepository}.
+ * The updates are committed, as the cached orders are evicted once the transaction commits, and the second-level cache,
+ * disabled for the other tests, is enabled to check that it does not serve the previous status.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=com.hazelcast.hibernate.HazelcastCacheRegionFactory",
+        "spring.jpa.properties.hibernate.cache.hazelcast.instance_name=pharmacyEcom",
+    }
+)
+class OrderRepositoryIT {
+
+    private static final String STATUS_HISTORIES_ROLE = Order.class.getName() + ".statusHistories";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderStatusHistoryRepository orderStatusHistoryRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Order order;
+
+    @BeforeEach
+    void initTest() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        order = orderRepository.saveAndFlush(OrderResourceIT.createEntity().status(OrderStatus.PENDING));
+    }
+
+    @AfterEach
+    void cleanup() {
+        orderStatusHistoryRepository
+            .findAll()
+            .stream()
+            .filter(history -> history.getOrder() != null && order.getId().equals(history.getOrder().getId()))
+            .forEach(orderStatusHistoryRepository::delete);
+        orderRepository.deleteById(order.getId());
+    }
+
+    @Test
+    void transitionEvictsTheCachedOrdersOnceCommitted() {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        // Load the order and its status history into the second-level cache
+        assertThat(statusHistories()).isEmpty();
+        assertThat(cache.containsEntity(Order.class, order.getId())).isTrue();
+        assertThat(cache.containsCollection(STATUS_HISTORIES_ROLE, order.getId())).isTrue();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            orderService.transition(List.of(order.getId()), OrderStatus.CONFIRMED, Map.of(order.getId(), "TRACK-CACHED"), null);
+            assertThat(cache.containsEntity(Order.class, order.getId())).isTrue();
+            assertThat(cache.containsCollection(STATUS_HISTORIES_ROLE, order.getId())).isTrue();
+        });
+
+        assertThat(cache.containsEntity(Order.class, order.getId())).isFalse();
+        assertThat(cache.containsCollection(STATUS_HISTORIES_ROLE, order.getId())).isFalse();
+        assertThat(orderRepository.findById(order.getId()))
+            .get()
+            .satisfies(cached -> {
+                assertThat(cached.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+                assertThat(cached.getTrackingNumber()).isEqualTo("TRACK-CACHED");
+            });
+        assertThat(statusHistories()).containsExactly(OrderStatus.CONFIRMED);
+    }
+
+    private List<OrderStatus> statusHistories() {
+        return transactionTemplate.execute(status ->
+            orderRepository
+                .findById(order.getId())
+                .orElseThrow()
+                .getStatusHistories()
+                .stream()
+                .map(OrderStatusHistory::getStatus)
+                .toList()
+        );
+    }
+}
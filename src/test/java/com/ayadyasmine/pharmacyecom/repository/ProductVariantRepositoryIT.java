@@ -0,0 +1,145 @@
+package com.ayadyasmine.pharmacyecom.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ayadyasmine.pharmacyecom.IntegrationTest;
+import com.ayadyasmine.pharmacyecom.domain.ProductVariant;
+import com.ayadyasmine.pharmacyecom.web.rest.ProductVariantResourceIT;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the conditional stock updates of {@link ProductVariantRepository}.
+ * The updates are committed, as concurrent transactions have to see each other's writes, and the second-level cache,
+ * disabled for the other tests, is enabled to check that it does not serve the previous stock.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=com.hazelcast.hibernate.HazelcastCacheRegionFactory",
+        "spring.jpa.properties.hibernate.cache.hazelcast.instance_name=pharmacyEcom",
+    }
+)
+class ProductVariantRepositoryIT {
+
+    private static final int STOCK = 10;
+
+    private static final int THREADS = 16;
+
+    private static final int ATTEMPTS_PER_THREAD = 5;
+
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<ProductVariant> insertedVariants = new ArrayList<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void initTest() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void cleanup() {
+        insertedVariants.forEach(variant -> productVariantRepository.deleteById(variant.getId()));
+        insertedVariants.clear();
+    }
+
+    @Test
+    void decrementStockDoesNotOversellUnderConcurrency() throws Exception {
+        ProductVariant variant = insertVariant("CONCURRENT", STOCK);
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> attempts = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                attempts.add(
+                    executor.submit(() -> {
+                        start.await();
+                        for (int j = 0; j < ATTEMPTS_PER_THREAD; j++) {
+                            List<Long> insufficient = transactionTemplate.execute(status ->
+                                productVariantRepository.decrementStock(new TreeMap<>(Map.of(variant.getId(), 1)))
+                            );
+                            if (insufficient.isEmpty()) {
+                                sold.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    })
+                );
+            }
+            start.countDown();
+            for (Future<Void> attempt : attempts) {
+                attempt.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(sold).hasValue(STOCK);
+        assertThat(productVariantRepository.findById(variant.getId())).get().extracting(ProductVariant::getStock).isEqualTo(0);
+    }
+
+    @Test
+    void decrementStockReportsTheLinesWithoutEnoughStock() {
+        ProductVariant available = insertVariant("AVAILABLE", STOCK);
+        ProductVariant scarce = insertVariant("SCARCE", 1);
+
+        List<Long> insufficient = transactionTemplate.execute(status ->
+            productVariantRepository.decrementStock(new TreeMap<>(Map.of(available.getId(), 2, scarce.getId(), 3)))
+        );
+
+        assertThat(insufficient).containsExactly(scarce.getId());
+        assertThat(productVariantRepository.findById(available.getId())).get().extracting(ProductVariant::getStock).isEqualTo(STOCK - 2);
+        assertThat(productVariantRepository.findById(scarce.getId())).get().extracting(ProductVariant::getStock).isEqualTo(1);
+    }
+
+    @Test
+    void decrementStockEvictsTheCachedVariantsOnceCommitted() {
+        ProductVariant variant = insertVariant("CACHED", STOCK);
+        Cache cache = entityManagerFactory.getCache();
+        // Load the variant into the second-level cache
+        assertThat(productVariantRepository.findById(variant.getId())).get().extracting(ProductVariant::getStock).isEqualTo(STOCK);
+        assertThat(cache.contains(ProductVariant.class, variant.getId())).isTrue();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            productVariantRepository.decrementStock(new TreeMap<>(Map.of(variant.getId(), 2)));
+            assertThat(cache.contains(ProductVariant.class, variant.getId())).isTrue();
+        });
+
+        assertThat(cache.contains(ProductVariant.class, variant.getId())).isFalse();
+        assertThat(productVariantRepository.findById(variant.getId())).get().extracting(ProductVariant::getStock).isEqualTo(STOCK - 2);
+    }
+
+    private ProductVariant insertVariant(String sku, int stock) {
+        ProductVariant variant = productVariantRepository.saveAndFlush(ProductVariantResourceIT.createEntity().sku(sku).stock(stock));
+        insertedVariants.add(variant);
+        return variant;
+    }
+}
@@ -0,0 +1,148 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.ayadyasmine.pharmacyecom.config.ApplicationProperties;
+import com.ayadyasmine.pharmacyecom.domain.enumeration.PaymentMethod;
+import com.ayadyasmine.pharmacyecom.repository.CartItemRepository;
+import com.ayadyasmine.pharmacyecom.service.OrderService.CheckoutOutcome;
+import com.ayadyasmine.pharmacyecom.service.OrderService.CheckoutRequest;
+import com.ayadyasmine.pharmacyecom.service.dto.OrderDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Throughput of the checkouts of a flash sale through the {@link CheckoutQueueService}, run directly, one transaction
+ * per checkout, against queued in micro-batches, every cart holding the same hot variant.
+ * <p>
+ * The database is simulated: a transaction holds the row lock of the hot variant from its update to its commit, that is
+ * for the work of each of its checkouts plus the commit, so that the direct checkouts queue up on the row lock while a
+ * batch pays the commit once. The queue, routing and writer threads are the real ones.
+ * <p>
+ * Not part of the test suite; run {@link #main(String[])} from the test classpath. In production, the
+ * {@code checkout.requests} timers tagged by mode compare the same throughput on the real database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class CheckoutQueueBenchmark {
+
+    private static final Long HOT_VARIANT_ID = 42L;
+
+    /**
+     * Time spent in a transaction per checkout: reading the cart, inserting the order and its items.
+     */
+    private static final long CHECKOUT_WORK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    /**
+     * Time of a commit, flushed to disk.
+     */
+    private static final long COMMIT_NANOS = TimeUnit.MICROSECONDS.toNanos(1_000);
+
+    @Param({ "direct", "queued" })
+    private String mode;
+
+    private final ReentrantLock hotVariantRow = new ReentrantLock(true);
+
+    private final AtomicLong customers = new AtomicLong();
+
+    private CheckoutQueueService checkoutQueueService;
+
+    @State(Scope.Thread)
+    public static class Customer {
+
+        private String login;
+
+        @Setup
+        public void setup(CheckoutQueueBenchmark benchmark) {
+            login = "customer-" + benchmark.customers.incrementAndGet();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // stub only: the invocations are not recorded, which would fill the heap over a run
+        OrderService orderService = mock(OrderService.class, withSettings().stubOnly());
+        when(orderService.checkout(anyString(), any(), any(), any())).thenAnswer(invocation -> {
+            transaction(1);
+            return new OrderDTO();
+        });
+        when(orderService.checkoutBatch(anyList())).thenAnswer(invocation -> {
+            List<CheckoutRequest> requests = invocation.getArgument(0);
+            transaction(requests.size());
+            return requests.stream().map(request -> new CheckoutOutcome(new OrderDTO(), null)).toList();
+        });
+        CartItemRepository cartItemRepository = mock(CartItemRepository.class, withSettings().stubOnly());
+        when(cartItemRepository.findVariantIdsOfActiveCart(anyString())).thenReturn(List.of(HOT_VARIANT_ID));
+        HotStockService hotStockService = mock(HotStockService.class, withSettings().stubOnly());
+        when(hotStockService.findFirstHot(anyList())).thenReturn(Optional.of(HOT_VARIANT_ID));
+
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getCheckoutQueue().setEnabled("queued".equals(mode));
+        checkoutQueueService = new CheckoutQueueService(
+            orderService,
+            cartItemRepository,
+            hotStockService,
+            applicationProperties,
+            new SimpleMeterRegistry()
+        );
+        checkoutQueueService.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        checkoutQueueService.stop();
+    }
+
+    @Benchmark
+    public OrderDTO checkout(Customer customer) {
+        return checkoutQueueService.checkout(customer.login, null, customer.login, PaymentMethod.CASH_ON_DELIVERY);
+    }
+
+    private void transaction(int checkouts) {
+        hotVariantRow.lock();
+        try {
+            long deadline = System.nanoTime() + checkouts * CHECKOUT_WORK_NANOS + COMMIT_NANOS;
+            for (long left = deadline - System.nanoTime(); left > 0; left = deadline - System.nanoTime()) {
+                LockSupport.parkNanos(left);
+            }
+        } finally {
+            hotVariantRow.unlock();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CheckoutQueueBenchmark.class.getSimpleName()).build()).run();
+    }
+}
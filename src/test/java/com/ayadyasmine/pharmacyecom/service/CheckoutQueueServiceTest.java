@@ -0,0 +1,233 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.ayadyasmine.pharmacyecom.config.ApplicationProperties;
+import com.ayadyasmine.pharmacyecom.domain.enumeration.PaymentMethod;
+import com.ayadyasmine.pharmacyecom.repository.CartItemRepository;
+import com.ayadyasmine.pharmacyecom.service.OrderService.CheckoutOutcome;
+import com.ayadyasmine.pharmacyecom.service.OrderService.CheckoutRequest;
+import com.ayadyasmine.pharmacyecom.service.dto.OrderDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the queued mode of the {@link CheckoutQueueService}.
+ * The checkouts of the {@code blocker} customer hold their writer until {@link #release} is counted down.
+ */
+class CheckoutQueueServiceTest {
+
+    private static final String BLOCKER = "blocker";
+
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    private OrderService orderService;
+
+    private CartItemRepository cartItemRepository;
+
+    private HotStockService hotStockService;
+
+    private ApplicationProperties.CheckoutQueue properties;
+
+    private CheckoutQueueService checkoutQueueService;
+
+    private ExecutorService executor;
+
+    private final CountDownLatch blocked = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+    private final Map<String, String> writers = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void initTest() {
+        orderService = mock(OrderService.class);
+        cartItemRepository = mock(CartItemRepository.class);
+        hotStockService = mock(HotStockService.class);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        properties = applicationProperties.getCheckoutQueue();
+        properties.setEnabled(true);
+        properties.setShards(1);
+        properties.setCapacity(10);
+        properties.setTimeoutSeconds((int) WAIT.toSeconds());
+        checkoutQueueService = new CheckoutQueueService(
+            orderService,
+            cartItemRepository,
+            hotStockService,
+            applicationProperties,
+            new SimpleMeterRegistry()
+        );
+        executor = Executors.newCachedThreadPool();
+
+        when(cartItemRepository.findVariantIdsOfActiveCart(anyString())).thenReturn(List.of(1L));
+        when(hotStockService.findFirstHot(anyList())).thenReturn(Optional.empty());
+        when(orderService.checkoutBatch(anyList())).thenAnswer(invocation -> {
+            List<CheckoutRequest> requests = invocation.getArgument(0);
+            List<String> logins = requests.stream().map(CheckoutRequest::login).toList();
+            batches.add(logins);
+            logins.forEach(login -> writers.put(login, Thread.currentThread().getName()));
+            if (logins.contains(BLOCKER)) {
+                blocked.countDown();
+                release.await();
+            }
+            return requests.stream().map(request -> new CheckoutOutcome(order(request.login()), null)).toList();
+        });
+    }
+
+    @AfterEach
+    void cleanup() {
+        release.countDown();
+        checkoutQueueService.stop();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void checkoutsAreRoutedToTheShardOfTheirCart() {
+        properties.setShards(2);
+        when(cartItemRepository.findVariantIdsOfActiveCart("alice")).thenReturn(List.of(1L));
+        when(cartItemRepository.findVariantIdsOfActiveCart("bob")).thenReturn(List.of(3L));
+        when(cartItemRepository.findVariantIdsOfActiveCart("carol")).thenReturn(List.of(2L));
+        checkoutQueueService.start();
+
+        assertThat(checkout("alice").getDeliveryAddress()).isEqualTo("alice");
+        checkout("bob");
+        checkout("carol");
+
+        assertThat(writers).containsEntry("alice", "checkout-writer-1").containsEntry("bob", "checkout-writer-1");
+        assertThat(writers).containsEntry("carol", "checkout-writer-0");
+    }
+
+    @Test
+    void checkoutsOfAHotVariantAreRoutedToTheSameShard() {
+        properties.setShards(2);
+        when(cartItemRepository.findVariantIdsOfActiveCart("alice")).thenReturn(List.of(3L));
+        when(cartItemRepository.findVariantIdsOfActiveCart("bob")).thenReturn(List.of(2L, 3L));
+        when(cartItemRepository.findVariantIdsOfActiveCart("carol")).thenReturn(List.of(2L, 4L));
+        when(hotStockService.findFirstHot(List.of(3L))).thenReturn(Optional.of(3L));
+        when(hotStockService.findFirstHot(List.of(2L, 3L))).thenReturn(Optional.of(3L));
+        checkoutQueueService.start();
+
+        checkout("alice");
+        checkout("bob");
+        checkout("carol");
+
+        // bob's cart goes with the other checkouts of the hot variant rather than by its smallest variant id
+        assertThat(writers).containsEntry("alice", "checkout-writer-1").containsEntry("bob", "checkout-writer-1");
+        assertThat(writers).containsEntry("carol", "checkout-writer-0");
+    }
+
+    @Test
+    void checkoutsOfTheSameCustomerAreNotBatchedTogether() throws Exception {
+        checkoutQueueService.start();
+        CompletableFuture<OrderDTO> blocker = checkoutAsync(BLOCKER);
+        assertThat(blocked.await(WAIT.toSeconds(), TimeUnit.SECONDS)).isTrue();
+
+        List<CompletableFuture<OrderDTO>> queued = List.of(checkoutAsync("alice"), checkoutAsync("alice"), checkoutAsync("bob"));
+        release.countDown();
+
+        assertThat(blocker).succeedsWithin(WAIT);
+        queued.forEach(future -> assertThat(future).succeedsWithin(WAIT));
+        assertThat(batches).allSatisfy(logins -> assertThat(logins).doesNotHaveDuplicates());
+        assertThat(batches.stream().flatMap(List::stream).filter("alice"::equals)).hasSize(2);
+    }
+
+    @Test
+    void checkoutIsRejectedWhenTheQueueIsFull() throws Exception {
+        properties.setCapacity(1);
+        checkoutQueueService.start();
+        CompletableFuture<OrderDTO> blocker = checkoutAsync(BLOCKER);
+        assertThat(blocked.await(WAIT.toSeconds(), TimeUnit.SECONDS)).isTrue();
+
+        // one of them takes the only slot and waits, the other is rejected right away
+        CompletableFuture<OrderDTO> first = checkoutAsync("alice");
+        CompletableFuture<OrderDTO> second = checkoutAsync("bob");
+        assertThatThrownBy(() -> CompletableFuture.anyOf(first, second).get(WAIT.toSeconds(), TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(CheckoutQueueFullException.class);
+        assertThat(List.of(first, second)).filteredOn(CompletableFuture::isCompletedExceptionally).hasSize(1);
+
+        release.countDown();
+        assertThat(blocker).succeedsWithin(WAIT);
+        assertThat(first.isCompletedExceptionally() ? second : first).succeedsWithin(WAIT);
+    }
+
+    @Test
+    void checkoutFailsWhenTheQueueDoesNotAnswerInTime() {
+        properties.setTimeoutSeconds(1);
+        checkoutQueueService.start();
+
+        assertThatThrownBy(() -> checkout(BLOCKER)).isInstanceOf(CheckoutQueueFullException.class).hasMessageContaining("in time");
+    }
+
+    @Test
+    void failedBatchIsCheckedOutOneAtATime() {
+        when(orderService.checkoutBatch(anyList())).thenThrow(new IllegalStateException("Batch failed"));
+        when(orderService.checkout(eq("alice"), any(), any(), any())).thenReturn(order("alice"));
+        when(orderService.checkout(eq("bob"), any(), any(), any())).thenThrow(new InsufficientStockException("Variant"));
+        checkoutQueueService.start();
+
+        assertThat(checkout("alice").getDeliveryAddress()).isEqualTo("alice");
+        assertThatThrownBy(() -> checkout("bob")).isInstanceOf(InsufficientStockException.class);
+    }
+
+    @Test
+    void stopFailsTheQueuedCheckouts() throws Exception {
+        checkoutQueueService.start();
+        CompletableFuture<OrderDTO> blocker = checkoutAsync(BLOCKER);
+        assertThat(blocked.await(WAIT.toSeconds(), TimeUnit.SECONDS)).isTrue();
+        // once its cart is looked up, the checkout is queued rather than run directly
+        CountDownLatch lookedUp = new CountDownLatch(1);
+        when(cartItemRepository.findVariantIdsOfActiveCart("alice")).thenAnswer(invocation -> {
+            lookedUp.countDown();
+            return List.of(1L);
+        });
+        CompletableFuture<OrderDTO> queued = checkoutAsync("alice");
+        assertThat(lookedUp.await(WAIT.toSeconds(), TimeUnit.SECONDS)).isTrue();
+
+        checkoutQueueService.stop();
+
+        List.of(blocker, queued).forEach(future ->
+            assertThat(future)
+                .failsWithin(WAIT)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(CheckoutQueueFullException.class)
+        );
+    }
+
+    private OrderDTO checkout(String login) {
+        return checkoutQueueService.checkout(login, null, login, PaymentMethod.CASH_ON_DELIVERY);
+    }
+
+    private CompletableFuture<OrderDTO> checkoutAsync(String login) {
+        return CompletableFuture.supplyAsync(() -> checkout(login), executor);
+    }
+
+    private static OrderDTO order(String login) {
+        OrderDTO orderDTO = new OrderDTO();
+        orderDTO.setDeliveryAddress(login);
+        return orderDTO;
+    }
+}
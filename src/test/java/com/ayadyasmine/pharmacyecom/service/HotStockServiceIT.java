@@ -0,0 +1,235 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ayadyasmine.pharmacyecom.IntegrationTest;
+import com.ayadyasmine.pharmacyecom.domain.ProductVariant;
+import com.ayadyasmine.pharmacyecom.repository.HotVariantStockMapStore;
+import com.ayadyasmine.pharmacyecom.repository.ProductVariantRepository;
+import com.ayadyasmine.pharmacyecom.service.dto.ProductVariantDTO;
+import com.ayadyasmine.pharmacyecom.web.rest.ProductVariantResourceIT;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@link HotStockService}.
+ * The changes are committed, as the counters are only updated once the checkouts commit.
+ */
+@IntegrationTest
+class HotStockServiceIT {
+
+    private static final int STOCK = 10;
+
+    private static final int THREADS = 16;
+
+    private static final int ATTEMPTS_PER_THREAD = 5;
+
+    @Autowired
+    private HotStockService hotStockService;
+
+    @Autowired
+    private ProductVariantService productVariantService;
+
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+
+    @Autowired
+    private HotVariantStockMapStore hotVariantStockMapStore;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<ProductVariant> insertedVariants = new ArrayList<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void initTest() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void cleanup() {
+        insertedVariants.forEach(variant -> {
+            hotStockService.disable(variant.getId());
+            productVariantRepository.deleteById(variant.getId());
+        });
+        insertedVariants.clear();
+    }
+
+    @Test
+    void hotStockIsTakenFromTheRowAndMirroredInTheCounter() {
+        ProductVariant variant = insertVariant("HOT", STOCK);
+
+        assertThat(hotStockService.enable(variant.getId())).contains(STOCK);
+        assertThat(decrement(variant, 3)).isEmpty();
+        assertThat(decrement(variant, 8)).containsExactly(variant.getId());
+        assertThat(hotStockService.getStock(variant.getId())).contains(STOCK - 3);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            hotStockService.decrementStock(new TreeMap<>(Map.of(variant.getId(), 2)));
+            status.setRollbackOnly();
+        });
+        assertThat(hotStockService.getStock(variant.getId())).contains(STOCK - 3);
+
+        assertThat(hotStockService.disable(variant.getId())).contains(STOCK - 3);
+        assertThat(hotStockService.getStock(variant.getId())).isEmpty();
+        assertThat(productVariantRepository.findStockById(variant.getId())).contains(STOCK - 3);
+    }
+
+    @Test
+    void updatesOfAHotVariantOnlySetItsCounterWhenTheStockChanges() {
+        ProductVariant variant = insertVariant("HOT", STOCK);
+        hotStockService.enable(variant.getId());
+        decrement(variant, 3);
+
+        // an update that does not change the stock keeps the counter
+        ProductVariantDTO label = new ProductVariantDTO();
+        label.setId(variant.getId());
+        label.setLabel("Renamed hot variant");
+        productVariantService.partialUpdate(label);
+        assertThat(hotStockService.getStock(variant.getId())).contains(STOCK - 3);
+
+        ProductVariantDTO stock = new ProductVariantDTO();
+        stock.setId(variant.getId());
+        stock.setStock(4);
+        productVariantService.partialUpdate(stock);
+        assertThat(hotStockService.getStock(variant.getId())).contains(4);
+    }
+
+    @Test
+    void decrementStockMixesRegularAndHotVariants() {
+        ProductVariant regular = insertVariant("REGULAR", STOCK);
+        ProductVariant hot = insertVariant("HOT", 1);
+        hotStockService.enable(hot.getId());
+
+        List<Long> insufficient = transactionTemplate.execute(status ->
+            hotStockService.decrementStock(new TreeMap<>(Map.of(regular.getId(), 2, hot.getId(), 3)))
+        );
+
+        assertThat(insufficient).containsExactly(hot.getId());
+        assertThat(hotStockService.getStock(hot.getId())).contains(1);
+        // the counter rejects the hot line before any row is updated
+        assertThat(productVariantRepository.findStockById(regular.getId())).contains(STOCK);
+        assertThat(productVariantRepository.findStockById(hot.getId())).contains(1);
+    }
+
+    @Test
+    void hotStockIsNotOversoldUnderConcurrency() throws Exception {
+        ProductVariant variant = insertVariant("CONCURRENT", STOCK);
+        hotStockService.enable(variant.getId());
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> attempts = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                attempts.add(
+                    executor.submit(() -> {
+                        start.await();
+                        for (int j = 0; j < ATTEMPTS_PER_THREAD; j++) {
+                            if (decrement(variant, 1).isEmpty()) {
+                                sold.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    })
+                );
+            }
+            start.countDown();
+            for (Future<Void> attempt : attempts) {
+                attempt.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(sold).hasValue(STOCK);
+        assertThat(hotStockService.disable(variant.getId())).contains(0);
+        assertThat(productVariantRepository.findStockById(variant.getId())).contains(0);
+    }
+
+    @Test
+    void committedHotStockIsNotLostWithTheMember() {
+        ProductVariant variant = insertVariant("MEMBER-LOSS", STOCK);
+        List<HazelcastInstance> members = new ArrayList<>();
+        try {
+            HotStockService memberHotStockService = new HotStockService(newMember(members), productVariantRepository);
+            transactionTemplate.executeWithoutResult(status -> memberHotStockService.enable(variant.getId()));
+            assertThat(decrement(memberHotStockService, variant, 3)).isEmpty();
+
+            // killed right after the commit, without leaving the cluster nor waiting for any write to the database
+            members.get(0).getLifecycleService().terminate();
+            assertThat(productVariantRepository.findStockById(variant.getId())).contains(STOCK - 3);
+
+            // a new cluster loads the counter from the row
+            HotStockService restartedHotStockService = new HotStockService(newMember(members), productVariantRepository);
+            assertThat(restartedHotStockService.getStock(variant.getId())).contains(STOCK - 3);
+            assertThat(decrement(restartedHotStockService, variant, STOCK - 2)).containsExactly(variant.getId());
+            assertThat(decrement(restartedHotStockService, variant, STOCK - 3)).isEmpty();
+            assertThat(productVariantRepository.findStockById(variant.getId())).contains(0);
+            transactionTemplate.executeWithoutResult(status -> restartedHotStockService.disable(variant.getId()));
+        } finally {
+            members
+                .stream()
+                .filter(member -> member.getLifecycleService().isRunning())
+                .forEach(member -> member.getLifecycleService().terminate());
+        }
+    }
+
+    /**
+     * Start a member of a cluster of its own, with the configuration of the counters.
+     */
+    private HazelcastInstance newMember(List<HazelcastInstance> members) {
+        Config config = new Config();
+        config.setClusterName("hot-stock-member-loss");
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getAutoDetectionConfig().setEnabled(false);
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(false);
+        MapConfig mapConfig = new MapConfig(HotVariantStockMapStore.MAP_NAME);
+        mapConfig
+            .getMapStoreConfig()
+            .setEnabled(true)
+            .setImplementation(hotVariantStockMapStore)
+            .setInitialLoadMode(MapStoreConfig.InitialLoadMode.EAGER);
+        config.addMapConfig(mapConfig);
+        HazelcastInstance member = Hazelcast.newHazelcastInstance(config);
+        members.add(member);
+        return member;
+    }
+
+    private List<Long> decrement(HotStockService service, ProductVariant variant, int quantity) {
+        return transactionTemplate.execute(status -> service.decrementStock(new TreeMap<>(Map.of(variant.getId(), quantity))));
+    }
+
+    private List<Long> decrement(ProductVariant variant, int quantity) {
+        return decrement(hotStockService, variant, quantity);
+    }
+
+    private ProductVariant insertVariant(String sku, int stock) {
+        ProductVariant variant = productVariantRepository.saveAndFlush(ProductVariantResourceIT.createEntity().sku(sku).stock(stock));
+        insertedVariants.add(variant);
+        return variant;
+    }
+}
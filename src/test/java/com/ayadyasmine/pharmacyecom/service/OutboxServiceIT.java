@@ -0,0 +1,80 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ayadyasmine.pharmacyecom.IntegrationTest;
+import com.ayadyasmine.pharmacyecom.domain.OutboxEvent;
+import com.ayadyasmine.pharmacyecom.repository.OutboxEventRepository;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link OutboxService}.
+ * The events are committed, as they are dispatched after the commit; the async executor runs synchronously in tests.
+ */
+@IntegrationTest
+class OutboxServiceIT {
+
+    private static final String UNHANDLED_EVENT_TYPE = "unhandled-event";
+
+    private static final Long MISSING_ORDER_ID = Long.MAX_VALUE;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void initTest() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void cleanup() {
+        findEvent(UNHANDLED_EVENT_TYPE, 1L).ifPresent(outboxEventRepository::delete);
+        findEvent(OrderPlacedHandler.EVENT_TYPE, MISSING_ORDER_ID).ifPresent(outboxEventRepository::delete);
+    }
+
+    @Test
+    void eventIsHandledOnceCommitted() {
+        transactionTemplate.executeWithoutResult(status -> outboxService.publish(OrderPlacedHandler.EVENT_TYPE, MISSING_ORDER_ID, null));
+
+        assertThat(findEvent(OrderPlacedHandler.EVENT_TYPE, MISSING_ORDER_ID)).isEmpty();
+    }
+
+    @Test
+    void failedEventIsRetriedLater() {
+        transactionTemplate.executeWithoutResult(status -> outboxService.publish(UNHANDLED_EVENT_TYPE, 1L, null));
+
+        OutboxEvent event = findEvent(UNHANDLED_EVENT_TYPE, 1L).orElseThrow();
+        assertThat(event.getAttempts()).isEqualTo(1);
+        assertThat(event.getLastError()).contains("No handler");
+        assertThat(event.getNextAttemptAt()).isAfter(Instant.now());
+
+        // Make it due again, then dispatch
+        outboxEventRepository.save(event.nextAttemptAt(Instant.now()));
+        outboxService.dispatch();
+
+        assertThat(findEvent(UNHANDLED_EVENT_TYPE, 1L)).get().extracting(OutboxEvent::getAttempts).isEqualTo(2);
+    }
+
+    private Optional<OutboxEvent> findEvent(String eventType, Long aggregateId) {
+        return outboxEventRepository
+            .findAll()
+            .stream()
+            .filter(event -> eventType.equals(event.getEventType()) && aggregateId.equals(event.getAggregateId()))
+            .findFirst();
+    }
+}
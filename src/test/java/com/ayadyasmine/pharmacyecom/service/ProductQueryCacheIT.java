@@ -0,0 +1,97 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ayadyasmine.pharmacyecom.IntegrationTest;
+import com.ayadyasmine.pharmacyecom.config.ApplicationProperties;
+import com.ayadyasmine.pharmacyecom.domain.Product;
+import com.ayadyasmine.pharmacyecom.repository.ProductRepository;
+import com.ayadyasmine.pharmacyecom.service.criteria.ProductCriteria;
+import com.ayadyasmine.pharmacyecom.service.dto.ProductDTO;
+import com.ayadyasmine.pharmacyecom.web.rest.ProductResourceIT;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+
+/**
+ * Integration tests for the {@link ProductQueryCache}, which is disabled for the other tests.
+ * The changes are committed, as the catalog version is bumped after commit.
+ */
+@IntegrationTest
+class ProductQueryCacheIT {
+
+    @Autowired
+    private ProductQueryService productQueryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Product product;
+
+    @BeforeEach
+    void initTest() {
+        applicationProperties.getCatalogQueryCache().setEnabled(true);
+        product = productRepository.saveAndFlush(ProductResourceIT.createEntity().slug("query-cache").sku("query-cache"));
+    }
+
+    @AfterEach
+    void cleanup() {
+        applicationProperties.getCatalogQueryCache().setEnabled(false);
+        productRepository.findById(product.getId()).ifPresent(productRepository::delete);
+    }
+
+    @Test
+    void resultsAreCachedUntilACatalogWrite() {
+        String name = product.getName();
+        assertThat(names(byId())).containsExactly(name);
+        assertThat(productQueryService.countByCriteria(byId())).isEqualTo(1);
+
+        // A write that does not go through the services is not seen, and an equivalent criteria hits the same entry
+        double hits = hits();
+        productRepository.saveAndFlush(product.name("Renamed behind the cache"));
+        assertThat(names(byId())).containsExactly(name);
+        assertThat(productQueryService.countByCriteria(byId())).isEqualTo(1);
+        assertThat(hits()).isEqualTo(hits + 2);
+
+        // A write through the services bumps the catalog version, which invalidates the pages and the counts
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setId(product.getId());
+        productDTO.setName("Renamed through the service");
+        productService.partialUpdate(productDTO);
+        assertThat(names(byId())).containsExactly("Renamed through the service");
+
+        productService.delete(product.getId());
+        assertThat(productQueryService.countByCriteria(byId())).isZero();
+    }
+
+    private ProductCriteria byId() {
+        ProductCriteria criteria = new ProductCriteria();
+        criteria.id().setEquals(product.getId());
+        return criteria;
+    }
+
+    private List<String> names(ProductCriteria criteria) {
+        return productQueryService.findByCriteria(criteria, PageRequest.of(0, 20)).map(ProductDTO::getName).getContent();
+    }
+
+    private double hits() {
+        return meterRegistry
+            .get(ProductQueryCache.REQUESTS_METER_NAME)
+            .tag(ProductQueryCache.REQUESTS_METER_RESULT_DIMENSION, "hit")
+            .counter()
+            .count();
+    }
+}
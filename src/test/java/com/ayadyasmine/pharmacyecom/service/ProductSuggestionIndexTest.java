@@ -0,0 +1,129 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ayadyasmine.pharmacyecom.repository.ProductRepository;
+import com.ayadyasmine.pharmacyecom.service.dto.ProductSuggestionDTO;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.hazelcast.topic.MessageListener;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for the {@link ProductSuggestionIndex}, whose topic delivers the product changes synchronously.
+ */
+class ProductSuggestionIndexTest {
+
+    private ProductRepository productRepository;
+
+    private ProductSuggestionIndex productSuggestionIndex;
+
+    private MessageListener<Long> listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void initTest() {
+        productRepository = mock(ProductRepository.class);
+        HazelcastInstance hazelcastInstance = mock(HazelcastInstance.class);
+        ITopic<Long> topic = mock(ITopic.class);
+        when(hazelcastInstance.<Long>getTopic(anyString())).thenReturn(topic);
+        doAnswer(invocation -> {
+            listener = invocation.getArgument(0);
+            return UUID.randomUUID();
+        })
+            .when(topic)
+            .addMessageListener(any());
+        doAnswer(invocation -> {
+            listener.onMessage(new Message<>("product-suggestion-index", invocation.getArgument(0), 0L, null));
+            return null;
+        })
+            .when(topic)
+            .publish(any());
+
+        productSuggestionIndex = new ProductSuggestionIndex(productRepository, mock(PlatformTransactionManager.class), hazelcastInstance);
+        productSuggestionIndex.listen();
+        when(productRepository.findAllSuggestionRows()).thenReturn(
+            List.of(
+                row(1L, "Doliprane 500", "doliprane-500", "DOL-500", true, "Sanofi"),
+                row(2L, "Doliprane Enfant", "doliprane-enfant", "DOL-ENF", true, "Sanofi"),
+                row(3L, "dafalgan", "dafalgan", "DAF-1", true, "UPSA"),
+                row(4L, "Doliprane Retiré", "doliprane-retire", "DOL-RET", false, "Sanofi")
+            )
+        );
+    }
+
+    @Test
+    void tokenizeFoldsCaseAndAccents() {
+        assertThat(ProductSuggestionIndex.tokenize("Dolipràne ENFANT-500mg")).containsExactly("doliprane", "enfant", "500mg");
+        assertThat(ProductSuggestionIndex.tokenize("  ")).isEmpty();
+        assertThat(ProductSuggestionIndex.tokenize(null)).isEmpty();
+    }
+
+    @Test
+    void suggestMatchesEveryTermAsAPrefix() {
+        assertThat(names("dol")).containsExactly("Doliprane 500", "Doliprane Enfant");
+        assertThat(names("DOLI enf")).containsExactly("Doliprane Enfant");
+        assertThat(names("sano")).containsExactly("Doliprane 500", "Doliprane Enfant");
+        assertThat(names("dol-500")).containsExactly("Doliprane 500");
+        assertThat(names("doliprane upsa")).isEmpty();
+        assertThat(names("--")).isEmpty();
+    }
+
+    @Test
+    void suggestRanksByNameAndLimits() {
+        assertThat(productSuggestionIndex.suggest("d", 2))
+            .extracting(ProductSuggestionDTO::getName)
+            .containsExactly("dafalgan", "Doliprane 500");
+        assertThat(productSuggestionIndex.suggest("d", 0)).isEmpty();
+    }
+
+    @Test
+    void productChangedReloadsOnlyThatProduct() {
+        assertThat(names("doli")).hasSize(2);
+        when(productRepository.findSuggestionRowsById(2L)).thenReturn(
+            List.<Object[]>of(row(2L, "Efferalgan Enfant", "efferalgan-enfant", "EFF-ENF", true, "UPSA"))
+        );
+        when(productRepository.findSuggestionRowsById(3L)).thenReturn(List.of());
+
+        productSuggestionIndex.productChanged(2L);
+        productSuggestionIndex.productChanged(3L);
+
+        assertThat(names("doli")).containsExactly("Doliprane 500");
+        assertThat(names("upsa")).containsExactly("Efferalgan Enfant");
+        assertThat(names("daf")).isEmpty();
+        verify(productRepository, times(1)).findAllSuggestionRows();
+    }
+
+    @Test
+    void rebuildReplacesTheWholeIndex() {
+        assertThat(names("dol")).hasSize(2);
+        when(productRepository.findAllSuggestionRows()).thenReturn(
+            List.<Object[]>of(row(5L, "Smecta", "smecta", "SME-1", true, "Ipsen"))
+        );
+
+        productSuggestionIndex.rebuild();
+
+        assertThat(names("dol")).isEmpty();
+        assertThat(names("ips")).containsExactly("Smecta");
+    }
+
+    private List<String> names(String query) {
+        return productSuggestionIndex.suggest(query, 10).stream().map(ProductSuggestionDTO::getName).toList();
+    }
+
+    private static Object[] row(Long id, String name, String slug, String sku, boolean active, String brandName) {
+        return new Object[] { id, name, slug, sku, active, brandName };
+    }
+}
@@ -0,0 +1,147 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ayadyasmine.pharmacyecom.domain.Product;
+import com.ayadyasmine.pharmacyecom.domain.Promotion;
+import com.ayadyasmine.pharmacyecom.repository.PromotionRepository;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.hazelcast.topic.MessageListener;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for the {@link PromotionIndex}, whose topic delivers the promotion changes synchronously.
+ */
+class PromotionIndexTest {
+
+    private static final Long PRODUCT_ID = 1L;
+
+    private static final Long OTHER_PRODUCT_ID = 2L;
+
+    private final Instant start = Instant.parse("2026-06-01T00:00:00Z");
+
+    private final Instant end = Instant.parse("2026-06-30T23:59:59Z");
+
+    private PromotionRepository promotionRepository;
+
+    private PromotionIndex promotionIndex;
+
+    private MessageListener<Long> listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void initTest() {
+        promotionRepository = mock(PromotionRepository.class);
+        HazelcastInstance hazelcastInstance = mock(HazelcastInstance.class);
+        ITopic<Long> topic = mock(ITopic.class);
+        when(hazelcastInstance.<Long>getTopic(anyString())).thenReturn(topic);
+        doAnswer(invocation -> {
+            listener = invocation.getArgument(0);
+            return UUID.randomUUID();
+        })
+            .when(topic)
+            .addMessageListener(any());
+        doAnswer(invocation -> {
+            deliver(invocation.getArgument(0));
+            return null;
+        })
+            .when(topic)
+            .publish(any());
+
+        promotionIndex = new PromotionIndex(promotionRepository, mock(PlatformTransactionManager.class), hazelcastInstance);
+        promotionIndex.listen();
+        when(promotionRepository.findLivePromotionsWithProducts()).thenReturn(
+            List.of(
+                promotion(1L, 10, start, end, PRODUCT_ID),
+                promotion(2L, 25, start.plus(10, ChronoUnit.DAYS), end.minus(10, ChronoUnit.DAYS), PRODUCT_ID, OTHER_PRODUCT_ID)
+            )
+        );
+    }
+
+    @Test
+    void getDiscountPercentAppliesTheBestWindowCoveringTheInstant() {
+        assertThat(promotionIndex.getDiscountPercent(PRODUCT_ID, start.plus(1, ChronoUnit.DAYS))).isEqualTo(10);
+        assertThat(promotionIndex.getDiscountPercent(PRODUCT_ID, start.plus(15, ChronoUnit.DAYS))).isEqualTo(25);
+        assertThat(promotionIndex.getDiscountPercent(OTHER_PRODUCT_ID, start.plus(1, ChronoUnit.DAYS))).isZero();
+        assertThat(promotionIndex.getDiscountPercent(3L, start.plus(15, ChronoUnit.DAYS))).isZero();
+        assertThat(promotionIndex.getDiscountPercent(null, start)).isZero();
+        assertThat(promotionIndex.getDiscountPercents(List.of(PRODUCT_ID, OTHER_PRODUCT_ID, 3L), start.plus(15, ChronoUnit.DAYS)))
+            .containsExactlyInAnyOrderEntriesOf(Map.of(PRODUCT_ID, 25, OTHER_PRODUCT_ID, 25));
+    }
+
+    @Test
+    void windowBoundariesAreInclusive() {
+        assertThat(promotionIndex.getDiscountPercent(PRODUCT_ID, start.minusNanos(1))).isZero();
+        assertThat(promotionIndex.getDiscountPercent(PRODUCT_ID, start)).isEqualTo(10);
+        assertThat(promotionIndex.getDiscountPercent(PRODUCT_ID, end)).isEqualTo(10);
+        assertThat(promotionIndex.getDiscountPercent(PRODUCT_ID, end.plusNanos(1))).isZero();
+    }
+
+    @Test
+    void promotionChangedReloadsOnlyThatPromotion() {
+        Instant instant = start.plus(1, ChronoUnit.DAYS);
+        assertThat(promotionIndex.getDiscountPercent(PRODUCT_ID, instant)).isEqualTo(10);
+
+        // A saved promotion replaces its previous window
+        when(promotionRepository.findOneWithEagerRelationships(1L)).thenReturn(
+            Optional.of(promotion(1L, 40, start, end, OTHER_PRODUCT_ID))
+        );
+        promotionIndex.promotionChanged(1L);
+        assertThat(promotionIndex.getDiscountPercent(PRODUCT_ID, instant)).isZero();
+        assertThat(promotionIndex.getDiscountPercent(OTHER_PRODUCT_ID, instant)).isEqualTo(40);
+
+        // A promotion that is no longer live, or deleted, leaves the index
+        when(promotionRepository.findOneWithEagerRelationships(1L)).thenReturn(
+            Optional.of(promotion(1L, 40, start, end, OTHER_PRODUCT_ID).live(false))
+        );
+        promotionIndex.promotionChanged(1L);
+        assertThat(promotionIndex.getDiscountPercent(OTHER_PRODUCT_ID, instant)).isZero();
+
+        when(promotionRepository.findOneWithEagerRelationships(2L)).thenReturn(Optional.empty());
+        promotionIndex.promotionChanged(2L);
+        assertThat(promotionIndex.getDiscountPercent(PRODUCT_ID, start.plus(15, ChronoUnit.DAYS))).isEqualTo(10);
+        verify(promotionRepository, times(1)).findLivePromotionsWithProducts();
+    }
+
+    @Test
+    void promotionChangedWhileLoadingIsReloadedOnceLoaded() {
+        // The change is committed and broadcast while the load reads the previous window
+        when(promotionRepository.findOneWithEagerRelationships(1L)).thenReturn(Optional.of(promotion(1L, 40, start, end, PRODUCT_ID)));
+        when(promotionRepository.findLivePromotionsWithProducts()).thenAnswer(invocation -> {
+            deliver(1L);
+            return List.of(promotion(1L, 10, start, end, PRODUCT_ID));
+        });
+
+        assertThat(promotionIndex.getDiscountPercent(PRODUCT_ID, start)).isEqualTo(40);
+        verify(promotionRepository, times(1)).findOneWithEagerRelationships(1L);
+    }
+
+    private void deliver(Long promotionId) {
+        listener.onMessage(new Message<>("promotion-index", promotionId, 0L, null));
+    }
+
+    private static Promotion promotion(Long id, int discountPercent, Instant startDate, Instant endDate, Long... productIds) {
+        Promotion promotion = new Promotion().id(id).discountPercent(discountPercent).startDate(startDate).endDate(endDate).live(true);
+        for (Long productId : productIds) {
+            promotion.addProducts(new Product().id(productId));
+        }
+        return promotion;
+    }
+}
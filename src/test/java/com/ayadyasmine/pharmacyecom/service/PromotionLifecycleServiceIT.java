@@ -0,0 +1,62 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ayadyasmine.pharmacyecom.IntegrationTest;
+import com.ayadyasmine.pharmacyecom.domain.Product;
+import com.ayadyasmine.pharmacyecom.domain.Promotion;
+import com.ayadyasmine.pharmacyecom.web.rest.ProductResourceIT;
+import com.ayadyasmine.pharmacyecom.web.rest.PromotionResourceIT;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link PromotionLifecycleService}.
+ */
+@IntegrationTest
+@Transactional
+class PromotionLifecycleServiceIT {
+
+    private static final BigDecimal PRICE = new BigDecimal("200.00");
+
+    @Autowired
+    private PromotionLifecycleService promotionLifecycleService;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void sweepFlipsPromotionsAtTheirBoundariesAndRepricesTheirProducts() {
+        Instant now = Instant.now();
+        Product product = ProductResourceIT.createEntity().slug("sweep-product").sku("sweep-product").price(PRICE);
+        em.persist(product);
+        Promotion promotion = PromotionResourceIT.createEntity()
+            .discountPercent(25)
+            .active(true)
+            .startDate(now.minus(1, ChronoUnit.HOURS))
+            .endDate(now.plus(1, ChronoUnit.HOURS))
+            .live(false)
+            .addProducts(product);
+        em.persist(promotion);
+        em.flush();
+
+        // The promotion started: it goes live and discounts its product
+        promotionLifecycleService.sweep();
+        em.clear();
+        assertThat(em.find(Promotion.class, promotion.getId()).getLive()).isTrue();
+        assertThat(em.find(Product.class, product.getId()).getEffectivePrice()).isEqualByComparingTo("150.00");
+
+        // The promotion ended: it is no longer live and the product is back to its price
+        em.find(Promotion.class, promotion.getId()).setEndDate(now.minus(1, ChronoUnit.MINUTES));
+        em.flush();
+        promotionLifecycleService.sweep();
+        em.clear();
+        assertThat(em.find(Promotion.class, promotion.getId()).getLive()).isFalse();
+        assertThat(em.find(Product.class, product.getId()).getEffectivePrice()).isEqualByComparingTo(PRICE);
+    }
+}
@@ -0,0 +1,123 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.ayadyasmine.pharmacyecom.domain.Product;
+import com.ayadyasmine.pharmacyecom.domain.Promotion;
+import com.ayadyasmine.pharmacyecom.repository.NaturalIdRepository;
+import com.ayadyasmine.pharmacyecom.repository.ProductRepository;
+import com.ayadyasmine.pharmacyecom.repository.PromotionRepository;
+import com.ayadyasmine.pharmacyecom.service.dto.ProductDTO;
+import com.ayadyasmine.pharmacyecom.service.mapper.ProductMapperImpl;
+import com.ayadyasmine.pharmacyecom.service.mapper.PromotionMapper;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for the pricing of a page of products by the {@link PromotionService}, read from the {@link PromotionIndex}.
+ */
+class PromotionServiceTest {
+
+    private final Instant now = Instant.now();
+
+    private final Product discounted = product(1L, "19.99");
+
+    private final Product overlapping = product(2L, "200.00");
+
+    private final Product notStarted = product(3L, "99.99");
+
+    private final Product withoutPromotion = product(4L, "45.50");
+
+    private final Product withoutPrice = product(5L, null);
+
+    private PromotionRepository promotionRepository;
+
+    private PromotionService promotionService;
+
+    private ProductService productService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void initTest() {
+        promotionRepository = mock(PromotionRepository.class);
+        HazelcastInstance hazelcastInstance = mock(HazelcastInstance.class);
+        when(hazelcastInstance.<Long>getTopic(anyString())).thenReturn(mock(ITopic.class));
+        PromotionIndex promotionIndex = new PromotionIndex(promotionRepository, mock(PlatformTransactionManager.class), hazelcastInstance);
+        promotionService = new PromotionService(
+            promotionRepository,
+            mock(PromotionMapper.class),
+            promotionIndex,
+            mock(EffectivePriceService.class),
+            mock(CatalogVersion.class)
+        );
+        productService = new ProductService(
+            mock(ProductRepository.class),
+            new ProductMapperImpl(),
+            promotionService,
+            mock(ProductSuggestionIndex.class),
+            mock(NaturalIdRepository.class),
+            mock(CatalogVersion.class)
+        );
+
+        when(promotionRepository.findLivePromotionsWithProducts()).thenReturn(
+            List.of(
+                promotion(1L, 10, now.minus(1, ChronoUnit.DAYS), now.plus(1, ChronoUnit.DAYS)).addProducts(discounted).addProducts(overlapping),
+                promotion(2L, 25, now.minus(1, ChronoUnit.HOURS), now.plus(1, ChronoUnit.HOURS)).addProducts(overlapping),
+                promotion(3L, 50, now.plus(1, ChronoUnit.DAYS), now.plus(2, ChronoUnit.DAYS)).addProducts(notStarted),
+                promotion(4L, 30, now.minus(1, ChronoUnit.DAYS), now.plus(1, ChronoUnit.DAYS)).addProducts(withoutPrice)
+            )
+        );
+    }
+
+    @Test
+    void getDiscountedPricesAppliesTheBestCurrentPercentOfEachProduct() {
+        Map<Long, BigDecimal> prices = promotionService.getDiscountedPrices(
+            List.of(discounted, overlapping, notStarted, withoutPromotion, withoutPrice)
+        );
+
+        // 10% of 19.99 is rounded half-up to 2.00
+        assertThat(prices.get(discounted.getId())).isEqualByComparingTo("17.99");
+        // The overlapping promotions do not add up, the best one applies
+        assertThat(prices.get(overlapping.getId())).isEqualByComparingTo("150.00");
+        // Products without a current promotion keep their price
+        assertThat(prices.get(notStarted.getId())).isEqualByComparingTo("99.99");
+        assertThat(prices.get(withoutPromotion.getId())).isEqualByComparingTo("45.50");
+        assertThat(prices).containsEntry(withoutPrice.getId(), null);
+        assertThat(promotionService.getDiscountPercentsForProducts(List.of(discounted.getId(), overlapping.getId(), notStarted.getId())))
+            .containsExactlyInAnyOrderEntriesOf(Map.of(discounted.getId(), 10, overlapping.getId(), 25));
+    }
+
+    @Test
+    void toDtosWithDiscountedPricePricesTheWholePage() {
+        List<ProductDTO> page = productService
+            .toDtosWithDiscountedPrice(new PageImpl<>(List.of(discounted, overlapping, withoutPromotion), PageRequest.of(0, 3), 3))
+            .getContent();
+
+        assertThat(page).extracting(ProductDTO::getId).containsExactly(discounted.getId(), overlapping.getId(), withoutPromotion.getId());
+        assertThat(page)
+            .extracting(ProductDTO::getDiscountedPrice)
+            .usingElementComparator(BigDecimal::compareTo)
+            .containsExactly(new BigDecimal("17.99"), new BigDecimal("150.00"), new BigDecimal("45.50"));
+    }
+
+    private static Product product(Long id, String price) {
+        return new Product().id(id).price(price == null ? null : new BigDecimal(price));
+    }
+
+    private static Promotion promotion(Long id, int discountPercent, Instant startDate, Instant endDate) {
+        return new Promotion().id(id).discountPercent(discountPercent).startDate(startDate).endDate(endDate).active(true).live(true);
+    }
+}
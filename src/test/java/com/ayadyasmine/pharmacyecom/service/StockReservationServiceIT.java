@@ -0,0 +1,194 @@
+package com.ayadyasmine.pharmacyecom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ayadyasmine.pharmacyecom.IntegrationTest;
+import com.ayadyasmine.pharmacyecom.domain.Cart;
+import com.ayadyasmine.pharmacyecom.domain.CartItem;
+import com.ayadyasmine.pharmacyecom.domain.ProductVariant;
+import com.ayadyasmine.pharmacyecom.domain.StockReservation;
+import com.ayadyasmine.pharmacyecom.repository.CartItemRepository;
+import com.ayadyasmine.pharmacyecom.repository.CartRepository;
+import com.ayadyasmine.pharmacyecom.repository.ProductVariantRepository;
+import com.ayadyasmine.pharmacyecom.repository.StockReservationRepository;
+import com.ayadyasmine.pharmacyecom.service.dto.CartItemDTO;
+import com.ayadyasmine.pharmacyecom.web.rest.CartResourceIT;
+import com.ayadyasmine.pharmacyecom.web.rest.ProductVariantResourceIT;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@link StockReservationService}.
+ * The changes are committed, as the counters are only updated once the holds are committed.
+ */
+@IntegrationTest
+class StockReservationServiceIT {
+
+    private static final int STOCK = 10;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private CartItemService cartItemService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Cart> insertedCarts = new ArrayList<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    private ProductVariant variant;
+
+    @BeforeEach
+    void initTest() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        variant = productVariantRepository.saveAndFlush(ProductVariantResourceIT.createEntity().sku("RESERVED").stock(STOCK));
+    }
+
+    @AfterEach
+    void cleanup() {
+        insertedCarts.forEach(cart -> {
+            cartItemRepository
+                .findAll()
+                .stream()
+                .filter(item -> item.getCart() != null && cart.getId().equals(item.getCart().getId()))
+                .forEach(cartItemRepository::delete);
+            cartRepository.deleteById(cart.getId());
+        });
+        insertedCarts.clear();
+        productVariantRepository.deleteById(variant.getId());
+        stockReservationService.resync();
+    }
+
+    @Test
+    void reserveHoldsTheStockUntilReleased() {
+        Cart cart = insertCart();
+
+        stockReservationService.reserve(cart.getId(), variant, 4);
+        assertThat(stockReservationService.getAvailableToSell(variant.getId())).contains(STOCK - 4);
+
+        // A hold larger than what is left is rejected and changes nothing
+        assertThatThrownBy(() -> stockReservationService.reserve(cart.getId(), variant, STOCK - 3)).isInstanceOf(
+            InsufficientStockException.class
+        );
+        assertThat(stockReservationService.getAvailableToSell(variant.getId())).contains(STOCK - 4);
+        assertThat(heldQuantity(cart)).contains(4);
+
+        stockReservationService.release(cart.getId(), variant.getId(), 3);
+        assertThat(stockReservationService.getAvailableToSell(variant.getId())).contains(STOCK - 1);
+        assertThat(heldQuantity(cart)).contains(1);
+
+        stockReservationService.releaseAll(cart.getId());
+        assertThat(stockReservationService.getAvailableToSell(variant.getId())).contains(STOCK);
+        assertThat(heldQuantity(cart)).isEmpty();
+    }
+
+    @Test
+    void expiredHoldsAreReleasedByTheReaper() {
+        Cart cart = insertCart();
+        Cart otherCart = insertCart();
+        stockReservationService.reserve(cart.getId(), variant, 4);
+        stockReservationService.reserve(otherCart.getId(), variant, 2);
+        transactionTemplate.executeWithoutResult(status ->
+            stockReservationRepository
+                .findByCartIdAndVariantId(cart.getId(), variant.getId())
+                .ifPresent(reservation -> reservation.setExpiresAt(Instant.now().minusSeconds(1)))
+        );
+
+        stockReservationService.releaseExpiredHolds();
+
+        assertThat(heldQuantity(cart)).isEmpty();
+        assertThat(heldQuantity(otherCart)).contains(2);
+        assertThat(stockReservationService.getAvailableToSell(variant.getId())).contains(STOCK - 2);
+    }
+
+    @Test
+    void convertHoldsTakesTheOrderedQuantitiesOffTheStock() {
+        Cart cart = insertCart();
+        stockReservationService.reserve(cart.getId(), variant, 4);
+
+        stockReservationService.convertHolds(cart.getId(), Map.of(variant.getId(), 4));
+
+        assertThat(heldQuantity(cart)).isEmpty();
+        assertThat(stockReservationService.getAvailableToSell(variant.getId())).contains(STOCK - 4);
+    }
+
+    @Test
+    void cartItemChangesResizeTheHold() {
+        Cart cart = insertCart();
+        stockReservationService.reserve(cart.getId(), variant, 2);
+        CartItem item = cartItemRepository.saveAndFlush(new CartItem().cart(cart).variant(variant).quantity(2));
+
+        cartItemService.partialUpdate(quantity(item, 5));
+        assertThat(heldQuantity(cart)).contains(5);
+        assertThat(stockReservationService.getAvailableToSell(variant.getId())).contains(STOCK - 5);
+
+        assertThatThrownBy(() -> cartItemService.partialUpdate(quantity(item, STOCK + 1))).isInstanceOf(InsufficientStockException.class);
+        assertThat(heldQuantity(cart)).contains(5);
+
+        cartItemService.partialUpdate(quantity(item, 1));
+        assertThat(heldQuantity(cart)).contains(1);
+        assertThat(stockReservationService.getAvailableToSell(variant.getId())).contains(STOCK - 1);
+
+        cartItemService.delete(item.getId());
+        assertThat(heldQuantity(cart)).isEmpty();
+        assertThat(stockReservationService.getAvailableToSell(variant.getId())).contains(STOCK);
+    }
+
+    @Test
+    void deletingACartReleasesItsHolds() {
+        Cart cart = cartRepository.saveAndFlush(CartResourceIT.createEntity());
+        stockReservationService.reserve(cart.getId(), variant, 3);
+        assertThat(stockReservationService.getAvailableToSell(variant.getId())).contains(STOCK - 3);
+
+        cartService.delete(cart.getId());
+
+        assertThat(stockReservationService.getAvailableToSell(variant.getId())).contains(STOCK);
+    }
+
+    private Cart insertCart() {
+        Cart cart = cartRepository.saveAndFlush(CartResourceIT.createEntity());
+        insertedCarts.add(cart);
+        return cart;
+    }
+
+    private Optional<Integer> heldQuantity(Cart cart) {
+        return transactionTemplate.execute(status ->
+            stockReservationRepository.findByCartIdAndVariantId(cart.getId(), variant.getId()).map(StockReservation::getQuantity)
+        );
+    }
+
+    private static CartItemDTO quantity(CartItem item, int quantity) {
+        CartItemDTO cartItemDTO = new CartItemDTO();
+        cartItemDTO.setId(item.getId());
+        cartItemDTO.setQuantity(quantity);
+        return cartItemDTO;
+    }
+}
@@ -80,6 +80,7 @@ class ProductCriteriaTest {
         productCriteria.slug();
         productCriteria.price();
         productCriteria.oldPrice();
+        productCriteria.effectivePrice();
         productCriteria.stock();
         productCriteria.sku();
         productCriteria.active();
@@ -89,6 +90,7 @@ class ProductCriteriaTest {
         productCriteria.metaDescription();
         productCriteria.viewsCount();
         productCriteria.categoryId();
+        productCriteria.categorySubtreeId();
         productCriteria.brandId();
         productCriteria.promotionsId();
         productCriteria.distinct();
@@ -102,6 +104,7 @@ class ProductCriteriaTest {
                 condition.apply(criteria.getSlug()) &&
                 condition.apply(criteria.getPrice()) &&
                 condition.apply(criteria.getOldPrice()) &&
+                condition.apply(criteria.getEffectivePrice()) &&
                 condition.apply(criteria.getStock()) &&
                 condition.apply(criteria.getSku()) &&
                 condition.apply(criteria.getActive()) &&
@@ -111,6 +114,7 @@ class ProductCriteriaTest {
                 condition.apply(criteria.getMetaDescription()) &&
                 condition.apply(criteria.getViewsCount()) &&
                 condition.apply(criteria.getCategoryId()) &&
+                condition.apply(criteria.getCategorySubtreeId()) &&
                 condition.apply(criteria.getBrandId()) &&
                 condition.apply(criteria.getPromotionsId()) &&
                 condition.apply(criteria.getDistinct()),
@@ -126,6 +130,7 @@ class ProductCriteriaTest {
                 condition.apply(criteria.getSlug(), copy.getSlug()) &&
                 condition.apply(criteria.getPrice(), copy.getPrice()) &&
                 condition.apply(criteria.getOldPrice(), copy.getOldPrice()) &&
+                condition.apply(criteria.getEffectivePrice(), copy.getEffectivePrice()) &&
                 condition.apply(criteria.getStock(), copy.getStock()) &&
                 condition.apply(criteria.getSku(), copy.getSku()) &&
                 condition.apply(criteria.getActive(), copy.getActive()) &&
@@ -135,6 +140,7 @@ class ProductCriteriaTest {
                 condition.apply(criteria.getMetaDescription(), copy.getMetaDescription()) &&
                 condition.apply(criteria.getViewsCount(), copy.getViewsCount()) &&
                 condition.apply(criteria.getCategoryId(), copy.getCategoryId()) &&
+                condition.apply(criteria.getCategorySubtreeId(), copy.getCategorySubtreeId()) &&
                 condition.apply(criteria.getBrandId(), copy.getBrandId()) &&
                 condition.apply(criteria.getPromotionsId(), copy.getPromotionsId()) &&
                 condition.apply(criteria.getDistinct(), copy.getDistinct()),
@@ -0,0 +1,24 @@
+package com.ayadyasmine.pharmacyecom.service.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ayadyasmine.pharmacyecom.web.rest.TestUtil;
+import org.junit.jupiter.api.Test;
+
+class ProductSummaryDTOTest {
+
+    @Test
+    void dtoEqualsVerifier() throws Exception {
+        TestUtil.equalsVerifier(ProductSummaryDTO.class);
+        ProductSummaryDTO productSummaryDTO1 = new ProductSummaryDTO();
+        productSummaryDTO1.setId(1L);
+        ProductSummaryDTO productSummaryDTO2 = new ProductSummaryDTO();
+        assertThat(productSummaryDTO1).isNotEqualTo(productSummaryDTO2);
+        productSummaryDTO2.setId(productSummaryDTO1.getId());
+        assertThat(productSummaryDTO1).isEqualTo(productSummaryDTO2);
+        productSummaryDTO2.setId(2L);
+        assertThat(productSummaryDTO1).isNotEqualTo(productSummaryDTO2);
+        productSummaryDTO1.setId(null);
+        assertThat(productSummaryDTO1).isNotEqualTo(productSummaryDTO2);
+    }
+}
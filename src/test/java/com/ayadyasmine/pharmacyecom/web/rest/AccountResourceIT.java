@@ -6,6 +6,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.ayadyasmine.pharmacyecom.IntegrationTest;
 import com.ayadyasmine.pharmacyecom.config.Constants;
+import com.ayadyasmine.pharmacyecom.domain.Customer;
+import com.ayadyasmine.pharmacyecom.domain.Order;
+import com.ayadyasmine.pharmacyecom.domain.Product;
+import com.ayadyasmine.pharmacyecom.domain.ProductVariant;
 import com.ayadyasmine.pharmacyecom.domain.User;
 import com.ayadyasmine.pharmacyecom.repository.AuthorityRepository;
 import com.ayadyasmine.pharmacyecom.repository.UserRepository;
@@ -16,6 +20,8 @@ import com.ayadyasmine.pharmacyecom.service.dto.PasswordChangeDTO;
 import com.ayadyasmine.pharmacyecom.web.rest.vm.KeyAndPasswordVM;
 import com.ayadyasmine.pharmacyecom.web.rest.vm.ManagedUserVM;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.stream.Stream;
@@ -31,6 +37,7 @@ import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -60,6 +67,9 @@ class AccountResourceIT {
     @Autowired
     private MockMvc restAccountMockMvc;
 
+    @Autowired
+    private EntityManager em;
+
     private Long numberOfUsers;
 
     @BeforeEach
@@ -775,4 +785,61 @@ class AccountResourceIT {
             )
             .andExpect(status().isInternalServerError());
     }
+
+    @Test
+    @Transactional
+    @WithMockUser("user")
+    void getAccountOrdersPagesTheOrdersWithTheirLines() throws Exception {
+        User user = userRepository.findOneByLogin("user").orElseThrow();
+        Customer customer = CustomerResourceIT.createEntity().user(user);
+        em.persist(customer);
+        Product product = ProductResourceIT.createEntity();
+        em.persist(product);
+        ProductVariant variant = ProductVariantResourceIT.createEntity().product(product);
+        em.persist(variant);
+        Instant start = Instant.parse("2026-01-01T10:00:00Z");
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Order order = OrderResourceIT.createEntity().orderDate(start.plus(Duration.ofHours(i))).customer(customer);
+            em.persist(order);
+            em.persist(OrderItemResourceIT.createEntity().quantity(i + 1).order(order).product(product).variant(variant));
+            orders.add(order);
+        }
+        Instant shippedAt = start.plus(Duration.ofDays(1));
+        em.persist(OrderStatusHistoryResourceIT.createEntity().changedAt(start).order(orders.get(2)));
+        em.persist(OrderStatusHistoryResourceIT.createEntity().changedAt(shippedAt).order(orders.get(2)));
+        em.flush();
+
+        MvcResult firstPage = restAccountMockMvc
+            .perform(get("/api/account/orders?size=2").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("X-Next-Cursor"))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].id").value(orders.get(2).getId()))
+            .andExpect(jsonPath("$[0].statusChangedAt").value(shippedAt.toString()))
+            .andExpect(jsonPath("$[0].items.length()").value(1))
+            .andExpect(jsonPath("$[0].items[0].quantity").value(3))
+            .andExpect(jsonPath("$[0].items[0].productName").value(product.getName()))
+            .andExpect(jsonPath("$[0].items[0].variantLabel").value(variant.getLabel()))
+            .andExpect(jsonPath("$[1].id").value(orders.get(1).getId()))
+            .andReturn();
+
+        restAccountMockMvc
+            .perform(
+                get("/api/account/orders?size=2")
+                    .param("cursor", firstPage.getResponse().getHeader("X-Next-Cursor"))
+                    .accept(MediaType.APPLICATION_JSON)
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Next-Cursor"))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].id").value(orders.get(0).getId()))
+            .andExpect(jsonPath("$[0].statusChangedAt").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser("user")
+    void getAccountOrdersWithInvalidCursor() throws Exception {
+        restAccountMockMvc.perform(get("/api/account/orders").param("cursor", "not-a-cursor")).andExpect(status().isBadRequest());
+    }
 }
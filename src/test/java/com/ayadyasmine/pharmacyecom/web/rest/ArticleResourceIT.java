@@ -233,6 +233,24 @@ class ArticleResourceIT {
             .andExpect(jsonPath("$.active").value(DEFAULT_ACTIVE));
     }
 
+    @Test
+    @Transactional
+    void getArticleBySlug() throws Exception {
+        // Initialize the database
+        insertedArticle = articleRepository.saveAndFlush(article);
+
+        // Get the article by slug
+        restArticleMockMvc
+            .perform(get(ENTITY_API_URL + "/by-slug/{slug}", DEFAULT_SLUG))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.id").value(article.getId().intValue()))
+            .andExpect(jsonPath("$.slug").value(DEFAULT_SLUG));
+
+        // Get a article by an unknown slug
+        restArticleMockMvc.perform(get(ENTITY_API_URL + "/by-slug/{slug}", UPDATED_SLUG)).andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     void getNonExistingArticle() throws Exception {
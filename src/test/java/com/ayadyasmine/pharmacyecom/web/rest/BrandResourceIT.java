@@ -581,6 +581,24 @@ class BrandResourceIT {
             .andExpect(content().string("0"));
     }
 
+    @Test
+    @Transactional
+    void getBrandBySlug() throws Exception {
+        // Initialize the database
+        insertedBrand = brandRepository.saveAndFlush(brand);
+
+        // Get the brand by slug
+        restBrandMockMvc
+            .perform(get(ENTITY_API_URL + "/by-slug/{slug}", DEFAULT_SLUG))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.id").value(brand.getId().intValue()))
+            .andExpect(jsonPath("$.slug").value(DEFAULT_SLUG));
+
+        // Get a brand by an unknown slug
+        restBrandMockMvc.perform(get(ENTITY_API_URL + "/by-slug/{slug}", UPDATED_SLUG)).andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     void getNonExistingBrand() throws Exception {
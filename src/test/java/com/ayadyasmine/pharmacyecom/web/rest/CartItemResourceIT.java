@@ -9,9 +9,14 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.ayadyasmine.pharmacyecom.IntegrationTest;
+import com.ayadyasmine.pharmacyecom.domain.Cart;
 import com.ayadyasmine.pharmacyecom.domain.CartItem;
+import com.ayadyasmine.pharmacyecom.domain.ProductVariant;
 import com.ayadyasmine.pharmacyecom.repository.CartItemRepository;
+import com.ayadyasmine.pharmacyecom.repository.CartRepository;
+import com.ayadyasmine.pharmacyecom.repository.ProductVariantRepository;
 import com.ayadyasmine.pharmacyecom.service.CartItemService;
+import com.ayadyasmine.pharmacyecom.service.StockReservationService;
 import com.ayadyasmine.pharmacyecom.service.dto.CartItemDTO;
 import com.ayadyasmine.pharmacyecom.service.mapper.CartItemMapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -67,6 +72,15 @@ class CartItemResourceIT {
     @Mock
     private CartItemService cartItemServiceMock;
 
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
     @Autowired
     private EntityManager em;
 
@@ -134,6 +148,40 @@ class CartItemResourceIT {
         insertedCartItem = returnedCartItem;
     }
 
+    @Test
+    void createCartItemHoldsItsQuantity() throws Exception {
+        // The holds are counted once committed
+        Cart cart = cartRepository.saveAndFlush(CartResourceIT.createEntity());
+        ProductVariant variant = productVariantRepository.saveAndFlush(
+            ProductVariantResourceIT.createEntity().sku("CART-ITEM-HOLD").stock(10)
+        );
+        try {
+            // A quantity above the stock is rejected
+            CartItemDTO cartItemDTO = cartItemMapper.toDto(new CartItem().cart(cart).variant(variant).quantity(11));
+            restCartItemMockMvc
+                .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(cartItemDTO)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("error.stockinsufficient"));
+            assertThat(stockReservationService.getAvailableToSell(variant.getId())).contains(10);
+
+            cartItemDTO.setQuantity(4);
+            restCartItemMockMvc
+                .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(cartItemDTO)))
+                .andExpect(status().isCreated());
+            assertThat(stockReservationService.getAvailableToSell(variant.getId())).contains(6);
+        } finally {
+            cartItemRepository
+                .findAll()
+                .stream()
+                .filter(item -> item.getCart() != null && cart.getId().equals(item.getCart().getId()))
+                .forEach(cartItemRepository::delete);
+            stockReservationService.releaseAll(cart.getId());
+            cartRepository.deleteById(cart.getId());
+            productVariantRepository.deleteById(variant.getId());
+            stockReservationService.resync();
+        }
+    }
+
     @Test
     @Transactional
     void createCartItemWithExistingId() throws Exception {
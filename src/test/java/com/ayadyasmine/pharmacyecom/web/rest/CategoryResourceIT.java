@@ -4,6 +4,7 @@ import static com.ayadyasmine.pharmacyecom.domain.CategoryAsserts.*;
 import static com.ayadyasmine.pharmacyecom.web.rest.TestUtil.createUpdateProxyForBean;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -28,6 +29,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
@@ -77,6 +79,12 @@ class CategoryResourceIT {
     @Mock
     private CategoryService categoryServiceMock;
 
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @Autowired
     private EntityManager em;
 
@@ -515,6 +523,70 @@ class CategoryResourceIT {
             .andExpect(content().string("0"));
     }
 
+    @Test
+    @Transactional
+    void getCategoryTree() throws Exception {
+        cacheManager.getCache(CategoryService.CATEGORY_TREE_CACHE).clear();
+        // Initialize the database
+        insertedCategory = categoryRepository.saveAndFlush(category);
+        Category child = categoryRepository.saveAndFlush(createUpdatedEntity().parent(category));
+
+        // Get the category tree
+        restCategoryMockMvc
+            .perform(get(ENTITY_API_URL + "/tree"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(category.getId().intValue())))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(child.getId().intValue()))))
+            .andExpect(jsonPath("$[?(@.id == " + category.getId() + ")].children[*].id").value(hasItem(child.getId().intValue())));
+
+        categoryRepository.delete(child);
+        cacheManager.getCache(CategoryService.CATEGORY_TREE_CACHE).clear();
+    }
+
+    @Test
+    @Transactional
+    void putCategoryUnderItsOwnSubtree() throws Exception {
+        // Initialize the database through the service, which maintains the closure table
+        CategoryDTO parentDTO = categoryService.save(categoryMapper.toDto(category));
+        CategoryDTO childDTO = categoryMapper.toDto(createUpdatedEntity());
+        childDTO.setParent(parentDTO);
+        childDTO = categoryService.save(childDTO);
+        assertThat(categoryService.isInSubtree(childDTO.getId(), parentDTO.getId())).isTrue();
+
+        // Move the parent under its child
+        parentDTO.setParent(childDTO);
+        restCategoryMockMvc
+            .perform(put(ENTITY_API_URL_ID, parentDTO.getId()).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(parentDTO)))
+            .andExpect(status().isBadRequest());
+
+        // Detach the child, which leaves the subtree of its former parent
+        childDTO.setParent(null);
+        restCategoryMockMvc
+            .perform(put(ENTITY_API_URL_ID, childDTO.getId()).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(childDTO)))
+            .andExpect(status().isOk());
+        assertThat(categoryService.isInSubtree(childDTO.getId(), parentDTO.getId())).isFalse();
+        assertThat(categoryService.isInSubtree(childDTO.getId(), childDTO.getId())).isTrue();
+    }
+
+    @Test
+    @Transactional
+    void getCategoryBySlug() throws Exception {
+        // Initialize the database
+        insertedCategory = categoryRepository.saveAndFlush(category);
+
+        // Get the category by slug
+        restCategoryMockMvc
+            .perform(get(ENTITY_API_URL + "/by-slug/{slug}", DEFAULT_SLUG))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.id").value(category.getId().intValue()))
+            .andExpect(jsonPath("$.slug").value(DEFAULT_SLUG));
+
+        // Get a category by an unknown slug
+        restCategoryMockMvc.perform(get(ENTITY_API_URL + "/by-slug/{slug}", UPDATED_SLUG)).andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     void getNonExistingCategory() throws Exception {
@@ -0,0 +1,64 @@
+package com.ayadyasmine.pharmacyecom.web.rest;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ayadyasmine.pharmacyecom.repository.OrderRepository;
+import com.ayadyasmine.pharmacyecom.service.CheckoutQueueFullException;
+import com.ayadyasmine.pharmacyecom.service.CheckoutQueueService;
+import com.ayadyasmine.pharmacyecom.service.OrderDetailService;
+import com.ayadyasmine.pharmacyecom.service.OrderQueryService;
+import com.ayadyasmine.pharmacyecom.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+/**
+ * Unit tests for the checkout of the {@link OrderResource} when the checkout queue rejects it, which the integration
+ * tests, run with the queue disabled, do not reach.
+ */
+class OrderResourceCheckoutTest {
+
+    private CheckoutQueueService checkoutQueueService;
+
+    private MockMvc restOrderMockMvc;
+
+    @BeforeEach
+    void setup() {
+        checkoutQueueService = mock(CheckoutQueueService.class);
+        OrderResource orderResource = new OrderResource(
+            mock(OrderService.class),
+            mock(OrderRepository.class),
+            mock(OrderQueryService.class),
+            checkoutQueueService,
+            mock(OrderDetailService.class)
+        );
+        restOrderMockMvc = MockMvcBuilders.standaloneSetup(orderResource).build();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("checkout-user", "checkout-user"));
+    }
+
+    @AfterEach
+    void cleanup() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void checkoutIsUnavailableWhenTheQueueIsFull() throws Exception {
+        when(checkoutQueueService.checkout(eq("checkout-user"), any(), any(), any())).thenThrow(
+            new CheckoutQueueFullException("Checkout queue is full")
+        );
+
+        restOrderMockMvc
+            .perform(post("/api/orders/checkout").contentType(MediaType.APPLICATION_JSON).content("{}"))
+            .andExpect(status().isServiceUnavailable());
+    }
+}
@@ -9,20 +9,37 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.ayadyasmine.pharmacyecom.IntegrationTest;
+import com.ayadyasmine.pharmacyecom.domain.Cart;
 import com.ayadyasmine.pharmacyecom.domain.Customer;
 import com.ayadyasmine.pharmacyecom.domain.Order;
+import com.ayadyasmine.pharmacyecom.domain.Product;
+import com.ayadyasmine.pharmacyecom.domain.ProductVariant;
+import com.ayadyasmine.pharmacyecom.domain.User;
 import com.ayadyasmine.pharmacyecom.domain.enumeration.OrderStatus;
 import com.ayadyasmine.pharmacyecom.domain.enumeration.PaymentMethod;
 import com.ayadyasmine.pharmacyecom.repository.OrderRepository;
+import com.ayadyasmine.pharmacyecom.repository.OrderStatusHistoryRepository;
+import com.ayadyasmine.pharmacyecom.security.AuthoritiesConstants;
+import com.ayadyasmine.pharmacyecom.service.InsufficientStockException;
+import com.ayadyasmine.pharmacyecom.service.OrderService;
+import com.ayadyasmine.pharmacyecom.service.OrderService.CheckoutOutcome;
+import com.ayadyasmine.pharmacyecom.service.OrderService.CheckoutRequest;
 import com.ayadyasmine.pharmacyecom.service.dto.OrderDTO;
 import com.ayadyasmine.pharmacyecom.service.mapper.OrderMapper;
+import com.ayadyasmine.pharmacyecom.web.rest.vm.CheckoutVM;
+import com.ayadyasmine.pharmacyecom.web.rest.vm.OrderTransitionVM;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityManager;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -79,6 +96,12 @@ class OrderResourceIT {
     @Autowired
     private OrderMapper orderMapper;
 
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderStatusHistoryRepository orderStatusHistoryRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -288,6 +311,37 @@ class OrderResourceIT {
             .andExpect(jsonPath("$.trackingNumber").value(DEFAULT_TRACKING_NUMBER));
     }
 
+    @Test
+    @Transactional
+    void getAllOrdersWithCursor() throws Exception {
+        // Initialize the database
+        insertedOrder = orderRepository.saveAndFlush(order);
+        Order other = orderRepository.saveAndFlush(createUpdatedEntity());
+        String ids = "&id.in=" + order.getId() + "," + other.getId();
+
+        // Get the first page, most recent first
+        String nextCursor = restOrderMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor=&size=1&sort=orderDate,desc" + ids))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().exists("X-Next-Cursor"))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(other.getId().intValue()))
+            .andReturn()
+            .getResponse()
+            .getHeader("X-Next-Cursor");
+
+        // Get the last page from the cursor
+        restOrderMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor=" + nextCursor + "&size=1" + ids))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Next-Cursor"))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(order.getId().intValue()));
+
+        orderRepository.delete(other);
+    }
+
     @Test
     @Transactional
     void getOrdersByIdFiltering() throws Exception {
@@ -679,6 +733,76 @@ class OrderResourceIT {
         restOrderMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void getOrderDetail() throws Exception {
+        User user = UserResourceIT.createEntity();
+        em.persist(user);
+        Customer customer = CustomerResourceIT.createEntity().user(user);
+        em.persist(customer);
+        ProductVariant variant = insertVariants("detail", 1, 5).get(0);
+        em.persist(order.customer(customer));
+        em.persist(OrderItemResourceIT.createEntity().quantity(2).order(order).product(variant.getProduct()).variant(variant));
+        Instant placedAt = DEFAULT_ORDER_DATE;
+        Instant shippedAt = placedAt.plus(1, ChronoUnit.DAYS);
+        em.persist(OrderStatusHistoryResourceIT.createEntity().status(OrderStatus.SHIPPED).changedAt(shippedAt).order(order));
+        em.persist(OrderStatusHistoryResourceIT.createEntity().status(OrderStatus.PENDING).changedAt(placedAt).order(order));
+        em.flush();
+        em.clear();
+
+        restOrderMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/detail", order.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.id").value(order.getId().intValue()))
+            .andExpect(jsonPath("$.status").value(DEFAULT_STATUS.toString()))
+            .andExpect(jsonPath("$.customerId").value(customer.getId().intValue()))
+            .andExpect(jsonPath("$.customerLogin").value(user.getLogin()))
+            .andExpect(jsonPath("$.items.length()").value(1))
+            .andExpect(jsonPath("$.items[0].quantity").value(2))
+            .andExpect(jsonPath("$.items[0].productName").value(variant.getProduct().getName()))
+            .andExpect(jsonPath("$.items[0].variantLabel").value(variant.getLabel()))
+            .andExpect(jsonPath("$.statusHistories.length()").value(2))
+            .andExpect(jsonPath("$.statusHistories[0].status").value(OrderStatus.PENDING.toString()))
+            .andExpect(jsonPath("$.statusHistories[1].status").value(OrderStatus.SHIPPED.toString()))
+            .andExpect(jsonPath("$.statusHistories[1].changedAt").value(shippedAt.toString()));
+    }
+
+    @Test
+    void getOrderDetailAfterATransition() throws Exception {
+        // Committed, as the cached detail is evicted once the transition commits
+        Order placed = orderRepository.saveAndFlush(order);
+        try {
+            restOrderMockMvc
+                .perform(get(ENTITY_API_URL_ID + "/detail", placed.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(DEFAULT_STATUS.toString()))
+                .andExpect(jsonPath("$.statusHistories.length()").value(0));
+
+            orderService.transition(List.of(placed.getId()), OrderStatus.CONFIRMED, Map.of(), null);
+
+            restOrderMockMvc
+                .perform(get(ENTITY_API_URL_ID + "/detail", placed.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(OrderStatus.CONFIRMED.toString()))
+                .andExpect(jsonPath("$.statusHistories.length()").value(1))
+                .andExpect(jsonPath("$.statusHistories[0].status").value(OrderStatus.CONFIRMED.toString()));
+        } finally {
+            orderStatusHistoryRepository
+                .findAll()
+                .stream()
+                .filter(history -> history.getOrder() != null && placed.getId().equals(history.getOrder().getId()))
+                .forEach(orderStatusHistoryRepository::delete);
+            orderRepository.deleteById(placed.getId());
+        }
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingOrderDetail() throws Exception {
+        restOrderMockMvc.perform(get(ENTITY_API_URL_ID + "/detail", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     void putExistingOrder() throws Exception {
@@ -914,6 +1038,272 @@ class OrderResourceIT {
         assertDecrementedRepositoryCount(databaseSizeBeforeDelete);
     }
 
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void transitionOrdersMovesOnlyTheOrdersAllowedTo() throws Exception {
+        // Initialize the database
+        Order paid = orderRepository.saveAndFlush(createEntity().status(OrderStatus.PAID));
+        Order cancelled = orderRepository.saveAndFlush(createEntity().status(OrderStatus.CANCELLED));
+        Order confirmed = orderRepository.saveAndFlush(createEntity().status(OrderStatus.CONFIRMED));
+        OrderTransitionVM orderTransitionVM = new OrderTransitionVM();
+        orderTransitionVM.setOrderIds(List.of(paid.getId(), cancelled.getId(), Long.MAX_VALUE, confirmed.getId(), paid.getId()));
+        orderTransitionVM.setStatus(OrderStatus.SHIPPED);
+        orderTransitionVM.setTrackingNumbers(Map.of(paid.getId(), "TRACK-PAID", cancelled.getId(), "TRACK-CANCELLED"));
+        orderTransitionVM.setNotes("Expédiée depuis l'entrepôt");
+
+        // Move the orders, the duplicate id only once
+        restOrderMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_transition")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(orderTransitionVM))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(4))
+            .andExpect(jsonPath("$[0].id").value(paid.getId().intValue()))
+            .andExpect(jsonPath("$[0].transitioned").value(true))
+            .andExpect(jsonPath("$[0].previousStatus").value(OrderStatus.PAID.toString()))
+            .andExpect(jsonPath("$[0].status").value(OrderStatus.SHIPPED.toString()))
+            .andExpect(jsonPath("$[1].transitioned").value(false))
+            .andExpect(jsonPath("$[1].status").value(OrderStatus.CANCELLED.toString()))
+            .andExpect(jsonPath("$[1].error").value("transitioninvalid"))
+            .andExpect(jsonPath("$[2].transitioned").value(false))
+            .andExpect(jsonPath("$[2].error").value("ordernotfound"))
+            .andExpect(jsonPath("$[3].transitioned").value(true));
+
+        // Validate the orders and their status history
+        em.flush();
+        em.clear();
+        assertThat(orderRepository.findById(paid.getId()).orElseThrow())
+            .satisfies(order -> {
+                assertThat(order.getStatus()).isEqualTo(OrderStatus.SHIPPED);
+                assertThat(order.getTrackingNumber()).isEqualTo("TRACK-PAID");
+            });
+        assertThat(orderRepository.findById(confirmed.getId()).orElseThrow())
+            .satisfies(order -> {
+                assertThat(order.getStatus()).isEqualTo(OrderStatus.SHIPPED);
+                assertThat(order.getTrackingNumber()).isEqualTo(DEFAULT_TRACKING_NUMBER);
+            });
+        assertThat(orderRepository.findById(cancelled.getId()).orElseThrow())
+            .satisfies(order -> {
+                assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+                assertThat(order.getTrackingNumber()).isEqualTo(DEFAULT_TRACKING_NUMBER);
+            });
+        List<Long> historyOrderIds = em
+            .createQuery(
+                "select history.order.id from OrderStatusHistory history where history.order.id in :ids and history.status = :status",
+                Long.class
+            )
+            .setParameter("ids", List.of(paid.getId(), cancelled.getId(), confirmed.getId()))
+            .setParameter("status", OrderStatus.SHIPPED)
+            .getResultList();
+        assertThat(historyOrderIds).containsExactlyInAnyOrder(paid.getId(), confirmed.getId());
+    }
+
+    @Test
+    @Transactional
+    void transitionOrdersIsForbiddenToUsers() throws Exception {
+        // Initialize the database
+        Order paid = orderRepository.saveAndFlush(createEntity().status(OrderStatus.PAID));
+        OrderTransitionVM orderTransitionVM = new OrderTransitionVM();
+        orderTransitionVM.setOrderIds(List.of(paid.getId()));
+        orderTransitionVM.setStatus(OrderStatus.SHIPPED);
+
+        restOrderMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_transition")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(orderTransitionVM))
+            )
+            .andExpect(status().isForbidden());
+
+        // Validate the order is unchanged
+        em.clear();
+        assertThat(orderRepository.findById(paid.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.PAID);
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void transitionOrdersWithoutIds() throws Exception {
+        OrderTransitionVM orderTransitionVM = new OrderTransitionVM();
+        orderTransitionVM.setOrderIds(List.of());
+        orderTransitionVM.setStatus(OrderStatus.SHIPPED);
+
+        restOrderMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_transition")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(orderTransitionVM))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser("checkout-user")
+    void checkoutReplaysTheOrderOfAnIdempotencyKey() throws Exception {
+        // Initialize the database
+        ProductVariant variant = insertCartOf("checkout-user", 1, 5, 2).get(0);
+        CheckoutVM checkoutVM = new CheckoutVM();
+        checkoutVM.setAddress(DEFAULT_DELIVERY_ADDRESS);
+        checkoutVM.setPaymentMethod(DEFAULT_PAYMENT_METHOD);
+        long databaseSizeBeforeCheckout = getRepositoryCount();
+
+        // Checkout, then retry with the same key
+        OrderDTO first = om.readValue(
+            restOrderMockMvc
+                .perform(
+                    post(ENTITY_API_URL + "/checkout")
+                        .header("Idempotency-Key", "retried-checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsBytes(checkoutVM))
+                )
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            OrderDTO.class
+        );
+        restOrderMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/checkout")
+                    .header("Idempotency-Key", "retried-checkout")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(checkoutVM))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(first.getId().intValue()));
+
+        // Validate a single order was placed and the stock taken once
+        assertIncrementedRepositoryCount(databaseSizeBeforeCheckout);
+        em.flush();
+        em.clear();
+        assertThat(em.find(ProductVariant.class, variant.getId()).getStock()).isEqualTo(3);
+    }
+
+    @Test
+    @Transactional
+    void checkoutWithInvalidIdempotencyKey() throws Exception {
+        CheckoutVM checkoutVM = new CheckoutVM();
+        checkoutVM.setAddress(DEFAULT_DELIVERY_ADDRESS);
+        checkoutVM.setPaymentMethod(DEFAULT_PAYMENT_METHOD);
+
+        restOrderMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/checkout")
+                    .header("Idempotency-Key", "k".repeat(256))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(checkoutVM))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void checkoutQueryCountDoesNotGrowWithTheCartLines() throws Exception {
+        // Initialize the database, and warm up the indexes loaded on first use with a first checkout
+        insertCartOf("checkout-warmup", 1, 5, 1);
+        insertCartOf("checkout-single", 1, 5, 1);
+        insertCartOf("checkout-twenty", 20, 5, 1);
+        em.clear();
+        countCheckoutQueries("checkout-warmup");
+
+        // Count the queries and lazy loads of a checkout of 1 line, then of 20 lines
+        long singleLineQueries = countCheckoutQueries("checkout-single");
+        long twentyLinesQueries = countCheckoutQueries("checkout-twenty");
+
+        assertThat(twentyLinesQueries).isEqualTo(singleLineQueries);
+    }
+
+    @Test
+    @Transactional
+    void checkoutBatchRejectsOnlyTheCartsShortOfStock() throws Exception {
+        // Initialize the database: three carts competing for a stock of 3
+        ProductVariant variant = insertVariants("checkout-batch", 1, 3).get(0);
+        insertCartOf("checkout-batch-first", List.of(variant), 2);
+        insertCartOf("checkout-batch-second", List.of(variant), 2);
+        insertCartOf("checkout-batch-third", List.of(variant), 1);
+
+        List<CheckoutOutcome> outcomes = orderService.checkoutBatch(
+            List.of(
+                new CheckoutRequest("checkout-batch-first", null, DEFAULT_DELIVERY_ADDRESS, DEFAULT_PAYMENT_METHOD),
+                new CheckoutRequest("checkout-batch-second", null, DEFAULT_DELIVERY_ADDRESS, DEFAULT_PAYMENT_METHOD),
+                new CheckoutRequest("checkout-batch-third", null, DEFAULT_DELIVERY_ADDRESS, DEFAULT_PAYMENT_METHOD),
+                new CheckoutRequest("checkout-batch-missing", null, DEFAULT_DELIVERY_ADDRESS, DEFAULT_PAYMENT_METHOD)
+            )
+        );
+
+        assertThat(outcomes.get(0).order()).isNotNull();
+        assertThat(outcomes.get(1).error()).isInstanceOf(InsufficientStockException.class);
+        assertThat(outcomes.get(2).order()).isNotNull();
+        assertThat(outcomes.get(3).error()).hasMessage("Panier non trouvé");
+        em.flush();
+        em.clear();
+        assertThat(em.find(ProductVariant.class, variant.getId()).getStock()).isZero();
+    }
+
+    /**
+     * Check out the cart of a customer, counting the queries run and the entities or collections lazily loaded.
+     */
+    private long countCheckoutQueries(String login) {
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        statistics.setStatisticsEnabled(true);
+        try {
+            orderService.checkout(login, null, DEFAULT_DELIVERY_ADDRESS, DEFAULT_PAYMENT_METHOD);
+            em.flush();
+            return statistics.getQueryExecutionCount() + statistics.getEntityFetchCount() + statistics.getCollectionFetchCount();
+        } finally {
+            statistics.setStatisticsEnabled(false);
+            em.clear();
+        }
+    }
+
+    /**
+     * Insert a customer with the given login, and an active cart holding a quantity of distinct variants.
+     *
+     * @return the variants in the cart.
+     */
+    private List<ProductVariant> insertCartOf(String login, int lines, int stock, int quantity) {
+        List<ProductVariant> variants = insertVariants(login, lines, stock);
+        insertCartOf(login, variants, quantity);
+        return variants;
+    }
+
+    /**
+     * Insert a customer with the given login, and an active cart holding a quantity of each of the given variants.
+     */
+    private void insertCartOf(String login, List<ProductVariant> variants, int quantity) {
+        User user = UserResourceIT.createEntity();
+        user.setLogin(login);
+        em.persist(user);
+        Customer customer = CustomerResourceIT.createEntity().user(user);
+        em.persist(customer);
+        Cart cart = CartResourceIT.createEntity().active(true).customer(customer);
+        em.persist(cart);
+        for (ProductVariant variant : variants) {
+            em.persist(CartItemResourceIT.createEntity().quantity(quantity).cart(cart).variant(variant).product(variant.getProduct()));
+        }
+        em.flush();
+    }
+
+    /**
+     * Insert products, each with a variant of the given stock.
+     */
+    private List<ProductVariant> insertVariants(String skuPrefix, int count, int stock) {
+        List<ProductVariant> variants = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Product product = ProductResourceIT.createEntity().slug(skuPrefix + "-" + i).sku(skuPrefix + "-" + i);
+            em.persist(product);
+            ProductVariant variant = ProductVariantResourceIT.createEntity().sku(skuPrefix + "-" + i).stock(stock).product(product);
+            em.persist(variant);
+            variants.add(variant);
+        }
+        return variants;
+    }
+
     protected long getRepositoryCount() {
         return orderRepository.count();
     }
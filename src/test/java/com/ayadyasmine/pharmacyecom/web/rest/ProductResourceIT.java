@@ -4,6 +4,7 @@ import static com.ayadyasmine.pharmacyecom.domain.ProductAsserts.*;
 import static com.ayadyasmine.pharmacyecom.web.rest.TestUtil.createUpdateProxyForBean;
 import static com.ayadyasmine.pharmacyecom.web.rest.TestUtil.sameNumber;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -12,9 +13,14 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.ayadyasmine.pharmacyecom.IntegrationTest;
 import com.ayadyasmine.pharmacyecom.domain.Brand;
 import com.ayadyasmine.pharmacyecom.domain.Category;
+import com.ayadyasmine.pharmacyecom.domain.Order;
 import com.ayadyasmine.pharmacyecom.domain.Product;
 import com.ayadyasmine.pharmacyecom.domain.Promotion;
+import com.ayadyasmine.pharmacyecom.repository.CategoryClosureRepository;
+import com.ayadyasmine.pharmacyecom.repository.OrderItemRepository;
+import com.ayadyasmine.pharmacyecom.repository.OrderRepository;
 import com.ayadyasmine.pharmacyecom.repository.ProductRepository;
+import com.ayadyasmine.pharmacyecom.service.ProductRecommendationService;
 import com.ayadyasmine.pharmacyecom.service.ProductService;
 import com.ayadyasmine.pharmacyecom.service.dto.ProductDTO;
 import com.ayadyasmine.pharmacyecom.service.mapper.ProductMapper;
@@ -111,6 +117,18 @@ class ProductResourceIT {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CategoryClosureRepository categoryClosureRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductRecommendationService productRecommendationService;
+
     @Mock
     private ProductRepository productRepositoryMock;
 
@@ -378,6 +396,122 @@ class ProductResourceIT {
             .andExpect(jsonPath("$.viewsCount").value(DEFAULT_VIEWS_COUNT.intValue()));
     }
 
+    @Test
+    @Transactional
+    void searchProducts() throws Exception {
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(product);
+
+        // Search the productList by name
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "/_search?q=" + DEFAULT_NAME))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(product.getId().intValue())))
+            .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)));
+
+        // Search the productList with unknown terms
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "/_search?q=" + UPDATED_NAME))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").isArray())
+            .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    @Transactional
+    void getProductFacets() throws Exception {
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(product);
+
+        // Get the facets of the product
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "/facets?id.equals=" + product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.total").value(1))
+            .andExpect(jsonPath("$.inStock").value(0))
+            .andExpect(jsonPath("$.outOfStock").value(1))
+            .andExpect(jsonPath("$.priceBuckets.['0-500']").value(1))
+            .andExpect(jsonPath("$.priceBuckets.['5000-*']").value(0));
+    }
+
+    @Test
+    @Transactional
+    void getProductFacetsCountsEachProductOnceAcrossPromotions() throws Exception {
+        // Initialize the database with a product in two promotions
+        productRepository.saveAndFlush(product);
+        Promotion first = PromotionResourceIT.createEntity().addProducts(product);
+        Promotion second = PromotionResourceIT.createEntity().addProducts(product);
+        em.persist(first);
+        em.persist(second);
+        em.flush();
+
+        // Get the facets of the products of either promotion
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "/facets?promotionsId.in=" + first.getId() + "," + second.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(1))
+            .andExpect(jsonPath("$.outOfStock").value(1))
+            .andExpect(jsonPath("$.priceBuckets.['0-500']").value(1));
+    }
+
+    @Test
+    @Transactional
+    void getAllProductSummaries() throws Exception {
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(product);
+
+        // Get the summaries of the productList
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "?view=summary&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().exists("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(product.getId().intValue())))
+            .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)))
+            .andExpect(jsonPath("$.[*].slug").value(hasItem(DEFAULT_SLUG)))
+            .andExpect(jsonPath("$.[*].price").value(hasItem(sameNumber(DEFAULT_PRICE))))
+            .andExpect(jsonPath("$.[*].stock").value(hasItem(DEFAULT_STOCK)))
+            .andExpect(jsonPath("$.[*].description").doesNotExist())
+            .andExpect(jsonPath("$.[*].promotions").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsWithCursor() throws Exception {
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(product);
+        Product other = productRepository.saveAndFlush(createUpdatedEntity());
+        String ids = "&id.in=" + product.getId() + "," + other.getId();
+
+        // Get the first page, sorted by name
+        String nextCursor = restProductMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor=&size=1&sort=name,asc" + ids))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().exists("X-Next-Cursor"))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(product.getId().intValue()))
+            .andReturn()
+            .getResponse()
+            .getHeader("X-Next-Cursor");
+
+        // Get the last page from the cursor
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor=" + nextCursor + "&size=1" + ids))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Next-Cursor"))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(other.getId().intValue()));
+
+        productRepository.delete(other);
+
+        // Reject a malformed cursor and an unsupported sort
+        restProductMockMvc.perform(get(ENTITY_API_URL + "?cursor=garbage")).andExpect(status().isBadRequest());
+        restProductMockMvc.perform(get(ENTITY_API_URL + "?cursor=&sort=description,asc")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getProductsByIdFiltering() throws Exception {
@@ -563,6 +697,89 @@ class ProductResourceIT {
         defaultProductFiltering("price.greaterThan=" + SMALLER_PRICE, "price.greaterThan=" + DEFAULT_PRICE);
     }
 
+    @Test
+    @Transactional
+    void getAllProductsByEffectivePriceIsLessThanSomething() throws Exception {
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(product.effectivePrice(DEFAULT_PRICE));
+
+        // Get all the productList where effectivePrice is less than
+        defaultProductFiltering("effectivePrice.lessThan=" + UPDATED_PRICE, "effectivePrice.lessThan=" + DEFAULT_PRICE);
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByEffectivePriceIsGreaterThanSomething() throws Exception {
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(product.effectivePrice(DEFAULT_PRICE));
+
+        // Get all the productList where effectivePrice is greater than
+        defaultProductFiltering("effectivePrice.greaterThan=" + SMALLER_PRICE, "effectivePrice.greaterThan=" + DEFAULT_PRICE);
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsSortedByEffectivePrice() throws Exception {
+        // Initialize the database, the discounted product being the cheapest despite its price
+        Product discounted = productRepository.saveAndFlush(
+            createEntity().slug("discounted").sku("discounted").price(new BigDecimal("300.00")).effectivePrice(new BigDecimal("90.00"))
+        );
+        Product cheap = productRepository.saveAndFlush(
+            createEntity().slug("cheap").sku("cheap").price(new BigDecimal("100.00")).effectivePrice(new BigDecimal("100.00"))
+        );
+        Product expensive = productRepository.saveAndFlush(
+            createEntity().slug("expensive").sku("expensive").price(new BigDecimal("200.00")).effectivePrice(new BigDecimal("200.00"))
+        );
+        String ids = "id.in=" + discounted.getId() + "," + cheap.getId() + "," + expensive.getId();
+
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=effectivePrice,asc&" + ids))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(discounted.getId().intValue(), cheap.getId().intValue(), expensive.getId().intValue())))
+            .andExpect(jsonPath("$.[0].discountedPrice").value(sameNumber(new BigDecimal("90.00"))));
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=effectivePrice,desc&effectivePrice.lessThan=150&" + ids))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(cheap.getId().intValue(), discounted.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void updatesOfTheProductRecomputeItsEffectivePrice() throws Exception {
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(product.effectivePrice(DEFAULT_PRICE));
+
+        // A full update sets the effective price from the new price
+        ProductDTO productDTO = productMapper.toDto(productRepository.findById(product.getId()).orElseThrow());
+        productDTO.setPrice(new BigDecimal("120.00"));
+        restProductMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, productDTO.getId()).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(productDTO))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.discountedPrice").value(sameNumber(new BigDecimal("120.00"))));
+        em.clear();
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getEffectivePrice()).isEqualByComparingTo("120.00");
+
+        // So does a partial update of the price
+        ProductDTO partialProductDTO = new ProductDTO();
+        partialProductDTO.setId(product.getId());
+        partialProductDTO.setPrice(new BigDecimal("80.00"));
+        restProductMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, product.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(om.writeValueAsBytes(partialProductDTO))
+            )
+            .andExpect(status().isOk());
+        em.clear();
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getEffectivePrice()).isEqualByComparingTo("80.00");
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "?effectivePrice.equals=80.00&id.equals=" + product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(product.getId().intValue())));
+    }
+
     @Test
     @Transactional
     void getAllProductsByOldPriceIsEqualToSomething() throws Exception {
@@ -1047,6 +1264,28 @@ class ProductResourceIT {
         defaultProductShouldNotBeFound("categoryId.equals=" + (categoryId + 1));
     }
 
+    @Test
+    @Transactional
+    void getAllProductsByCategorySubtreeIdIsEqualToSomething() throws Exception {
+        Category parent = CategoryResourceIT.createEntity();
+        em.persist(parent);
+        Category category = CategoryResourceIT.createUpdatedEntity().parent(parent);
+        em.persist(category);
+        em.flush();
+        categoryClosureRepository.insertSelf(parent.getId());
+        categoryClosureRepository.insertSelf(category.getId());
+        categoryClosureRepository.attachSubtree(category.getId(), parent.getId());
+        product.setCategory(category);
+        insertedProduct = productRepository.saveAndFlush(product);
+
+        // Get all the productList in the subtree of the parent category, and of the category itself
+        defaultProductShouldBeFound("categorySubtreeId.equals=" + parent.getId());
+        defaultProductShouldBeFound("categorySubtreeId.equals=" + category.getId());
+
+        // Get all the productList in the subtree of an unrelated category
+        defaultProductShouldNotBeFound("categorySubtreeId.equals=" + (category.getId() + 1));
+    }
+
     @Test
     @Transactional
     void getAllProductsByBrandIsEqualToSomething() throws Exception {
@@ -1148,6 +1387,90 @@ class ProductResourceIT {
             .andExpect(content().string("0"));
     }
 
+    @Test
+    @Transactional
+    void getProductBySlug() throws Exception {
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(product);
+
+        // Get the product by slug
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "/by-slug/{slug}", DEFAULT_SLUG))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.id").value(product.getId().intValue()))
+            .andExpect(jsonPath("$.slug").value(DEFAULT_SLUG));
+
+        // Get a product by an unknown slug
+        restProductMockMvc.perform(get(ENTITY_API_URL + "/by-slug/{slug}", UPDATED_SLUG)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void getRelatedProducts() throws Exception {
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(product);
+        Product boughtTwice = productRepository.saveAndFlush(createEntity().slug("bought-twice").sku("BOUGHT-TWICE").active(true));
+        Product boughtOnce = productRepository.saveAndFlush(createEntity().slug("bought-once").sku("BOUGHT-ONCE").active(true));
+        for (int i = 0; i < 2; i++) {
+            Order order = orderRepository.saveAndFlush(OrderResourceIT.createEntity());
+            orderItemRepository.saveAndFlush(OrderItemResourceIT.createEntity().order(order).product(product));
+            orderItemRepository.saveAndFlush(OrderItemResourceIT.createEntity().order(order).product(boughtTwice));
+            if (i == 0) {
+                orderItemRepository.saveAndFlush(OrderItemResourceIT.createEntity().order(order).product(boughtOnce));
+            }
+        }
+        productRecommendationService.computeCoPurchases();
+
+        // Get the products bought together, most bought first
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/related", product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(contains(boughtTwice.getId().intValue(), boughtOnce.getId().intValue())));
+
+        // The inactive product is not recommended
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/related", boughtOnce.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(boughtTwice.getId().intValue())));
+
+        // Only the ids are cached: the summaries follow the product writes
+        productRepository.saveAndFlush(boughtTwice.name(UPDATED_NAME));
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/related", product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].name").value(UPDATED_NAME));
+    }
+
+    @Test
+    @Transactional
+    void getRelatedProductsCountsAnOrderCommittedAfterAGreaterId() throws Exception {
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(product);
+        Product boughtTogether = productRepository.saveAndFlush(createEntity().slug("bought-together").sku("BOUGHT-TOGETHER").active(true));
+        Order counted = orderRepository.saveAndFlush(OrderResourceIT.createEntity());
+        productRecommendationService.computeCoPurchases();
+
+        // An order drawn from an earlier block of the sequence commits after the run
+        Order late = orderRepository.saveAndFlush(OrderResourceIT.createEntity());
+        em
+            .createNativeQuery("update jhi_order set id = :id where id = :lateId")
+            .setParameter("id", counted.getId() - 1)
+            .setParameter("lateId", late.getId())
+            .executeUpdate();
+        em.clear();
+        late = orderRepository.findById(counted.getId() - 1).orElseThrow();
+        orderItemRepository.saveAndFlush(OrderItemResourceIT.createEntity().order(late).product(product));
+        orderItemRepository.saveAndFlush(OrderItemResourceIT.createEntity().order(late).product(boughtTogether));
+        productRecommendationService.computeCoPurchases();
+
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/related", product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(boughtTogether.getId().intValue())));
+    }
+
     @Test
     @Transactional
     void getNonExistingProduct() throws Exception {
@@ -10,7 +10,9 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.ayadyasmine.pharmacyecom.IntegrationTest;
+import com.ayadyasmine.pharmacyecom.domain.Cart;
 import com.ayadyasmine.pharmacyecom.domain.ProductVariant;
+import com.ayadyasmine.pharmacyecom.domain.StockReservation;
 import com.ayadyasmine.pharmacyecom.repository.ProductVariantRepository;
 import com.ayadyasmine.pharmacyecom.service.ProductVariantService;
 import com.ayadyasmine.pharmacyecom.service.dto.ProductVariantDTO;
@@ -18,6 +20,8 @@ import com.ayadyasmine.pharmacyecom.service.mapper.ProductVariantMapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityManager;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -274,6 +278,35 @@ class ProductVariantResourceIT {
         restProductVariantMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void getProductVariantAvailableToSell() throws Exception {
+        // Initialize the database
+        insertedProductVariant = productVariantRepository.saveAndFlush(productVariant.stock(5));
+        Cart cart = CartResourceIT.createEntity();
+        em.persist(cart);
+        em.persist(
+            new StockReservation()
+                .cartId(cart.getId())
+                .variantId(productVariant.getId())
+                .quantity(2)
+                .expiresAt(Instant.now().plus(1, ChronoUnit.HOURS))
+        );
+        em.flush();
+
+        // Get the quantity left once the hold is taken off the stock
+        restProductVariantMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/available", productVariant.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().string("3"));
+    }
+
+    @Test
+    @Transactional
+    void getAvailableToSellOfNonExistingProductVariant() throws Exception {
+        restProductVariantMockMvc.perform(get(ENTITY_API_URL_ID + "/available", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     void putExistingProductVariant() throws Exception {
@@ -9,6 +9,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.ayadyasmine.pharmacyecom.IntegrationTest;
+import com.ayadyasmine.pharmacyecom.domain.Product;
 import com.ayadyasmine.pharmacyecom.domain.Promotion;
 import com.ayadyasmine.pharmacyecom.repository.PromotionRepository;
 import com.ayadyasmine.pharmacyecom.service.PromotionService;
@@ -16,6 +17,7 @@ import com.ayadyasmine.pharmacyecom.service.dto.PromotionDTO;
 import com.ayadyasmine.pharmacyecom.service.mapper.PromotionMapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
@@ -497,6 +499,54 @@ class PromotionResourceIT {
         assertDecrementedRepositoryCount(databaseSizeBeforeDelete);
     }
 
+    @Test
+    @Transactional
+    void promotionWritesRecomputeTheEffectivePriceOfTheirProducts() throws Exception {
+        // Initialize the database
+        Product product = ProductResourceIT.createEntity()
+            .slug("promoted-product")
+            .sku("promoted-product")
+            .price(new BigDecimal("200.00"))
+            .effectivePrice(new BigDecimal("200.00"));
+        em.persist(product);
+        em.flush();
+        Instant now = Instant.now();
+        promotion.discountPercent(25).active(true).startDate(now.minus(1, ChronoUnit.HOURS)).endDate(now.plus(1, ChronoUnit.HOURS));
+        promotion.addProducts(product);
+
+        // Creating the promotion discounts its product
+        PromotionDTO promotionDTO = om.readValue(
+            restPromotionMockMvc
+                .perform(
+                    post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(promotionMapper.toDto(promotion)))
+                )
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            PromotionDTO.class
+        );
+        assertThat(effectivePrice(product)).isEqualByComparingTo("150.00");
+
+        // Updating its discount reprices it
+        promotionDTO.setDiscountPercent(50);
+        restPromotionMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, promotionDTO.getId()).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(promotionDTO))
+            )
+            .andExpect(status().isOk());
+        assertThat(effectivePrice(product)).isEqualByComparingTo("100.00");
+
+        // Deleting it brings the product back to its price
+        restPromotionMockMvc.perform(delete(ENTITY_API_URL_ID, promotionDTO.getId())).andExpect(status().isNoContent());
+        assertThat(effectivePrice(product)).isEqualByComparingTo("200.00");
+    }
+
+    private BigDecimal effectivePrice(Product product) {
+        em.clear();
+        return em.find(Product.class, product.getId()).getEffectivePrice();
+    }
+
     protected long getRepositoryCount() {
         return promotionRepository.count();
     }